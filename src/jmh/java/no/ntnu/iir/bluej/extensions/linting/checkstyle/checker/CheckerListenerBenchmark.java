@@ -0,0 +1,87 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the throughput of CheckerListener.addError,
+ * which runs on the audit thread for every violation Checkstyle reports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CheckerListenerBenchmark {
+  private static final int VIOLATIONS_PER_FILE = 1000;
+  private static final String FILE_NAME = "/synthetic/Synthetic.java";
+
+  private CheckerService checkerService;
+  private CheckerListener checkerListener;
+  private AuditEvent fileEvent;
+  private AuditEvent[] errorEvents;
+
+  /**
+   * Creates the listener and the events reported to it.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    // addError never touches the ViolationManager or the BlueClassIndex
+    this.checkerService = new CheckerService();
+    this.checkerListener = new CheckerListener(null, null, this.checkerService);
+    this.fileEvent = new AuditEvent(this, FILE_NAME);
+    this.errorEvents = new AuditEvent[VIOLATIONS_PER_FILE];
+    for (int i = 0; i < VIOLATIONS_PER_FILE; i++) {
+      this.errorEvents[i] = new AuditEvent(this, FILE_NAME, new Violation(
+          i + 1,
+          5,
+          "com.puppycrawl.tools.checkstyle.checks.coding.messages",
+          "magic.number",
+          new Object[] {String.valueOf(i)},
+          SeverityLevel.WARNING,
+          null,
+          MagicNumberCheck.class,
+          null
+      ));
+    }
+  }
+
+  /**
+   * Stops the threads of the listener and the service.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.checkerListener.shutdown();
+    this.checkerService.shutdown();
+  }
+
+  /**
+   * Reports the violations of one file, the way Checkstyle does while processing it.
+   */
+  @Benchmark
+  @OperationsPerInvocation(VIOLATIONS_PER_FILE)
+  public void addError() {
+    // starting the file replaces the violations collected by the previous invocation
+    this.checkerListener.fileStarted(this.fileEvent);
+    for (AuditEvent errorEvent : this.errorEvents) {
+      this.checkerListener.addError(errorEvent);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks auditing synthetic sources with the built-in configurations.
+ * No ResultCache is set, so every file is audited on every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CheckerServiceBenchmark {
+  private static final int FILES_PER_AUDIT = 20;
+  private static final String CHARSET = "UTF-8";
+
+  @Param({"google", "sun"})
+  public String config;
+
+  @Param({"100", "1000", "5000"})
+  public int lines;
+
+  @Param({"1", "4"})
+  public int poolSize;
+
+  private Path sourceDirectory;
+  private List<File> files;
+  private CheckerService checkerService;
+  private AtomicInteger violationCount;
+
+  /**
+   * Writes the synthetic sources and configures the CheckerService.
+   *
+   * @throws Exception if the sources could not be written or the config is invalid
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    this.sourceDirectory = Files.createTempDirectory("checkstyle4bluej-benchmark");
+    this.files = SyntheticSources.write(this.sourceDirectory, FILES_PER_AUDIT, this.lines);
+    this.violationCount = new AtomicInteger();
+
+    this.checkerService = new CheckerService();
+    this.checkerService.addListener(new CountingListener(this.violationCount));
+    this.checkerService.setPoolSize(this.poolSize);
+    this.checkerService.setConfiguration(SyntheticSources.getBuiltinConfig(this.config));
+    this.checkerService.enable();
+  }
+
+  /**
+   * Stops the CheckerService and deletes the synthetic sources.
+   *
+   * @throws Exception if the sources could not be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    this.checkerService.shutdown();
+    SyntheticSources.delete(this.sourceDirectory);
+  }
+
+  /**
+   * Audits a single file and waits for the audit to finish.
+   *
+   * @return the number of violations found so far, to keep the audit from being optimized away
+   *
+   * @throws Exception if the audit failed
+   */
+  @Benchmark
+  public int checkFile() throws Exception {
+    this.checkerService.checkFileAsync(this.files.get(0), CHARSET).get();
+    return this.violationCount.get();
+  }
+
+  /**
+   * Audits every file in a single request and waits for the audit to finish.
+   *
+   * @return the number of violations found so far, to keep the audit from being optimized away
+   *
+   * @throws Exception if the audit failed
+   */
+  @Benchmark
+  public int checkFiles() throws Exception {
+    this.checkerService.checkFilesAsync(this.files, CHARSET).get();
+    return this.violationCount.get();
+  }
+
+  /**
+   * Represents an AuditListener counting violations, standing in for the CheckerListener,
+   * which needs the JavaFX thread to publish its results.
+   */
+  private static final class CountingListener implements AuditListener {
+    private final AtomicInteger violationCount;
+
+    private CountingListener(AtomicInteger violationCount) {
+      this.violationCount = violationCount;
+    }
+
+    @Override
+    public void addError(AuditEvent auditEvent) {
+      this.violationCount.incrementAndGet();
+    }
+
+    @Override
+    public void auditStarted(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void auditFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void fileStarted(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void fileFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void addException(AuditEvent auditEvent, Throwable throwable) {
+      // do nothing
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the cost of CheckerService.setConfiguration,
+ * both for a configuration loaded for the first time and for switching between cached ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ConfigurationBenchmark {
+  @Param({"google", "sun"})
+  public String config;
+
+  private String configPath;
+  private String otherConfigPath;
+  private CheckerService checkerService;
+  private boolean useOtherConfig;
+
+  /**
+   * Creates a CheckerService with both built-in configurations cached.
+   *
+   * @throws Exception if a configuration is invalid
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    this.configPath = SyntheticSources.getBuiltinConfig(this.config);
+    this.otherConfigPath = SyntheticSources.getBuiltinConfig(
+        "google".equals(this.config) ? "sun" : "google"
+    );
+
+    this.checkerService = new CheckerService();
+    this.checkerService.setConfiguration(this.otherConfigPath);
+    this.checkerService.setConfiguration(this.configPath);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.checkerService.shutdown();
+  }
+
+  /**
+   * Loads the configuration into a new CheckerService, parsing it and configuring a Checker.
+   *
+   * @throws Exception if the configuration is invalid
+   */
+  @Benchmark
+  public void loadConfiguration() throws Exception {
+    CheckerService coldCheckerService = new CheckerService();
+    try {
+      coldCheckerService.setConfiguration(this.configPath);
+    } finally {
+      coldCheckerService.shutdown();
+    }
+  }
+
+  /**
+   * Switches back and forth between the two cached configurations.
+   *
+   * @throws Exception if a configuration is invalid
+   */
+  @Benchmark
+  public void switchConfiguration() throws Exception {
+    this.useOtherConfig = !this.useOtherConfig;
+    this.checkerService.setConfiguration(
+        this.useOtherConfig ? this.otherConfigPath : this.configPath
+    );
+  }
+}
@@ -0,0 +1,103 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Represents a generator of synthetic Java sources to benchmark audits with.
+ * The sources mix clean code with the kind of violations students typically make,
+ * like magic numbers, missing Javadoc, long lines and misplaced braces.
+ */
+final class SyntheticSources {
+  private SyntheticSources() {
+  }
+
+  /**
+   * Returns the URL of one of the configurations bundled with the extension.
+   *
+   * @param config google or sun
+   *
+   * @return the URL of the configuration
+   */
+  static String getBuiltinConfig(String config) {
+    return SyntheticSources.class.getClassLoader()
+        .getResource("config/" + config + "_checks.xml")
+        .toString();
+  }
+
+  /**
+   * Writes a number of synthetic classes to a directory.
+   *
+   * @param directory the directory to write the classes to
+   * @param fileCount the number of classes to write
+   * @param lineCount the approximate number of lines in each class
+   *
+   * @return the written files
+   *
+   * @throws IOException if a file could not be written
+   */
+  static List<File> write(Path directory, int fileCount, int lineCount) throws IOException {
+    List<File> files = new ArrayList<>(fileCount);
+    for (int i = 0; i < fileCount; i++) {
+      String className = "Synthetic" + i;
+      Path file = directory.resolve(className + ".java");
+      Files.writeString(file, generate(className, lineCount), StandardCharsets.UTF_8);
+      files.add(file.toFile());
+    }
+    return files;
+  }
+
+  /**
+   * Deletes a directory and everything in it.
+   *
+   * @param directory the directory to delete
+   *
+   * @throws IOException if the directory could not be deleted
+   */
+  static void delete(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static String generate(String className, int lineCount) {
+    StringBuilder source = new StringBuilder();
+    source.append("package synthetic;\n\n")
+        .append("import java.util.ArrayList;\n")
+        .append("import java.util.List;\n\n")
+        .append("/**\n * A synthetic class.\n */\n")
+        .append("public class ").append(className).append(" {\n")
+        .append("  private List<Integer> values = new ArrayList<>();\n\n");
+
+    // every method is 10 lines long
+    for (int method = 0; method * 10 < lineCount; method++) {
+      if (method % 2 == 0) {
+        source.append("  /**\n   * Adds values.\n   *\n   * @param count the count\n   */\n")
+            .append("  public void addValues").append(method).append("(int count) {\n")
+            .append("    for (int i = 0; i < count; i++) {\n")
+            .append("      this.values.add(i * 2);\n")
+            .append("    }\n")
+            .append("  }\n");
+      } else {
+        source.append("  public int compute").append(method).append("(int x)\n")
+            .append("  {\n")
+            .append("      int result = x * 42 + 1337;\n")
+            .append("      if (result > 100) { result = result % 7; }\n")
+            .append("      String s = \"a rather long string literal that pushes this line")
+            .append(" well past the line length limit of both configurations\";\n")
+            .append("      return result + s.length();\n")
+            .append("  }\n\n");
+      }
+    }
+    return source.append("}\n").toString();
+  }
+}
@@ -0,0 +1,147 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import bluej.extensions2.editor.TextLocation;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import no.ntnu.iir.bluej.extensions.linting.core.violations.Violation;
+import no.ntnu.iir.bluej.extensions.linting.core.violations.ViolationManager;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Measures the heap retained per violation shown in the overview,
+ * which ViolationStore.ESTIMATED_BYTES_PER_VIOLATION is derived from.
+ * Audits synthetic sources with a bundled configuration, publishes the violations of every
+ * file to a ViolationStore the way CheckerListener does, and measures with JOL what the store
+ * and its ViolationManager retain: the Violations, their ViolationRecords, their messages
+ * and locations, the shared RuleDefinitions and the lists and maps holding them.
+ *
+ * <p>Run with:
+ * <pre>
+ * mvn -P jmh test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationFootprint
+ * </pre>
+ * Optional arguments: the configuration (google or sun), the number of files and the number
+ * of lines per file, google 200 500 by default.
+ */
+public final class ViolationFootprint {
+  private ViolationFootprint() {
+  }
+
+  /**
+   * Runs the measurement and prints the result.
+   *
+   * @param args the configuration, the number of files and the number of lines per file
+   *
+   * @throws Exception if the sources could not be written or audited
+   */
+  public static void main(String[] args) throws Exception {
+    String config = args.length > 0 ? args[0] : "google";
+    int fileCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int lineCount = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+    Path directory = Files.createTempDirectory("footprint");
+    try {
+      List<File> files = SyntheticSources.write(directory, fileCount, lineCount);
+      Map<String, List<ViolationRecord>> auditedFiles = audit(config, files);
+
+      CheckerService checkerService = new CheckerService();
+      ViolationManager violationManager = new ViolationManager();
+      ViolationStore violationStore = new ViolationStore(violationManager, checkerService);
+      GraphLayout emptyLayout = GraphLayout.parseInstance(violationStore, violationManager);
+
+      RuleDefinitionPool ruleDefinitionPool = new RuleDefinitionPool();
+      long violationCount = 0;
+      for (Map.Entry<String, List<ViolationRecord>> auditedFile : auditedFiles.entrySet()) {
+        List<ViolationRecord> violations = auditedFile.getValue();
+        ArrayList<Violation> violationList = new ArrayList<>(violations.size());
+        for (ViolationRecord violationRecord : violations) {
+          violationList.add(new Violation(
+              violationRecord.getMessage(),
+              null,
+              new TextLocation(violationRecord.getLine(), violationRecord.getColumn()),
+              ruleDefinitionPool.get(violationRecord)
+          ));
+        }
+        violationStore.replaceViolations(auditedFile.getKey(), violationList, violations);
+        violationCount += violations.size();
+      }
+      auditedFiles.clear();
+
+      GraphLayout retainedLayout = GraphLayout.parseInstance(violationStore, violationManager)
+          .subtract(emptyLayout);
+      long retainedSize = retainedLayout.totalSize();
+      System.out.println(retainedLayout.toFootprint());
+      System.out.printf(
+          "%s: %,d files, %,d violations, %,d RuleDefinitions%n",
+          config,
+          fileCount,
+          violationCount,
+          ruleDefinitionPool.size()
+      );
+      System.out.printf(
+          "Retained %,d bytes, %,d bytes per violation%n",
+          retainedSize,
+          violationCount > 0 ? retainedSize / violationCount : 0
+      );
+      checkerService.shutdown();
+    } finally {
+      SyntheticSources.delete(directory);
+    }
+  }
+
+  private static Map<String, List<ViolationRecord>> audit(String config, List<File> files)
+      throws Exception {
+    Map<String, List<ViolationRecord>> auditedFiles = new LinkedHashMap<>();
+    Checker checker = new Checker();
+    checker.setModuleClassLoader(Checker.class.getClassLoader());
+    checker.configure(ConfigurationLoader.loadConfiguration(
+        SyntheticSources.getBuiltinConfig(config),
+        new PropertiesExpander(new Properties())
+    ));
+    checker.addListener(new AuditListener() {
+      @Override
+      public void auditStarted(AuditEvent auditEvent) {
+      }
+
+      @Override
+      public void auditFinished(AuditEvent auditEvent) {
+      }
+
+      @Override
+      public void fileStarted(AuditEvent auditEvent) {
+        auditedFiles.put(auditEvent.getFileName(), new ArrayList<>());
+      }
+
+      @Override
+      public void fileFinished(AuditEvent auditEvent) {
+      }
+
+      @Override
+      public void addError(AuditEvent auditEvent) {
+        auditedFiles.get(auditEvent.getFileName()).add(ViolationRecord.of(auditEvent));
+      }
+
+      @Override
+      public void addException(AuditEvent auditEvent, Throwable throwable) {
+        throwable.printStackTrace();
+      }
+    });
+    try {
+      checker.process(files);
+    } finally {
+      checker.destroy();
+    }
+    return auditedFiles;
+  }
+}
@@ -0,0 +1,38 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle;
+
+import bluej.extensions2.event.ClassEvent;
+import bluej.extensions2.event.ClassListener;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.BlueClassIndex;
+
+/**
+ * Represents a ClassListener for Checkstyle specific class handling.
+ * Responsible for keeping the BlueClassIndex up to date as classes change.
+ */
+public class CheckstyleClassListener implements ClassListener {
+  private BlueClassIndex blueClassIndex;
+
+  public CheckstyleClassListener(BlueClassIndex blueClassIndex) {
+    this.blueClassIndex = blueClassIndex;
+  }
+
+  /**
+   * Fired when the state of a class changes, for example when a class is added or compiled.
+   */
+  @Override
+  public void classStateChanged(ClassEvent classEvent) {
+    this.blueClassIndex.addClass(classEvent.getBClass());
+  }
+
+  /**
+   * Fired when a class is renamed, which also renames its source file.
+   */
+  @Override
+  public void classNameChanged(ClassEvent classEvent) {
+    this.blueClassIndex.addClass(classEvent.getBClass());
+  }
+
+  @Override
+  public void classRemoved(ClassEvent classEvent) {
+    this.blueClassIndex.removeClass(classEvent.getBClass());
+  }
+}
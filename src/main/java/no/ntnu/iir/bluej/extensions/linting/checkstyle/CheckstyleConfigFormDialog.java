@@ -2,6 +2,8 @@ package no.ntnu.iir.bluej.extensions.linting.checkstyle;
 
 import java.io.File;
 import java.util.AbstractMap.SimpleEntry;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
@@ -14,9 +16,14 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
+import javafx.util.Duration;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerService;
 
 /**
  * Represents a form dialog for defining Checkstyle config files.
+ * The config is loaded in the background shortly after its path is entered,
+ * so a broken config is reported in the dialog instead of when it is first used,
+ * and a valid one is ready in the config cache by the time it is selected.
  */
 public class CheckstyleConfigFormDialog extends Dialog<SimpleEntry<String, String>> {
   private TextField configNameTextField;
@@ -25,15 +32,23 @@ public class CheckstyleConfigFormDialog extends Dialog<SimpleEntry<String, Strin
   private boolean validConfigName;
   private boolean validConfigPath;
   private Label errorLabel;
+  private Label configStatusLabel;
+  private CheckerService checkerService;
+  private PauseTransition validationDelay;
+  private int validationCount; // to ignore the results of outdated validations
 
   private static final String ERROR_CLASS = "error";
+  private static final Duration VALIDATION_DELAY = Duration.millis(500);
 
   /**
    * Instantiates a new Dialog without predefined fields.
    * Used for adding new entries.
+   * 
+   * @param checkerService the CheckerService to validate the config with
    */
-  public CheckstyleConfigFormDialog() {
+  public CheckstyleConfigFormDialog(CheckerService checkerService) {
     super();
+    this.checkerService = checkerService;
     this.setTitle("Adding a config file");
     this.setHeaderText("Add a Checkstyle Configuration file");
     this.initPane();
@@ -49,11 +64,16 @@ public class CheckstyleConfigFormDialog extends Dialog<SimpleEntry<String, Strin
    * Instantiates a new Dialog with predefined fields.
    * Used for editing existing entries.
    * 
+   * @param checkerService the CheckerService to validate the config with
    * @param configName the predefined configuration file name
    * @param configPath the predefined configuration file path
    */
-  public CheckstyleConfigFormDialog(String configName, String configPath) {
-    this();
+  public CheckstyleConfigFormDialog(
+      CheckerService checkerService,
+      String configName,
+      String configPath
+  ) {
+    this(checkerService);
     this.setTitle("Editing config file");
     this.setHeaderText("Editing a Checkstyle configuration file");
     this.configNameTextField.setText(configName);
@@ -80,13 +100,23 @@ public class CheckstyleConfigFormDialog extends Dialog<SimpleEntry<String, Strin
       this.evaluateValidity();
     });
 
+    this.validationDelay = new PauseTransition(VALIDATION_DELAY);
+    this.validationDelay.setOnFinished(event -> this.validateConfigPath());
+
     this.configPathTextField = new TextField();
     this.configPathTextField.textProperty().addListener((obs, oldValue, newValue) -> {
-      this.validConfigPath = (newValue.length() > 0);
-
-      if (this.validConfigPath) {
-        this.configPathTextField.getStyleClass().remove(ERROR_CLASS);
+      // the path is only valid once the config has been loaded
+      this.validConfigPath = false;
+      this.validationCount++;
+      this.configStatusLabel.setText("");
+      this.configPathTextField.getStyleClass().remove(ERROR_CLASS);
+
+      if (newValue.length() > 0) {
+        this.configStatusLabel.setTextFill(Color.GRAY);
+        this.configStatusLabel.setText("Loading config...");
+        this.validationDelay.playFromStart();
       } else {
+        this.validationDelay.stop();
         this.configPathTextField.getStyleClass().add(ERROR_CLASS);
       }
 
@@ -99,6 +129,10 @@ public class CheckstyleConfigFormDialog extends Dialog<SimpleEntry<String, Strin
     this.errorLabel.setTextFill(Color.RED);
     this.errorLabel.setVisible(false);
 
+    this.configStatusLabel = new Label();
+    this.configStatusLabel.setWrapText(true);
+    this.configStatusLabel.setMaxWidth(500);
+
     Button configPathBrowseButton = new Button("Browse");
     configPathBrowseButton.setOnAction(this::onBrowseConfigPath);
     
@@ -114,7 +148,8 @@ public class CheckstyleConfigFormDialog extends Dialog<SimpleEntry<String, Strin
     formGridPane.add(configPathTextField, 1, 1);
     formGridPane.add(configPathBrowseButton, 2, 1);
 
-    formGridPane.add(this.errorLabel, 0, 2, 3, 1);
+    formGridPane.add(this.configStatusLabel, 1, 2, 2, 1);
+    formGridPane.add(this.errorLabel, 0, 3, 3, 1);
 
     this.getDialogPane().setContent(formGridPane);
     
@@ -160,6 +195,32 @@ public class CheckstyleConfigFormDialog extends Dialog<SimpleEntry<String, Strin
     }
   }
 
+  /**
+   * Loads the entered config in the background, and shows whether it is valid.
+   * A valid config is kept in the config cache, so switching to it is instant.
+   */
+  private void validateConfigPath() {
+    int validation = ++this.validationCount;
+    this.checkerService.validateConfigurationAsync(this.configPathTextField.getText())
+        .whenComplete((result, throwable) -> Platform.runLater(() -> {
+          if (validation != this.validationCount) {
+            return;
+          }
+
+          this.validConfigPath = (throwable == null);
+          if (this.validConfigPath) {
+            this.configStatusLabel.setTextFill(Color.GREEN);
+            this.configStatusLabel.setText("Config loaded");
+          } else {
+            Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+            this.configStatusLabel.setTextFill(Color.RED);
+            this.configStatusLabel.setText("Invalid config: " + cause.getMessage());
+            this.configPathTextField.getStyleClass().add(ERROR_CLASS);
+          }
+          this.evaluateValidity();
+        }));
+  }
+
   /**
    * Evaluates the form inputs validity and disables/enabled the save button accordingly.
    */
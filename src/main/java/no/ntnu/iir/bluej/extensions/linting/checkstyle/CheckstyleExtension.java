@@ -2,42 +2,81 @@ package no.ntnu.iir.bluej.extensions.linting.checkstyle;
 
 import bluej.extensions2.BlueJ;
 import bluej.extensions2.Extension;
+import java.io.File;
 import java.net.URL;
 import java.util.logging.Logger;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.BlueClassIndex;
 import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerListener;
 import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerService;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.RemoteConfigCache;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ResultCache;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.StoreViolationManager;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationStore;
 import no.ntnu.iir.bluej.extensions.linting.core.handlers.FilesChangeHandler;
 import no.ntnu.iir.bluej.extensions.linting.core.handlers.PackageEventHandler;
 import no.ntnu.iir.bluej.extensions.linting.core.ui.AuditWindow;
 import no.ntnu.iir.bluej.extensions.linting.core.violations.RuleDefinition;
-import no.ntnu.iir.bluej.extensions.linting.core.violations.ViolationManager;
 
 public class CheckstyleExtension extends Extension {
   private static final Logger LOGGER = Logger.getLogger(CheckstyleExtension.class.getName());
+  private static final String RESULT_CACHE_DIRECTORY = "checkstyle4bluej/cache";
+  private static final String REMOTE_CONFIG_DIRECTORY = "checkstyle4bluej/remote-configs";
+
+  private CheckerService checkerService;
+  private ProjectWatcher projectWatcher;
+  private CheckerListener checkerListener;
   
   @Override
   public void startup(BlueJ blueJ) {
     LOGGER.info("Starting " + this.getName());
+    final long startTime = System.nanoTime();
     
     RuleDefinition.setIconMapper(new CheckstyleIconMapper());
     CheckerService checkerService = new CheckerService();
-    ViolationManager violationManager = new ViolationManager();
+    this.checkerService = checkerService;
+    checkerService.setResultCache(new ResultCache(
+        new File(blueJ.getUserConfigDir(), RESULT_CACHE_DIRECTORY)
+    ));
+    checkerService.setRemoteConfigCache(new RemoteConfigCache(
+        new File(blueJ.getUserConfigDir(), REMOTE_CONFIG_DIRECTORY)
+    ));
+    // the handlers below remove violations from it, which must go through the store
+    StoreViolationManager violationManager = new StoreViolationManager();
+    ViolationStore violationStore = new ViolationStore(violationManager, checkerService);
+    violationManager.setViolationStore(violationStore);
 
-    CheckerListener checkerListener = new CheckerListener(violationManager);
+    BlueClassIndex blueClassIndex = new BlueClassIndex(blueJ);
+    CheckerListener checkerListener = new CheckerListener(
+        violationStore,
+        blueClassIndex,
+        checkerService
+    );
     checkerService.addListener(checkerListener);
+    this.checkerListener = checkerListener;
     
+    EditorChangeHandler editorChangeHandler = new EditorChangeHandler(checkerService);
     CheckstylePreferences preferences = new CheckstylePreferences(
         blueJ, 
         checkerService, 
-        violationManager
+        editorChangeHandler,
+        violationStore,
+        checkerListener
     );
 
     AuditWindow.setTitlePrefix(this.getName());
     
-    CheckstyleStatusBar checkstyleStatusBar = new CheckstyleStatusBar(preferences);
+    CheckstyleStatusBar checkstyleStatusBar = new CheckstyleStatusBar(
+        preferences,
+        checkerService.getAuditMetrics()
+    );
     preferences.addConfigChangeListener(checkstyleStatusBar);
     AuditWindow.setStatusBar(checkstyleStatusBar);
 
+    // must be notified of changed classes before the FilesChangeHandler audits them
+    EditorAwarePrioritizer prioritizer = new EditorAwarePrioritizer(blueJ, blueClassIndex);
+    checkerService.setAuditPrioritizer(prioritizer);
+    blueJ.addClassListener(prioritizer);
+
     PackageEventHandler packageEventHandler = new PackageEventHandler(
         violationManager,
         checkerService
@@ -47,11 +86,45 @@ public class CheckstyleExtension extends Extension {
         violationManager,
         checkerService
     ));
+    // must know the project of an opened package before the PackageEventHandler audits it
+    blueJ.addPackageListener(new CheckstylePackageListener(
+        checkerService,
+        blueClassIndex,
+        violationStore,
+        preferences
+    ));
     blueJ.addPackageListener(packageEventHandler);
+    blueJ.addClassListener(new CheckstyleClassListener(blueClassIndex));
+    blueJ.addClassListener(editorChangeHandler);
+    blueJ.addPackageListener(editorChangeHandler);
+    this.projectWatcher = new ProjectWatcher(checkerService, violationStore);
+    blueJ.addPackageListener(this.projectWatcher);
     blueJ.setPreferenceGenerator(preferences);
     blueJ.setMenuGenerator(
-        new CheckstyleMenuBuilder(packageEventHandler)
+        new CheckstyleMenuBuilder(packageEventHandler, violationStore, checkerListener, preferences)
     );
+
+    // the config is loaded and audited once the first package is opened
+    LOGGER.info(String.format(
+        "Started %s in %d ms",
+        this.getName(),
+        (System.nanoTime() - startTime) / 1_000_000
+    ));
+  }
+
+  @Override
+  public void terminate() {
+    LOGGER.info("Terminating " + this.getName());
+
+    if (this.projectWatcher != null) {
+      this.projectWatcher.shutdown();
+    }
+    if (this.checkerService != null) {
+      this.checkerService.shutdown();
+    }
+    if (this.checkerListener != null) {
+      this.checkerListener.shutdown();
+    }
   }
 
   @Override
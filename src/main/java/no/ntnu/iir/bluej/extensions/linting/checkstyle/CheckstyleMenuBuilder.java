@@ -2,20 +2,163 @@ package no.ntnu.iir.bluej.extensions.linting.checkstyle;
 
 import bluej.extensions2.BPackage;
 import bluej.extensions2.MenuGenerator;
+import bluej.extensions2.ProjectNotOpenException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import javafx.application.Platform;
+import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
+import javafx.stage.FileChooser;
+import javafx.stage.FileChooser.ExtensionFilter;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerListener;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ReportFormat;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationRecord;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationReportWriter;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationStore;
 import no.ntnu.iir.bluej.extensions.linting.core.handlers.PackageEventHandler;
+import no.ntnu.iir.bluej.extensions.linting.core.ui.ErrorDialog;
 
 public class CheckstyleMenuBuilder extends MenuGenerator {
+  private static final String REPORT_FILE_NAME = "checkstyle-report";
+
   private PackageEventHandler packageEventHandler;
+  private ViolationStore violationStore;
+  private CheckerListener checkerListener;
+  private CheckstylePreferences preferences;
 
-  public CheckstyleMenuBuilder(PackageEventHandler packageEventHandler) {
+  /**
+   * Constructs a new CheckstyleMenuBuilder.
+   * 
+   * @param packageEventHandler the handler showing the overview window
+   * @param violationStore the store to restore and export violations from
+   * @param checkerListener the listener publishing restored violations before an export
+   * @param preferences the preferences to configure the CheckerService with
+   */
+  public CheckstyleMenuBuilder(
+      PackageEventHandler packageEventHandler,
+      ViolationStore violationStore,
+      CheckerListener checkerListener,
+      CheckstylePreferences preferences
+  ) {
     this.packageEventHandler = packageEventHandler;
+    this.violationStore = violationStore;
+    this.checkerListener = checkerListener;
+    this.preferences = preferences;
   }
 
   @Override
   public MenuItem getToolsMenuItem(BPackage bluePackage) {
-    MenuItem menuItem = new MenuItem("Show Checkstyle overview");
-    menuItem.setOnAction(event -> packageEventHandler.showProjectWindow(bluePackage));
-    return menuItem;
+    MenuItem overviewMenuItem = new MenuItem("Show Checkstyle overview");
+    overviewMenuItem.setOnAction(event -> {
+      this.preferences.ensureConfigured();
+      // bring back the violations evicted to stay within the memory budget
+      try {
+        this.violationStore.restoreEvicted(bluePackage.getProject().getDir());
+      } catch (ProjectNotOpenException e) {
+        e.printStackTrace();
+      }
+      packageEventHandler.showProjectWindow(bluePackage);
+    });
+
+    MenuItem exportMenuItem = new MenuItem("Export Checkstyle report...");
+    exportMenuItem.setOnAction(event -> this.exportReport(bluePackage));
+
+    Menu menu = new Menu("Checkstyle");
+    menu.getItems().addAll(overviewMenuItem, exportMenuItem);
+    return menu;
+  }
+
+  /**
+   * Exports the violations that are shown to a report file chosen by the user.
+   * The format is chosen by the extension filter selected in the FileChooser.
+   * Files of the project evicted from the overview are restored first, so they are exported too.
+   * The report is written in the background, so the JavaFX thread is not blocked by large projects.
+   *
+   * @param bluePackage the package the menu was opened from
+   */
+  private void exportReport(BPackage bluePackage) {
+    File projectDirectory;
+    try {
+      projectDirectory = bluePackage.getProject().getDir();
+    } catch (ProjectNotOpenException e) {
+      e.printStackTrace();
+      return;
+    }
+
+    FileChooser fileChooser = new FileChooser();
+    fileChooser.setTitle("Export Checkstyle report");
+    fileChooser.setInitialDirectory(projectDirectory);
+    fileChooser.setInitialFileName(REPORT_FILE_NAME);
+    Map<ExtensionFilter, ReportFormat> reportFormats = new LinkedHashMap<>();
+    for (ReportFormat reportFormat : ReportFormat.values()) {
+      reportFormats.put(
+          new ExtensionFilter(reportFormat.getDescription(), reportFormat.getExtension()),
+          reportFormat
+      );
+    }
+    fileChooser.getExtensionFilters().addAll(reportFormats.keySet());
+    File chosenFile = fileChooser.showSaveDialog(null);
+    if (chosenFile == null) {
+      return;
+    }
+
+    ReportFormat reportFormat = reportFormats.getOrDefault(
+        fileChooser.getSelectedExtensionFilter(),
+        ReportFormat.SARIF
+    );
+    // not every platform adds the extension of the selected filter to the file name
+    File reportFile = chosenFile.getName().contains(".")
+        ? chosenFile
+        : new File(chosenFile.getPath() + reportFormat.getExtension().substring(1));
+    Future<Void> restored = this.violationStore.restoreEvicted(projectDirectory);
+    ViolationReportWriter reportWriter = new ViolationReportWriter(projectDirectory);
+    CompletableFuture.runAsync(() -> awaitRestored(restored))
+        .thenApplyAsync(ignored -> {
+          // publishes the restored files now instead of with the next scheduled flush
+          this.checkerListener.flushViolations();
+          // only the map of files is copied here, the violations are streamed from the store
+          return this.violationStore.getShownViolations();
+        }, Platform::runLater)
+        .thenAcceptAsync(violations -> {
+          try {
+            reportWriter.write(violations, reportFile, reportFormat);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        })
+        .whenComplete((result, throwable) -> {
+          if (throwable != null) {
+            Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+            Platform.runLater(() -> new ErrorDialog(
+                "The Checkstyle report could not be exported.",
+                "Please make sure " + reportFile + " can be written to.",
+                cause.getMessage()
+            ).show());
+          }
+        });
+  }
+
+  /**
+   * Waits for evicted files to be restored before they are exported.
+   * Files that could not be restored are left out of the report rather than failing it.
+   *
+   * @param restored the Future of the restore
+   */
+  private static void awaitRestored(Future<Void> restored) {
+    try {
+      restored.get();
+    } catch (ExecutionException | CancellationException e) {
+      // export what could be restored
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 }
@@ -0,0 +1,85 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle;
+
+import bluej.extensions2.PackageNotFoundException;
+import bluej.extensions2.ProjectNotOpenException;
+import bluej.extensions2.event.PackageEvent;
+import bluej.extensions2.event.PackageListener;
+import java.io.File;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.BlueClassIndex;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerService;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationStore;
+
+/**
+ * Represents a PackageListener for Checkstyle specific package handling.
+ * Responsible for configuring the CheckerService when the first package is opened,
+ * for keeping the BlueClassIndex up to date as packages open and close,
+ * for opening and closing the audit context of each project,
+ * and for cancelling audits of packages that are being closed,
+ * since their results would be stale by the time they are published.
+ * The violations of closed packages are evicted, and restored from the ResultCache on demand.
+ */
+public class CheckstylePackageListener implements PackageListener {
+  private CheckerService checkerService;
+  private BlueClassIndex blueClassIndex;
+  private ViolationStore violationStore;
+  private CheckstylePreferences preferences;
+
+  /**
+   * Constructs a new CheckstylePackageListener.
+   * 
+   * @param checkerService the CheckerService to open projects in and cancel audits of
+   *     closing packages in
+   * @param blueClassIndex the index to add and remove the classes of packages to
+   * @param violationStore the store to evict the violations of closing packages from
+   * @param preferences the preferences to configure the CheckerService with
+   */
+  public CheckstylePackageListener(
+      CheckerService checkerService,
+      BlueClassIndex blueClassIndex,
+      ViolationStore violationStore,
+      CheckstylePreferences preferences
+  ) {
+    this.checkerService = checkerService;
+    this.blueClassIndex = blueClassIndex;
+    this.violationStore = violationStore;
+    this.preferences = preferences;
+  }
+
+  /**
+   * Fired when a package is opened.
+   * Opens the project of the package in the CheckerService, which finds its configuration.
+   * Configures the CheckerService if this is the first package, which audits every open package.
+   */
+  @Override
+  public void packageOpened(PackageEvent packageEvent) {
+    try {
+      this.checkerService.packageOpened(packageEvent.getPackage().getProject().getDir());
+    } catch (ProjectNotOpenException e) {
+      e.printStackTrace();
+    }
+    this.blueClassIndex.addPackage(packageEvent.getPackage());
+    this.preferences.ensureConfigured();
+  }
+
+  /**
+   * Fired when a package is about to be closed.
+   * Cancels any scheduled or running audit of files in the package, and evicts its violations.
+   * If it is the last open package of its project, the project is closed, which frees
+   * its checkers and every violation of the project.
+   */
+  @Override
+  public void packageClosing(PackageEvent packageEvent) {
+    try {
+      this.checkerService.cancelAudits(packageEvent.getPackage().getDir());
+      this.violationStore.evictPackage(packageEvent.getPackage().getDir());
+
+      File projectDirectory = packageEvent.getPackage().getProject().getDir();
+      if (this.checkerService.packageClosing(projectDirectory)) {
+        this.violationStore.evictProject(projectDirectory);
+      }
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+    this.blueClassIndex.removePackage(packageEvent.getPackage());
+  }
+}
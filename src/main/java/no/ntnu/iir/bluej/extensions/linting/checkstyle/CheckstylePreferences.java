@@ -1,7 +1,12 @@
 package no.ntnu.iir.bluej.extensions.linting.checkstyle;
 
+import bluej.extensions2.BClass;
+import bluej.extensions2.BPackage;
+import bluej.extensions2.BProject;
 import bluej.extensions2.BlueJ;
+import bluej.extensions2.PackageNotFoundException;
 import bluej.extensions2.PreferenceGenerator;
+import bluej.extensions2.ProjectNotOpenException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
@@ -10,16 +15,24 @@ import java.io.InputStream;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.event.ActionEvent;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
@@ -29,11 +42,13 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerListener;
 import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerService;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ModuleCost;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationFilter;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationStore;
 import no.ntnu.iir.bluej.extensions.linting.core.checker.ICheckerService;
-import no.ntnu.iir.bluej.extensions.linting.core.handlers.PackageEventHandler;
 import no.ntnu.iir.bluej.extensions.linting.core.ui.ErrorDialog;
-import no.ntnu.iir.bluej.extensions.linting.core.violations.ViolationManager;
 
 /**
  * Represents a Preferences class.
@@ -44,36 +59,75 @@ public class CheckstylePreferences implements PreferenceGenerator {
   private BlueJ blueJ;
   private String currentConfig;
   private CheckerService checkerService;
-  private ViolationManager violationManager;
+  private EditorChangeHandler editorChangeHandler;
+  private ViolationStore violationStore;
+  private CheckerListener checkerListener;
   private VBox pane;
   private ComboBox<String> defaultConfigComboBox;
+  private Spinner<Integer> poolSizeSpinner;
+  private CheckBox prewarmCheckBox;
+  private CheckBox checkWhileTypingCheckBox;
+  private Spinner<Integer> memoryBudgetSpinner;
+  private Spinner<Integer> fileTimeBudgetSpinner;
+  private Spinner<Integer> maxFileSizeSpinner;
   private HashMap<String, String> configMap; // (config name, config path)
   private TextField addConfigPathInput;
   private TableView<Entry<String, String>> tableView;
+  private TableView<ModuleCost> profileTableView;
+  private Label profileStatusLabel;
+  private HashMap<String, ViolationFilter> violationFilters; // (config name, filter)
+  private boolean violationFiltersChanged;
+  private ComboBox<String> minimumSeverityComboBox;
+  private TextField allowedModulesInput;
+  private TextField deniedModulesInput;
+  private Spinner<Integer> maxViolationsSpinner;
   private ObjectMapper objectMapper;
   private List<CheckstylePreferencesListener> listeners;
   private Properties pomProperties;
+  private boolean configured; // whether the CheckerService has been configured yet
+  private int configureCount; // the latest configuration, so older downloads are not applied
   
+  private static final Logger LOGGER = Logger.getLogger(CheckstylePreferences.class.getName());
   private static final String CHECKSTYLE_DEFAULT_CONFIG = "Checkstyle.DefaultConfig";
   private static final String CHECKSTYLE_CONFIG_MAP = "Checkstyle.ConfigMap";
+  private static final String CHECKSTYLE_POOL_SIZE = "Checkstyle.PoolSize";
+  private static final String CHECKSTYLE_PREWARM_CONFIGS = "Checkstyle.PrewarmConfigs";
+  private static final String CHECKSTYLE_CHECK_WHILE_TYPING = "Checkstyle.CheckWhileTyping";
+  private static final String CHECKSTYLE_MEMORY_BUDGET = "Checkstyle.MemoryBudget";
+  private static final String CHECKSTYLE_VIOLATION_FILTERS = "Checkstyle.ViolationFilters";
+  private static final String CHECKSTYLE_FILE_TIME_BUDGET = "Checkstyle.FileTimeBudget";
+  private static final String CHECKSTYLE_MAX_FILE_SIZE = "Checkstyle.MaxFileSize";
+  private static final int DEFAULT_MEMORY_BUDGET_MB = 64;
+  private static final int DEFAULT_FILE_TIME_BUDGET_MS = 2000;
+  private static final int DEFAULT_MAX_FILE_SIZE_KB = 1024;
   private static final String CHECKSTYLE_BUILTIN_GOOGLE = "Google";
   private static final String CHECKSTYLE_BUILTIN_SUN = "Sun";
+  // checks with every config at once, parsing each file only once
+  private static final String CHECKSTYLE_ALL_CONFIGS = "All configs";
 
   /**
    * Constructs a new PreferencesGenerator implemenetation.
    * 
    * @param blueJ the BlueJ instance to load and save preferences to
    * @param checkerService the CheckerService instance to configure on save
+   * @param editorChangeHandler the EditorChangeHandler to enable or disable on save
+   * @param violationStore the ViolationStore to set the memory budget of on save
+   * @param checkerListener the CheckerListener to set the violation filter of
    */
   public CheckstylePreferences(
       BlueJ blueJ, 
       CheckerService checkerService, 
-      ViolationManager violationManager
+      EditorChangeHandler editorChangeHandler,
+      ViolationStore violationStore,
+      CheckerListener checkerListener
   ) {
     this.blueJ = blueJ;
     this.checkerService = checkerService;
-    this.violationManager = violationManager;
+    this.editorChangeHandler = editorChangeHandler;
+    this.violationStore = violationStore;
+    this.checkerListener = checkerListener;
     this.configMap = new HashMap<>();
+    this.violationFilters = new HashMap<>();
     this.objectMapper = new ObjectMapper();
     this.listeners = new ArrayList<>();
     this.initPane();
@@ -97,6 +151,44 @@ public class CheckstylePreferences implements PreferenceGenerator {
         this.defaultConfigComboBox
     );
 
+    int availableProcessors = Runtime.getRuntime().availableProcessors();
+    this.poolSizeSpinner = new Spinner<>(1, availableProcessors, getDefaultPoolSize());
+    HBox poolSizeHBox = new HBox();
+    poolSizeHBox.setAlignment(Pos.CENTER_LEFT);
+    poolSizeHBox.setSpacing(5);
+    poolSizeHBox.getChildren().addAll(
+        new Label("Files checked in parallel"),
+        this.poolSizeSpinner
+    );
+
+    this.prewarmCheckBox = new CheckBox("Pre-load all configs in the background");
+    this.checkWhileTypingCheckBox = new CheckBox("Check classes while typing");
+
+    this.memoryBudgetSpinner = new Spinner<>(8, 4096, DEFAULT_MEMORY_BUDGET_MB, 8);
+    this.memoryBudgetSpinner.setEditable(true);
+    HBox memoryBudgetHBox = new HBox();
+    memoryBudgetHBox.setAlignment(Pos.CENTER_LEFT);
+    memoryBudgetHBox.setSpacing(5);
+    memoryBudgetHBox.getChildren().addAll(
+        new Label("Memory for shown violations (MB)"),
+        this.memoryBudgetSpinner
+    );
+
+    this.fileTimeBudgetSpinner = new Spinner<>(0, 600_000, DEFAULT_FILE_TIME_BUDGET_MS, 500);
+    this.fileTimeBudgetSpinner.setEditable(true);
+    this.maxFileSizeSpinner = new Spinner<>(0, 1_048_576, DEFAULT_MAX_FILE_SIZE_KB, 64);
+    this.maxFileSizeSpinner.setEditable(true);
+    HBox fileBudgetHBox = new HBox();
+    fileBudgetHBox.setAlignment(Pos.CENTER_LEFT);
+    fileBudgetHBox.setSpacing(5);
+    fileBudgetHBox.getChildren().addAll(
+        new Label("Time budget per file (ms)"),
+        this.fileTimeBudgetSpinner,
+        new Label("Largest file checked (KB)"),
+        this.maxFileSizeSpinner,
+        new Label("0 for no limit")
+    );
+
     this.addConfigPathInput = new TextField();
     this.addConfigPathInput.promptTextProperty().set("Config file path");
 
@@ -141,7 +233,7 @@ public class CheckstylePreferences implements PreferenceGenerator {
     this.configMap.entrySet().forEach(this.tableView.getItems()::add);
     Button addButton = new Button("Add config");
     addButton.setOnAction(event -> {
-      CheckstyleConfigFormDialog dialog = new CheckstyleConfigFormDialog();
+      CheckstyleConfigFormDialog dialog = new CheckstyleConfigFormDialog(this.checkerService);
       dialog.showAndWait();
 
       SimpleEntry<String, String> result = dialog.getResult();
@@ -156,6 +248,7 @@ public class CheckstylePreferences implements PreferenceGenerator {
     editButton.setOnAction(event -> {
       Entry<String, String> selected = this.tableView.getSelectionModel().getSelectedItem();
       CheckstyleConfigFormDialog dialog = new CheckstyleConfigFormDialog(
+          this.checkerService,
           selected.getKey(),
           selected.getValue()
       );
@@ -175,6 +268,7 @@ public class CheckstylePreferences implements PreferenceGenerator {
     deleteButton.setOnAction(event -> {
       Entry<String, String> selected = this.tableView.getSelectionModel().getSelectedItem();
       this.configMap.remove(selected.getKey());
+      this.violationFilters.remove(selected.getKey());
       this.reloadUiData();
     });
 
@@ -187,6 +281,7 @@ public class CheckstylePreferences implements PreferenceGenerator {
         (obs, oldSelection, newSelection) -> {
           deleteButton.setDisable(true);
           editButton.setDisable(true);
+          this.showViolationFilter(newSelection);
           if (newSelection != null) {
             String configKey = newSelection.getKey();
             if (!configKey.equals(CHECKSTYLE_BUILTIN_GOOGLE) 
@@ -202,9 +297,207 @@ public class CheckstylePreferences implements PreferenceGenerator {
     actionHBox.getChildren().addAll(addButton, editButton, deleteButton);
     actionHBox.setSpacing(5);
 
+    HBox configHBox = new HBox();
+    configHBox.setSpacing(10);
+    configHBox.getChildren().addAll(this.tableView, this.initProfilePane());
+
     pane.getChildren().add(defaultConfigHBox);
-    pane.getChildren().add(this.tableView);
+    pane.getChildren().add(poolSizeHBox);
+    pane.getChildren().add(this.prewarmCheckBox);
+    pane.getChildren().add(this.checkWhileTypingCheckBox);
+    pane.getChildren().add(memoryBudgetHBox);
+    pane.getChildren().add(fileBudgetHBox);
+    pane.getChildren().add(configHBox);
     pane.getChildren().add(actionHBox);
+    pane.getChildren().add(this.initFilterPane());
+  }
+
+  /**
+   * Instantiates the UI elements for filtering the violations of the selected configuration.
+   * 
+   * @return the pane holding the filter UI elements
+   */
+  private HBox initFilterPane() {
+    this.minimumSeverityComboBox = new ComboBox<>();
+    this.minimumSeverityComboBox.getItems().setAll("info", "warning", "error");
+    this.minimumSeverityComboBox.setValue("info");
+
+    this.allowedModulesInput = new TextField();
+    this.allowedModulesInput.promptTextProperty().set("Only modules, like LineLength");
+    this.deniedModulesInput = new TextField();
+    this.deniedModulesInput.promptTextProperty().set("Skip modules, like JavadocMethod");
+    this.maxViolationsSpinner = new Spinner<>(0, 100_000, 0, 10);
+    this.maxViolationsSpinner.setEditable(true);
+
+    Button setFilterButton = new Button("Set filter");
+    setFilterButton.setOnAction(event -> this.onSetViolationFilter());
+
+    HBox filterHBox = new HBox();
+    filterHBox.setAlignment(Pos.CENTER_LEFT);
+    filterHBox.setSpacing(5);
+    filterHBox.getChildren().addAll(
+        new Label("Filter for selected config: minimum severity"),
+        this.minimumSeverityComboBox,
+        this.allowedModulesInput,
+        this.deniedModulesInput,
+        new Label("Max per file (0 for all)"),
+        this.maxViolationsSpinner,
+        setFilterButton
+    );
+    return filterHBox;
+  }
+
+  /**
+   * Shows the violation filter of a configuration in the filter UI elements.
+   * 
+   * @param configEntry the configuration to show the filter of, or null
+   */
+  private void showViolationFilter(Entry<String, String> configEntry) {
+    ViolationFilter violationFilter = configEntry != null
+        ? this.getViolationFilter(configEntry.getKey())
+        : ViolationFilter.showAll();
+    this.minimumSeverityComboBox.setValue(violationFilter.getMinimumSeverity());
+    this.allowedModulesInput.setText(String.join(", ", violationFilter.getAllowedModules()));
+    this.deniedModulesInput.setText(String.join(", ", violationFilter.getDeniedModules()));
+    this.maxViolationsSpinner.getValueFactory().setValue(
+        violationFilter.getMaxViolationsPerFile()
+    );
+  }
+
+  /**
+   * Handles click events for the set filter button.
+   * Sets the violation filter of the selected configuration, which is applied on save.
+   */
+  private void onSetViolationFilter() {
+    Entry<String, String> selected = this.tableView.getSelectionModel().getSelectedItem();
+    if (selected == null) {
+      return;
+    }
+
+    this.violationFilters.put(selected.getKey(), new ViolationFilter(
+        this.minimumSeverityComboBox.getValue(),
+        parseModules(this.allowedModulesInput.getText()),
+        parseModules(this.deniedModulesInput.getText()),
+        this.maxViolationsSpinner.getValue()
+    ));
+    this.violationFiltersChanged = true;
+  }
+
+  private static List<String> parseModules(String modules) {
+    List<String> moduleList = new ArrayList<>();
+    for (String module : modules.split(",")) {
+      if (!module.isBlank()) {
+        moduleList.add(module.strip());
+      }
+    }
+    return moduleList;
+  }
+
+  private ViolationFilter getViolationFilter(String configKey) {
+    return this.violationFilters.getOrDefault(configKey, ViolationFilter.showAll());
+  }
+
+  /**
+   * Instantiates the UI elements for profiling the modules of the current configuration.
+   * 
+   * @return the pane holding the profiling UI elements
+   */
+  private VBox initProfilePane() {
+    this.profileTableView = new TableView<>();
+    this.profileTableView.setPlaceholder(new Label("No profile yet"));
+    this.profileTableView.setMaxHeight(200);
+
+    TableColumn<ModuleCost, String> moduleColumn = new TableColumn<>("Module");
+    moduleColumn.setCellValueFactory(param ->
+        new SimpleStringProperty(param.getValue().getModuleName())
+    );
+    moduleColumn.setPrefWidth(200);
+
+    TableColumn<ModuleCost, Long> timeColumn = new TableColumn<>("Time (ms)");
+    timeColumn.setCellValueFactory(param ->
+        new SimpleObjectProperty<>(param.getValue().getNanos() / 1_000_000)
+    );
+
+    TableColumn<ModuleCost, Integer> violationsColumn = new TableColumn<>("Violations");
+    violationsColumn.setCellValueFactory(param ->
+        new SimpleObjectProperty<>(param.getValue().getViolationCount())
+    );
+
+    this.profileTableView.getColumns().add(moduleColumn);
+    this.profileTableView.getColumns().add(timeColumn);
+    this.profileTableView.getColumns().add(violationsColumn);
+
+    Button profileButton = new Button("Profile current config");
+    Button cancelProfileButton = new Button("Cancel");
+    cancelProfileButton.setDisable(true);
+    profileButton.setOnAction(event -> this.onProfileConfig(profileButton, cancelProfileButton));
+    cancelProfileButton.setOnAction(event -> this.checkerService.cancelProfiling());
+    this.profileStatusLabel = new Label();
+
+    HBox profileActionHBox = new HBox();
+    profileActionHBox.setAlignment(Pos.CENTER_LEFT);
+    profileActionHBox.setSpacing(5);
+    profileActionHBox.getChildren().addAll(
+        profileButton,
+        cancelProfileButton,
+        this.profileStatusLabel
+    );
+
+    VBox profileVBox = new VBox();
+    profileVBox.setSpacing(5);
+    profileVBox.getChildren().addAll(this.profileTableView, profileActionHBox);
+    return profileVBox;
+  }
+
+  /**
+   * Handles click events for the profile button.
+   * Profiles every module of the current configuration using the classes of all open projects,
+   * and shows the cost of each module in the profile table.
+   * 
+   * @param profileButton the button that was clicked, disabled while profiling
+   * @param cancelProfileButton the button cancelling the profile, enabled while profiling
+   */
+  private void onProfileConfig(Button profileButton, Button cancelProfileButton) {
+    List<File> files = new ArrayList<>();
+    try {
+      for (BProject blueProject : this.blueJ.getOpenProjects()) {
+        for (BPackage bluePackage : blueProject.getPackages()) {
+          for (BClass blueClass : bluePackage.getClasses()) {
+            files.add(blueClass.getJavaFile());
+          }
+        }
+      }
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+
+    if (files.isEmpty()) {
+      this.profileStatusLabel.setText("Open a project to profile with");
+      return;
+    }
+
+    profileButton.setDisable(true);
+    cancelProfileButton.setDisable(false);
+    this.profileStatusLabel.setText(
+        "Profiling " + this.currentConfig + " on " + files.size() + " files..."
+    );
+    this.checkerService.profileConfigurationAsync(files, this.checkerService.getLastCharset())
+        .whenComplete((moduleCosts, error) -> Platform.runLater(() -> {
+          profileButton.setDisable(false);
+          cancelProfileButton.setDisable(true);
+          if (error instanceof CancellationException) {
+            this.profileStatusLabel.setText("Profiling cancelled");
+            return;
+          }
+          if (error != null) {
+            this.profileStatusLabel.setText("Profiling failed: " + error.getMessage());
+            return;
+          }
+          this.profileTableView.getItems().setAll(moduleCosts);
+          this.profileStatusLabel.setText(
+              "Profiled " + this.currentConfig + " on " + files.size() + " files"
+          );
+        }));
   }
 
   /**
@@ -225,12 +518,15 @@ public class CheckstylePreferences implements PreferenceGenerator {
   }
 
   /**
-   * Returns a set of the keys to all configuration file references.
+   * Returns a set of the keys to all configuration file references,
+   * and the key to check with all of them at once.
    * 
    * @return a set of the keys to all configuration file references
    */
   public Set<String> getConfigKeys() {
-    return this.configMap.keySet();
+    Set<String> configKeys = new LinkedHashSet<>(this.configMap.keySet());
+    configKeys.add(CHECKSTYLE_ALL_CONFIGS);
+    return configKeys;
   }
 
   /**
@@ -272,6 +568,20 @@ public class CheckstylePreferences implements PreferenceGenerator {
       e.printStackTrace();
     }
 
+    String filtersJsonString = this.blueJ.getExtensionPropertyString(
+        CHECKSTYLE_VIOLATION_FILTERS, // key
+        "{}"                          // default
+    );
+
+    try {
+      this.violationFilters = this.objectMapper.readValue(
+          filtersJsonString,
+          new TypeReference<HashMap<String, ViolationFilter>>() {}
+      );
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+
     // load provided configs
     this.configMap.put(
         CHECKSTYLE_BUILTIN_GOOGLE, 
@@ -291,6 +601,58 @@ public class CheckstylePreferences implements PreferenceGenerator {
       this.currentConfig = this.defaultConfigComboBox.getValue();
     }
 
+    try {
+      this.poolSizeSpinner.getValueFactory().setValue(Integer.parseInt(
+          this.blueJ.getExtensionPropertyString(
+              CHECKSTYLE_POOL_SIZE, 
+              String.valueOf(getDefaultPoolSize())
+          )
+      ));
+    } catch (NumberFormatException e) {
+      e.printStackTrace();
+    }
+    this.configurePoolSize();
+
+    this.prewarmCheckBox.setSelected(Boolean.parseBoolean(
+        this.blueJ.getExtensionPropertyString(CHECKSTYLE_PREWARM_CONFIGS, "false")
+    ));
+    this.prewarmConfigs();
+
+    this.checkWhileTypingCheckBox.setSelected(Boolean.parseBoolean(
+        this.blueJ.getExtensionPropertyString(CHECKSTYLE_CHECK_WHILE_TYPING, "false")
+    ));
+    this.editorChangeHandler.setEnabled(this.checkWhileTypingCheckBox.isSelected());
+
+    try {
+      this.memoryBudgetSpinner.getValueFactory().setValue(Integer.parseInt(
+          this.blueJ.getExtensionPropertyString(
+              CHECKSTYLE_MEMORY_BUDGET,
+              String.valueOf(DEFAULT_MEMORY_BUDGET_MB)
+          )
+      ));
+    } catch (NumberFormatException e) {
+      e.printStackTrace();
+    }
+    this.configureMemoryBudget();
+
+    try {
+      this.fileTimeBudgetSpinner.getValueFactory().setValue(Integer.parseInt(
+          this.blueJ.getExtensionPropertyString(
+              CHECKSTYLE_FILE_TIME_BUDGET,
+              String.valueOf(DEFAULT_FILE_TIME_BUDGET_MS)
+          )
+      ));
+      this.maxFileSizeSpinner.getValueFactory().setValue(Integer.parseInt(
+          this.blueJ.getExtensionPropertyString(
+              CHECKSTYLE_MAX_FILE_SIZE,
+              String.valueOf(DEFAULT_MAX_FILE_SIZE_KB)
+          )
+      ));
+    } catch (NumberFormatException e) {
+      e.printStackTrace();
+    }
+    this.configureFileBudget();
+
     this.reloadUiData();
 
     try {
@@ -331,21 +693,173 @@ public class CheckstylePreferences implements PreferenceGenerator {
         CHECKSTYLE_DEFAULT_CONFIG, this.defaultConfigComboBox.getValue()
     );
 
-    this.notifyListeners();
+    this.blueJ.setExtensionPropertyString(
+        CHECKSTYLE_POOL_SIZE, String.valueOf(this.poolSizeSpinner.getValue())
+    );
+    this.configurePoolSize();
+
+    this.blueJ.setExtensionPropertyString(
+        CHECKSTYLE_PREWARM_CONFIGS, String.valueOf(this.prewarmCheckBox.isSelected())
+    );
+    this.prewarmConfigs();
+
+    this.blueJ.setExtensionPropertyString(
+        CHECKSTYLE_CHECK_WHILE_TYPING, String.valueOf(this.checkWhileTypingCheckBox.isSelected())
+    );
+    this.editorChangeHandler.setEnabled(this.checkWhileTypingCheckBox.isSelected());
+
+    this.blueJ.setExtensionPropertyString(
+        CHECKSTYLE_MEMORY_BUDGET, String.valueOf(this.memoryBudgetSpinner.getValue())
+    );
+    this.configureMemoryBudget();
+
+    this.blueJ.setExtensionPropertyString(
+        CHECKSTYLE_FILE_TIME_BUDGET, String.valueOf(this.fileTimeBudgetSpinner.getValue())
+    );
+    this.blueJ.setExtensionPropertyString(
+        CHECKSTYLE_MAX_FILE_SIZE, String.valueOf(this.maxFileSizeSpinner.getValue())
+    );
+    this.configureFileBudget();
+
+    try {
+      this.blueJ.setExtensionPropertyString(
+          CHECKSTYLE_VIOLATION_FILTERS,
+          this.objectMapper.writeValueAsString(this.violationFilters)
+      );
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+
+    if (this.violationFiltersChanged && this.configured) {
+      // re-checks every open package, restoring the unfiltered results from the cache
+      this.violationFiltersChanged = false;
+      this.configureCheckerService();
+    } else {
+      this.notifyListeners();
+    }
+  }
+
+  /**
+   * Returns the default number of files checked in parallel.
+   * One core is left for BlueJ itself, to keep the editor responsive during audits.
+   * 
+   * @return the default number of files checked in parallel
+   */
+  private static int getDefaultPoolSize() {
+    return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+  }
+
+  /**
+   * Configures the number of files the CheckerService checks in parallel.
+   */
+  private void configurePoolSize() {
+    this.checkerService.setPoolSize(this.poolSizeSpinner.getValue());
+  }
+
+  /**
+   * Configures the memory budget of the violations shown in the overview.
+   */
+  private void configureMemoryBudget() {
+    this.violationStore.setMemoryBudget(this.memoryBudgetSpinner.getValue() * 1024L * 1024L);
+  }
+
+  /**
+   * Configures how long a single file may take to check, and how large it may be.
+   */
+  private void configureFileBudget() {
+    this.checkerService.setFileTimeBudget(this.fileTimeBudgetSpinner.getValue());
+    this.checkerService.setMaxFileSize(this.maxFileSizeSpinner.getValue() * 1024L);
+  }
+
+  /**
+   * Configures the CheckerService with the current configuration, unless it already is.
+   * Loading the configuration and the first audit are deferred until a package is opened
+   * or the overview is shown, so they do not slow down the startup of BlueJ.
+   */
+  public void ensureConfigured() {
+    if (this.configured) {
+      return;
+    }
+
+    long startTime = System.nanoTime();
+    this.configureCheckerService();
+    this.prewarmConfigs();
+    LOGGER.info(String.format(
+        "Loaded config %s in %d ms",
+        this.currentConfig,
+        (System.nanoTime() - startTime) / 1_000_000
+    ));
+  }
+
+  /**
+   * Loads every config in the background if enabled, to make switching between them instant.
+   * Nothing is loaded until the CheckerService has been configured.
+   */
+  private void prewarmConfigs() {
+    if (this.configured && this.prewarmCheckBox.isSelected()) {
+      this.checkerService.prewarmConfigurations(this.configMap.values());
+    }
   }
 
   /**
    * Configures the CheckerService to use the user defined preferences.
+   * Remote configs without a local copy are downloaded in the background first, and the
+   * CheckerService is configured once they arrive, so the JavaFX thread never waits for them.
    */
   private void configureCheckerService() {
+    this.configured = true;
+    int configure = ++this.configureCount;
+    boolean allConfigs = CHECKSTYLE_ALL_CONFIGS.equals(this.currentConfig);
     String configUri = this.configMap.get(this.currentConfig);
 
-    this.violationManager.clearViolations();
+    List<String> configPaths = new ArrayList<>();
+    if (allConfigs) {
+      configPaths.addAll(this.configMap.values());
+    } else if (configUri != null) {
+      configPaths.add(configUri);
+    }
+    CompletableFuture<Void> download = this.checkerService.downloadConfigurationsAsync(
+        configPaths
+    );
+    if (!download.isDone()) {
+      // the old config is checked with until the download is done, unless changed meanwhile
+      download.whenComplete((result, throwable) -> Platform.runLater(() -> {
+        if (configure != this.configureCount) {
+          return;
+        }
+        if (throwable == null) {
+          this.configureCheckerService();
+        } else {
+          Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+          this.checkerService.disable();
+          ErrorDialog errorDialog = new ErrorDialog(
+              "The set Checkstyle configuration could not be downloaded, checking is disabled.",
+              "Please make sure the URL of the selected configuration is reachable.",
+              cause.getMessage()
+          );
+          errorDialog.show();
+          this.notifyListeners();
+        }
+      }));
+      return;
+    }
+
+    // an invalid config checks nothing, its snapshot only hides the violations of the old one
+    String snapshotKey = allConfigs ? CHECKSTYLE_ALL_CONFIGS : configUri;
+    this.checkerListener.setViolationFilter(allConfigs
+        ? ViolationFilter.forMergedConfigs(this.violationFilters)
+        : this.getViolationFilter(this.currentConfig));
 
     try {
-      this.checkerService.setConfiguration(configUri);
+      // cancels any audit of the old config
+      if (allConfigs) {
+        this.checkerService.setConfigurations(this.configMap);
+      } else {
+        this.checkerService.setConfiguration(configUri);
+      }
+      // the CheckerListener tags every file with the key of the config it was checked with
+      snapshotKey = this.checkerService.getSelectedConfigurationKey();
       this.checkerService.enable();
-      PackageEventHandler.checkAllPackagesOpen(this.violationManager, this.checkerService);
     } catch (CheckstyleException e) {
       this.checkerService.disable();
       ErrorDialog errorDialog = new ErrorDialog(
@@ -357,9 +871,48 @@ public class CheckstylePreferences implements PreferenceGenerator {
       errorDialog.show();
     }
 
+    // results of the cancelled audit may still be waiting for the next flush, so they are
+    // flushed into the old snapshot before switching. Files the cancelled audit finishes after
+    // are tagged with the old config, so the CheckerListener drops them instead of showing them.
+    // Re-checking restores unchanged files from the cache, so only changed files are audited
+    String shownSnapshotKey = snapshotKey;
+    Platform.runLater(() -> {
+      this.checkerListener.flushViolations();
+      this.violationStore.showSnapshot(shownSnapshotKey);
+      if (this.checkerService.isEnabled()) {
+        this.checkProjectsWithSelectedConfig();
+      }
+    });
+
     this.notifyListeners();
   }
 
+  /**
+   * Checks every open project that is checked with the selected config.
+   * Projects with a config of their own are left alone, since the selected config is not theirs.
+   */
+  private void checkProjectsWithSelectedConfig() {
+    List<File> files = new ArrayList<>();
+    try {
+      for (BProject blueProject : this.blueJ.getOpenProjects()) {
+        if (this.checkerService.hasProjectConfiguration(blueProject.getDir())) {
+          continue;
+        }
+        for (BPackage bluePackage : blueProject.getPackages()) {
+          for (BClass blueClass : bluePackage.getClasses()) {
+            files.add(blueClass.getJavaFile());
+          }
+        }
+      }
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+
+    if (!files.isEmpty()) {
+      this.checkerService.checkFiles(files, this.checkerService.getLastCharset());
+    }
+  }
+
   /**
    * Handles click events for the browseConfigPathButton.
    * Shows a FileChooser, and sets the textInput to the files path.
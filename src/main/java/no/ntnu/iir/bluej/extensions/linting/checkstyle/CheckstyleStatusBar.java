@@ -1,32 +1,49 @@
 package no.ntnu.iir.bluej.extensions.linting.checkstyle;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.HBox;
+import javafx.util.Duration;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.AuditMetrics;
 
 /**
  * Represents a Checkstyle Status Bar.
  * Should be displayed at the top of the AuditWindow.
+ * Also shows live audit metrics, refreshed every second.
  */
 public class CheckstyleStatusBar extends HBox implements CheckstylePreferencesListener {
+  private static final Duration METRICS_REFRESH_INTERVAL = Duration.seconds(1);
+
   private CheckstylePreferences preferences;
+  private AuditMetrics auditMetrics;
   private Label statusIndicator;
   private ComboBox<String> currentConfigComboBox;
+  private Label filesAuditedLabel;
+  private Label pendingAuditsLabel;
+  private Label latencyLabel;
+  private ProgressBar auditProgressBar;
+  private Label auditProgressLabel;
 
   /**
    * Instantiates the status bar.
    * 
    * @param preferences preferences instance
+   * @param auditMetrics the metrics to show
    */
-  public CheckstyleStatusBar(CheckstylePreferences preferences) {
+  public CheckstyleStatusBar(CheckstylePreferences preferences, AuditMetrics auditMetrics) {
     super();
     this.setSpacing(8);
     this.setPadding(new Insets(6));
     this.setAlignment(Pos.CENTER_LEFT);
 
     this.preferences = preferences;
+    this.auditMetrics = auditMetrics;
     this.currentConfigComboBox = new ComboBox<>();
     this.currentConfigComboBox.getItems().setAll(preferences.getConfigKeys());
     this.currentConfigComboBox.getSelectionModel().select(this.preferences.getCurrentConfig());
@@ -40,14 +57,31 @@ public class CheckstyleStatusBar extends HBox implements CheckstylePreferencesLi
 
     this.statusIndicator = new Label("Status: unknown");
 
+    this.filesAuditedLabel = new Label();
+    this.pendingAuditsLabel = new Label();
+    this.latencyLabel = new Label();
+    this.auditProgressBar = new ProgressBar();
+    this.auditProgressLabel = new Label();
+
     this.getChildren().addAll(
         this.statusIndicator,
         new Label("Current config:"),
-        this.currentConfigComboBox
+        this.currentConfigComboBox,
+        this.filesAuditedLabel,
+        this.pendingAuditsLabel,
+        this.latencyLabel,
+        this.auditProgressBar,
+        this.auditProgressLabel
     );
 
-    this.preferences.setConfig(this.preferences.getCurrentConfig());
     this.updateIndicator();
+    this.updateMetrics();
+
+    Timeline metricsRefresh = new Timeline(
+        new KeyFrame(METRICS_REFRESH_INTERVAL, event -> this.updateMetrics())
+    );
+    metricsRefresh.setCycleCount(Animation.INDEFINITE);
+    metricsRefresh.play();
   }
 
   /**
@@ -70,4 +104,40 @@ public class CheckstyleStatusBar extends HBox implements CheckstylePreferencesLi
       this.statusIndicator.setText("Status: OFF");
     }
   }
+
+  /**
+   * Updates the metrics labels from the current audit metrics.
+   * The progress bar is only shown while a package or project is being audited.
+   */
+  private void updateMetrics() {
+    this.filesAuditedLabel.setText(String.format(
+        "Files audited: %d (%d from cache)",
+        this.auditMetrics.getFilesAudited(),
+        this.auditMetrics.getFilesRestored()
+    ));
+    this.pendingAuditsLabel.setText("Pending: " + this.auditMetrics.getPendingAudits());
+
+    long lastLatency = this.auditMetrics.getLastLatencyMillis();
+    if (lastLatency < 0) {
+      this.latencyLabel.setText("Per file: -");
+    } else {
+      this.latencyLabel.setText(String.format(
+          "Per file: %d ms (p95 %d ms)",
+          lastLatency,
+          this.auditMetrics.getP95LatencyMillis()
+      ));
+    }
+
+    int auditFileCount = this.auditMetrics.getAuditFileCount();
+    boolean auditInProgress = auditFileCount > 0;
+    this.auditProgressBar.setVisible(auditInProgress);
+    this.auditProgressBar.setManaged(auditInProgress);
+    this.auditProgressLabel.setVisible(auditInProgress);
+    this.auditProgressLabel.setManaged(auditInProgress);
+    if (auditInProgress) {
+      int auditFilesDone = this.auditMetrics.getAuditFilesDone();
+      this.auditProgressBar.setProgress((double) auditFilesDone / auditFileCount);
+      this.auditProgressLabel.setText(auditFilesDone + "/" + auditFileCount);
+    }
+  }
 }
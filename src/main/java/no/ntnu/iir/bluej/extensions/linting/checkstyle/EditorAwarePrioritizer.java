@@ -0,0 +1,86 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle;
+
+import bluej.extensions2.BClass;
+import bluej.extensions2.BPackage;
+import bluej.extensions2.BlueJ;
+import bluej.extensions2.PackageNotFoundException;
+import bluej.extensions2.ProjectNotOpenException;
+import bluej.extensions2.event.ClassEvent;
+import bluej.extensions2.event.ClassListener;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.AuditPrioritizer;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.AuditPriority;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.BlueClassIndex;
+
+/**
+ * Represents an AuditPrioritizer based on what the user is doing in BlueJ.
+ * Classes that were just changed or are open in an editor are audited first,
+ * then the classes of the current package, and everything else in the background.
+ * Must be registered as a ClassListener before the handler that audits changed classes,
+ * so a change is recorded before the audit of the changed class is scheduled.
+ */
+public class EditorAwarePrioritizer implements AuditPrioritizer, ClassListener {
+  private BlueJ blueJ;
+  private BlueClassIndex blueClassIndex;
+  private Set<String> changedFiles; // paths of changed files not audited since
+
+  /**
+   * Constructs a new EditorAwarePrioritizer.
+   * 
+   * @param blueJ the BlueJ instance to find the current package from
+   * @param blueClassIndex the index used to find the class of each file
+   */
+  public EditorAwarePrioritizer(BlueJ blueJ, BlueClassIndex blueClassIndex) {
+    this.blueJ = blueJ;
+    this.blueClassIndex = blueClassIndex;
+    this.changedFiles = new HashSet<>();
+  }
+
+  @Override
+  public AuditPriority getPriority(File file) {
+    String filePath = file.getPath();
+    if (this.changedFiles.remove(filePath)) {
+      return AuditPriority.EDITED;
+    }
+
+    try {
+      BClass blueClass = this.blueClassIndex.getBlueClass(filePath);
+      if (blueClass != null && blueClass.getJavaEditorIfOpen() != null) {
+        return AuditPriority.EDITED;
+      }
+
+      BPackage currentPackage = this.blueJ.getCurrentPackage();
+      if (currentPackage != null && currentPackage.getDir().equals(file.getParentFile())) {
+        return AuditPriority.CURRENT_PACKAGE;
+      }
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      // the package is being closed, so the file is not urgent
+    }
+    return AuditPriority.BACKGROUND;
+  }
+
+  /**
+   * Fired when the state of a class changes, like when it is saved or compiled.
+   * Records the class as changed, so its next audit is prioritized.
+   */
+  @Override
+  public void classStateChanged(ClassEvent classEvent) {
+    try {
+      this.changedFiles.add(classEvent.getBClass().getJavaFile().getPath());
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public void classNameChanged(ClassEvent classEvent) {
+    // do nothing
+  }
+
+  @Override
+  public void classRemoved(ClassEvent classEvent) {
+    // do nothing
+  }
+}
@@ -0,0 +1,250 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle;
+
+import bluej.extensions2.BClass;
+import bluej.extensions2.PackageNotFoundException;
+import bluej.extensions2.ProjectNotOpenException;
+import bluej.extensions2.editor.DocumentListener;
+import bluej.extensions2.editor.JavaEditor;
+import bluej.extensions2.event.ClassEvent;
+import bluej.extensions2.event.ClassListener;
+import bluej.extensions2.event.PackageEvent;
+import bluej.extensions2.event.PackageListener;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerService;
+
+/**
+ * Represents a handler for changes made in the BlueJ editor.
+ * Responsible for checking the unsaved text of a class while the user is typing.
+ * BlueJ marks a class as uncompiled on the first edit, which is when the editor of the
+ * class is watched. After that every edit restarts a short delay, and the text is
+ * checked once the user pauses typing, so only the edited class is re-checked.
+ * Uncompiled classes with an open editor are also watched when they are renamed or their
+ * package is opened, and an editor that has been closed and opened again is watched anew,
+ * since BlueJ fires no event for an edit of a class that already is uncompiled.
+ * An editor is no longer watched once its class is renamed or removed, or its package is
+ * closed, so neither the editor nor its class is kept alive by the handler.
+ */
+public class EditorChangeHandler implements ClassListener, PackageListener {
+  private static final Duration TYPING_PAUSE = Duration.millis(300);
+
+  private CheckerService checkerService;
+  private boolean enabled;
+  // (class, its watched editor), by identity like the events
+  private Map<BClass, WatchedEditor> watchedEditors;
+
+  public EditorChangeHandler(CheckerService checkerService) {
+    this.checkerService = checkerService;
+    this.watchedEditors = new IdentityHashMap<>();
+  }
+
+  /**
+   * Sets whether classes are checked while typing.
+   * 
+   * @param enabled true to check classes while typing
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Fired when the state of a class changes.
+   * Starts watching the editor of the class if it is open and being edited.
+   */
+  @Override
+  public void classStateChanged(ClassEvent classEvent) {
+    if (this.enabled && !classEvent.isClassCompiled()) {
+      // the edit that made the class uncompiled has already happened
+      this.watch(classEvent.getBClass(), true);
+    }
+  }
+
+  /**
+   * Starts watching the open editor of a class, unless it already is.
+   * An editor watched before is detached if the class has been opened in another since.
+   *
+   * @param blueClass the class to watch the editor of
+   * @param edited whether the text has been edited since it was last checked,
+   *     in which case it is checked after the typing pause
+   */
+  private void watch(BClass blueClass, boolean edited) {
+    try {
+      JavaEditor javaEditor = blueClass.getJavaEditorIfOpen();
+      WatchedEditor previousEditor = this.watchedEditors.get(blueClass);
+      if (previousEditor != null && previousEditor.javaEditor == javaEditor) {
+        return;
+      }
+
+      this.unwatch(blueClass);
+      if (javaEditor == null) {
+        return;
+      }
+
+      File javaFile = blueClass.getJavaFile();
+      PauseTransition typingPause = new PauseTransition(TYPING_PAUSE);
+      typingPause.setOnFinished(event -> this.checkText(javaEditor, javaFile));
+      DocumentListener documentListener =
+          (offset, oldText, newText, oldEndOffset, newEndOffset) -> typingPause.playFromStart();
+      javaEditor.addDocumentListener(documentListener);
+      this.watchedEditors.put(
+          blueClass,
+          new WatchedEditor(javaEditor, javaFile, documentListener, typingPause)
+      );
+
+      if (edited) {
+        typingPause.playFromStart();
+      }
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Fired when a class is renamed.
+   * Watches its editor again with the new file, and checks its text under the new name.
+   */
+  @Override
+  public void classNameChanged(ClassEvent classEvent) {
+    BClass blueClass = classEvent.getBClass();
+    this.unwatch(blueClass);
+    if (this.enabled && !this.isCompiled(blueClass)) {
+      this.watch(blueClass, true);
+    }
+  }
+
+  /**
+   * Fired when a class is removed.
+   * Stops watching its editor.
+   */
+  @Override
+  public void classRemoved(ClassEvent classEvent) {
+    this.unwatch(classEvent.getBClass());
+  }
+
+  /**
+   * Fired when a package is opened.
+   * Starts watching the open editors of its uncompiled classes. Their text is not checked
+   * until it is edited, the files of the package are checked when it is opened.
+   */
+  @Override
+  public void packageOpened(PackageEvent packageEvent) {
+    if (!this.enabled) {
+      return;
+    }
+
+    try {
+      for (BClass blueClass : packageEvent.getPackage().getClasses()) {
+        if (!this.isCompiled(blueClass)) {
+          this.watch(blueClass, false);
+        }
+      }
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Returns whether a class is compiled.
+   *
+   * @param blueClass the class to check
+   *
+   * @return true if the class is compiled, or its package is no longer open
+   */
+  private boolean isCompiled(BClass blueClass) {
+    try {
+      return blueClass.isCompiled();
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Fired when a package is about to be closed.
+   * Stops watching the editors of its classes.
+   */
+  @Override
+  public void packageClosing(PackageEvent packageEvent) {
+    try {
+      Path packageDirectory = packageEvent.getPackage().getDir().toPath();
+      this.watchedEditors.entrySet().removeIf(watchedEditor -> {
+        boolean inPackage = packageDirectory.equals(
+            watchedEditor.getValue().javaFile.toPath().getParent()
+        );
+        if (inPackage) {
+          watchedEditor.getValue().detach();
+        }
+        return inPackage;
+      });
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Stops watching the editor of a class, if it is watched.
+   *
+   * @param blueClass the class to stop watching the editor of
+   */
+  private void unwatch(BClass blueClass) {
+    WatchedEditor watchedEditor = this.watchedEditors.remove(blueClass);
+    if (watchedEditor != null) {
+      watchedEditor.detach();
+    }
+  }
+
+  /**
+   * Checks the current text of an editor, unless checking has been disabled meanwhile.
+   * 
+   * @param javaEditor the editor to check the text of
+   * @param javaFile the file the editor belongs to
+   */
+  private void checkText(JavaEditor javaEditor, File javaFile) {
+    if (!this.enabled || !this.checkerService.isEnabled()) {
+      return;
+    }
+
+    String text = javaEditor.getText(
+        javaEditor.getTextLocationFromOffset(0),
+        javaEditor.getTextLocationFromOffset(javaEditor.getTextLength())
+    );
+    this.checkerService.checkTextAsync(javaFile, text);
+  }
+
+  /**
+   * Represents the editor of a class being watched, and what is attached to it.
+   */
+  private static class WatchedEditor {
+    private final JavaEditor javaEditor;
+    private final File javaFile;
+    private final DocumentListener documentListener;
+    private final PauseTransition typingPause;
+
+    WatchedEditor(
+        JavaEditor javaEditor,
+        File javaFile,
+        DocumentListener documentListener,
+        PauseTransition typingPause
+    ) {
+      this.javaEditor = javaEditor;
+      this.javaFile = javaFile;
+      this.documentListener = documentListener;
+      this.typingPause = typingPause;
+    }
+
+    /**
+     * Stops any pending check and removes the listener from the editor.
+     */
+    void detach() {
+      this.typingPause.stop();
+      this.javaEditor.removeDocumentListener(this.documentListener);
+    }
+  }
+}
@@ -0,0 +1,276 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import bluej.extensions2.PackageNotFoundException;
+import bluej.extensions2.ProjectNotOpenException;
+import bluej.extensions2.event.PackageEvent;
+import bluej.extensions2.event.PackageListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javafx.application.Platform;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerService;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationStore;
+
+/**
+ * Represents a watcher of the directories of open packages.
+ * Responsible for checking files changed outside of BlueJ, like by a git pull or
+ * an external editor, which BlueJ sends no class events for.
+ * Changes come in bursts, so they are collected until no change to a Java file has been seen
+ * for a short while, but no longer than a few seconds after the first change, and only the
+ * changed files are then checked as a single batch.
+ * Files saved by BlueJ are seen as well, but are restored from the ResultCache
+ * when they have already been checked.
+ * Changes are collected on a thread of the watcher, and handed over to the JavaFX thread,
+ * since checking files prioritizes them with the BlueJ API.
+ */
+public class ProjectWatcher implements PackageListener {
+  private static final Logger LOGGER = Logger.getLogger(ProjectWatcher.class.getName());
+  private static final long QUIET_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+  private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+  private CheckerService checkerService;
+  private ViolationStore violationStore;
+  private WatchService watchService;
+  private Map<WatchKey, Path> watchedDirectories; // (key, package directory)
+
+  /**
+   * Constructs a new ProjectWatcher and starts watching in the background.
+   * Nothing is watched if the file system does not support watching.
+   *
+   * @param checkerService the CheckerService to check changed files with
+   * @param violationStore the ViolationStore to remove violations of deleted files from
+   */
+  public ProjectWatcher(CheckerService checkerService, ViolationStore violationStore) {
+    this.checkerService = checkerService;
+    this.violationStore = violationStore;
+    this.watchedDirectories = new ConcurrentHashMap<>();
+
+    try {
+      this.watchService = FileSystems.getDefault().newWatchService();
+      Thread watcherThread = new Thread(this::watch, "checkstyle4bluej-watcher");
+      watcherThread.setDaemon(true);
+      watcherThread.start();
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Could not watch for changed files", e);
+    }
+  }
+
+  /**
+   * Fired when a package is opened.
+   * Starts watching the directory of the package.
+   */
+  @Override
+  public void packageOpened(PackageEvent packageEvent) {
+    if (this.watchService == null) {
+      return;
+    }
+
+    try {
+      Path packageDirectory = packageEvent.getPackage().getDir().toPath().toAbsolutePath();
+      WatchKey watchKey = packageDirectory.register(
+          this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE
+      );
+      this.watchedDirectories.put(watchKey, packageDirectory);
+    } catch (ProjectNotOpenException | PackageNotFoundException | IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Fired when a package is about to be closed.
+   * Stops watching the directory of the package.
+   */
+  @Override
+  public void packageClosing(PackageEvent packageEvent) {
+    try {
+      Path packageDirectory = packageEvent.getPackage().getDir().toPath().toAbsolutePath();
+      this.watchedDirectories.entrySet().removeIf(watchedDirectory -> {
+        if (watchedDirectory.getValue().equals(packageDirectory)) {
+          watchedDirectory.getKey().cancel();
+          return true;
+        }
+        return false;
+      });
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Stops watching every directory.
+   */
+  public void shutdown() {
+    if (this.watchService != null) {
+      try {
+        this.watchService.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Waits for changes and checks the changed files once a burst of changes is over,
+   * or has gone on for too long.
+   */
+  private void watch() {
+    Set<Path> changedFiles = new HashSet<>();
+    Set<Path> deletedFiles = new HashSet<>();
+    long firstChangeNanos = 0;
+    long lastChangeNanos = 0;
+
+    try {
+      while (true) {
+        boolean pending = !changedFiles.isEmpty() || !deletedFiles.isEmpty();
+        WatchKey watchKey;
+        if (pending) {
+          long flushNanos = Math.min(
+              lastChangeNanos + QUIET_PERIOD_NANOS,
+              firstChangeNanos + MAX_WAIT_NANOS
+          );
+          long waitNanos = flushNanos - System.nanoTime();
+          watchKey = waitNanos > 0
+              ? this.watchService.poll(waitNanos, TimeUnit.NANOSECONDS)
+              : null;
+        } else {
+          watchKey = this.watchService.take();
+        }
+
+        if (watchKey == null) {
+          this.checkChangedFiles(changedFiles, deletedFiles);
+          changedFiles = new HashSet<>();
+          deletedFiles = new HashSet<>();
+          continue;
+        }
+
+        boolean changed = this.collectChanges(watchKey, changedFiles, deletedFiles);
+        watchKey.reset();
+        // only changes to Java files extend the wait, not the .class and .ctxt files of BlueJ
+        if (changed) {
+          lastChangeNanos = System.nanoTime();
+          if (!pending) {
+            firstChangeNanos = lastChangeNanos;
+          }
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // the watcher was shut down
+    }
+  }
+
+  /**
+   * Collects the changed and deleted Java files from the events of a WatchKey.
+   *
+   * @param watchKey the WatchKey to collect the events of
+   * @param changedFiles the files created or modified, added to
+   * @param deletedFiles the files deleted, added to
+   *
+   * @return true if a Java file was changed or deleted
+   */
+  private boolean collectChanges(
+      WatchKey watchKey,
+      Set<Path> changedFiles,
+      Set<Path> deletedFiles
+  ) {
+    Path packageDirectory = this.watchedDirectories.get(watchKey);
+    List<WatchEvent<?>> watchEvents = watchKey.pollEvents();
+    if (packageDirectory == null) {
+      return false;
+    }
+
+    boolean changed = false;
+    for (WatchEvent<?> watchEvent : watchEvents) {
+      if (watchEvent.kind() == OVERFLOW) {
+        // the changes are lost, so every file of the package may have changed
+        changedFiles.addAll(listJavaFiles(packageDirectory));
+        changed = true;
+        continue;
+      }
+
+      Path changedFile = packageDirectory.resolve((Path) watchEvent.context());
+      if (!changedFile.toString().endsWith(".java")) {
+        continue;
+      }
+
+      if (watchEvent.kind() == ENTRY_DELETE) {
+        changedFiles.remove(changedFile);
+        deletedFiles.add(changedFile);
+      } else {
+        deletedFiles.remove(changedFile);
+        changedFiles.add(changedFile);
+      }
+      changed = true;
+    }
+    return changed;
+  }
+
+  /**
+   * Checks the changed files as a single batch, and removes the violations of deleted files.
+   * Called on the watcher thread, the files are checked and removed on the JavaFX thread.
+   *
+   * @param changedFiles the files created or modified
+   * @param deletedFiles the files deleted
+   */
+  private void checkChangedFiles(Set<Path> changedFiles, Set<Path> deletedFiles) {
+    List<Path> filesToRemove = List.copyOf(deletedFiles);
+    List<File> filesToCheck = new ArrayList<>(changedFiles.size());
+    for (Path changedFile : changedFiles) {
+      if (Files.isRegularFile(changedFile)) {
+        filesToCheck.add(changedFile.toFile());
+      }
+    }
+
+    if (filesToRemove.isEmpty() && filesToCheck.isEmpty()) {
+      return;
+    }
+
+    Platform.runLater(() -> {
+      filesToRemove.forEach(
+          deletedFile -> this.violationStore.removeViolations(deletedFile.toString())
+      );
+      if (!filesToCheck.isEmpty()) {
+        this.checkerService.checkFiles(filesToCheck, this.checkerService.getLastCharset());
+      }
+    });
+  }
+
+  /**
+   * Lists the Java files directly in a package directory.
+   *
+   * @param packageDirectory the directory of the package
+   *
+   * @return the Java files of the package
+   */
+  private static List<Path> listJavaFiles(Path packageDirectory) {
+    try (Stream<Path> files = Files.list(packageDirectory)) {
+      return files
+          .filter(file -> file.toString().endsWith(".java"))
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      LOGGER.log(Level.FINE, "Could not list " + packageDirectory, e);
+      return List.of();
+    }
+  }
+}
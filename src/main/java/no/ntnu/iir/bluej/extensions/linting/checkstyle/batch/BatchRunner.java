@@ -0,0 +1,283 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.batch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.CheckerService;
+
+/**
+ * Represents a headless runner auditing a directory of BlueJ projects, like a set of
+ * submissions, without BlueJ.
+ * Projects are audited in parallel, each by a worker with a CheckerService of its own,
+ * and the report of every project is streamed to its own JSON file.
+ *
+ * <p>Usage: {@code java -cp checkstyle4bluej.jar
+ * no.ntnu.iir.bluej.extensions.linting.checkstyle.batch.BatchRunner
+ * [options] <projects directory>}
+ */
+public class BatchRunner {
+  private static final String USAGE = String.join("\n",
+      "Usage: BatchRunner [options] <projects directory>",
+      "  --config <name|path>     config to audit with, Google or Sun by default (Google)",
+      "  --config-map <file>      JSON map of config names to paths, as saved by BlueJ",
+      "  --output <directory>     directory to write one report per project to (reports)",
+      "  --threads <count>        number of projects audited in parallel (all cores)",
+      "  --charset <charset>      charset of the source files (UTF-8)"
+  );
+  private static final String BLUEJ_PACKAGE_FILE = "package.bluej";
+  private static final String REPORT_EXTENSION = ".json";
+
+  private final Map<String, String> configMap; // (config name, config path)
+  private String configPath;
+  private Path outputDirectory;
+  private int threads;
+  private String charset;
+
+  /**
+   * Constructs a new BatchRunner with the built-in configs and default options.
+   */
+  public BatchRunner() {
+    this.configMap = new HashMap<>();
+    this.configMap.put("Google", getBuiltinConfig("config/google_checks.xml"));
+    this.configMap.put("Sun", getBuiltinConfig("config/sun_checks.xml"));
+    this.configPath = this.configMap.get("Google");
+    this.outputDirectory = Path.of("reports");
+    this.threads = Runtime.getRuntime().availableProcessors();
+    this.charset = "UTF-8";
+  }
+
+  /**
+   * Runs the batch runner from the command line.
+   *
+   * @param args the command line arguments, see {@link #USAGE}
+   */
+  public static void main(String[] args) {
+    BatchRunner batchRunner = new BatchRunner();
+    Path projectsDirectory = null;
+    String config = null;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--config":
+            config = args[++i];
+            break;
+          case "--config-map":
+            batchRunner.loadConfigMap(new File(args[++i]));
+            break;
+          case "--output":
+            batchRunner.outputDirectory = Path.of(args[++i]);
+            break;
+          case "--threads":
+            batchRunner.threads = Math.max(1, Integer.parseInt(args[++i]));
+            break;
+          case "--charset":
+            batchRunner.charset = args[++i];
+            break;
+          default:
+            projectsDirectory = Path.of(args[i]);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | NumberFormatException | IOException e) {
+      System.err.println("Invalid arguments: " + e.getMessage());
+      projectsDirectory = null;
+    }
+
+    if (projectsDirectory == null || !Files.isDirectory(projectsDirectory)) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+
+    if (config != null) {
+      batchRunner.configPath = batchRunner.configMap.getOrDefault(config, config);
+    }
+
+    try {
+      batchRunner.run(projectsDirectory);
+    } catch (IOException | CheckstyleException e) {
+      System.err.println("Batch audit failed: " + e.getMessage());
+      System.exit(2);
+    }
+  }
+
+  /**
+   * Adds the configs of a config map to the configs that can be selected by name.
+   * The file has the same format as the config map saved in the BlueJ preferences.
+   *
+   * @param configMapFile the JSON file holding the config map
+   *
+   * @throws IOException if the file could not be read
+   */
+  public void loadConfigMap(File configMapFile) throws IOException {
+    this.configMap.putAll(new ObjectMapper().readValue(
+        configMapFile,
+        new TypeReference<HashMap<String, String>>() {}
+    ));
+  }
+
+  /**
+   * Audits every BlueJ project found in a directory, and writes one report per project.
+   * Prints the throughput once every project has been audited.
+   *
+   * @param projectsDirectory the directory to search for BlueJ projects
+   *
+   * @throws IOException if the directory could not be searched
+   * @throws CheckstyleException if the config could not be loaded
+   */
+  public void run(Path projectsDirectory) throws IOException, CheckstyleException {
+    Path root = projectsDirectory.toAbsolutePath().normalize();
+    final List<Path> projectRoots = findProjectRoots(root);
+    Files.createDirectories(this.outputDirectory);
+
+    // load the config once up front, so an invalid config fails before any work is done
+    CheckerService configValidator = new CheckerService();
+    configValidator.setConfiguration(this.configPath);
+    configValidator.shutdown();
+
+    ExecutorService executorService = Executors.newFixedThreadPool(this.threads);
+    List<CheckerService> checkerServices = new ArrayList<>();
+    ThreadLocal<CheckerService> workerCheckerService = ThreadLocal.withInitial(() -> {
+      CheckerService checkerService = new CheckerService();
+      try {
+        checkerService.setConfiguration(this.configPath);
+      } catch (CheckstyleException e) {
+        throw new IllegalStateException(e);
+      }
+      checkerService.enable();
+      synchronized (checkerServices) {
+        checkerServices.add(checkerService);
+      }
+      return checkerService;
+    });
+
+    AtomicInteger fileCount = new AtomicInteger();
+    final long startTime = System.nanoTime();
+    List<Future<?>> audits = new ArrayList<>();
+    for (Path projectRoot : projectRoots) {
+      audits.add(executorService.submit(() -> {
+        int auditedFiles = this.auditProject(workerCheckerService.get(), root, projectRoot);
+        fileCount.addAndGet(auditedFiles);
+        return null;
+      }));
+    }
+
+    for (Future<?> audit : audits) {
+      try {
+        audit.get();
+      } catch (ExecutionException e) {
+        System.err.println("Project audit failed: " + e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    executorService.shutdown();
+    checkerServices.forEach(CheckerService::shutdown);
+
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    System.out.printf(
+        "Audited %d files in %d projects in %.1f s (%.1f files/s)%n",
+        fileCount.get(),
+        projectRoots.size(),
+        seconds,
+        fileCount.get() / Math.max(seconds, 1e-9)
+    );
+  }
+
+  /**
+   * Audits every source file of a project, one file at a time,
+   * so a file that cannot be parsed does not stop the rest of the project being audited.
+   *
+   * @param checkerService the CheckerService of the current worker
+   * @param root the directory searched for projects, which report names are relative to
+   * @param projectRoot the root directory of the project
+   *
+   * @return the number of files audited
+   *
+   * @throws IOException if the project could not be read or its report could not be written
+   */
+  private int auditProject(
+      CheckerService checkerService,
+      Path root,
+      Path projectRoot
+  ) throws IOException {
+    List<File> sourceFiles;
+    try (Stream<Path> paths = Files.walk(projectRoot)) {
+      sourceFiles = paths
+          .filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
+          .sorted()
+          .map(Path::toFile)
+          .collect(Collectors.toList());
+    }
+
+    String reportName = root.equals(projectRoot)
+        ? projectRoot.getFileName().toString()
+        : root.relativize(projectRoot).toString().replace(File.separatorChar, '_');
+    File reportFile = this.outputDirectory.resolve(reportName + REPORT_EXTENSION).toFile();
+
+    try (ProjectReportWriter reportWriter = new ProjectReportWriter(projectRoot, reportFile)) {
+      checkerService.addListener(reportWriter);
+      try {
+        for (File sourceFile : sourceFiles) {
+          try {
+            checkerService.auditFiles(List.of(sourceFile), this.charset);
+          } catch (CheckstyleException e) {
+            reportWriter.fileFailed(sourceFile, e);
+          }
+        }
+      } finally {
+        checkerService.removeListener(reportWriter);
+      }
+      return reportWriter.getFileCount();
+    }
+  }
+
+  /**
+   * Returns the root directory of every BlueJ project in a directory.
+   * A project root holds a package.bluej file, while its parent does not.
+   * If no BlueJ project is found, every subdirectory is audited as a project.
+   *
+   * @param directory the directory to search
+   *
+   * @return the root directories of the projects found
+   *
+   * @throws IOException if the directory could not be searched
+   */
+  private static List<Path> findProjectRoots(Path directory) throws IOException {
+    List<Path> projectRoots;
+    try (Stream<Path> paths = Files.walk(directory)) {
+      projectRoots = paths
+          .filter(path -> Files.isRegularFile(path.resolve(BLUEJ_PACKAGE_FILE)))
+          .filter(path -> path.equals(directory)
+              || !Files.isRegularFile(path.getParent().resolve(BLUEJ_PACKAGE_FILE)))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+
+    if (projectRoots.isEmpty()) {
+      try (Stream<Path> paths = Files.list(directory)) {
+        projectRoots = paths.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+      }
+    }
+    return projectRoots;
+  }
+
+  private static String getBuiltinConfig(String resourceName) {
+    return BatchRunner.class.getClassLoader().getResource(resourceName).toString();
+  }
+}
@@ -0,0 +1,134 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.batch;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import no.ntnu.iir.bluej.extensions.linting.checkstyle.checker.ViolationRecord;
+
+/**
+ * Represents a writer of the audit report of a single project.
+ * Violations are streamed to a JSON file as Checkstyle reports them,
+ * so no more than a single violation is held in memory at a time.
+ */
+class ProjectReportWriter implements AuditListener, Closeable {
+  private final Path projectRoot;
+  private final JsonGenerator generator;
+  private boolean fileOpen;
+  private int fileCount;
+
+  /**
+   * Constructs a new ProjectReportWriter and writes the start of the report.
+   *
+   * @param projectRoot the root directory of the project, which file names are relative to
+   * @param reportFile the file to write the report to
+   *
+   * @throws IOException if the report file could not be created
+   */
+  ProjectReportWriter(Path projectRoot, File reportFile) throws IOException {
+    this.projectRoot = projectRoot;
+    this.generator = new JsonFactory(new ObjectMapper())
+        .createGenerator(reportFile, JsonEncoding.UTF8)
+        .useDefaultPrettyPrinter();
+    this.generator.writeStartObject();
+    this.generator.writeStringField("project", projectRoot.toString());
+    this.generator.writeArrayFieldStart("files");
+  }
+
+  /**
+   * Records that a file could not be audited, like when it could not be parsed.
+   *
+   * @param file the file that could not be audited
+   * @param cause the reason the file could not be audited
+   *
+   * @throws IOException if the report could not be written
+   */
+  void fileFailed(File file, Throwable cause) throws IOException {
+    if (!this.fileOpen) {
+      this.startFile(file.getAbsolutePath());
+    }
+    this.generator.writeEndArray();
+    this.generator.writeStringField("error", String.valueOf(cause.getMessage()));
+    this.generator.writeEndObject();
+    this.fileOpen = false;
+  }
+
+  /**
+   * Returns the number of files written to the report.
+   *
+   * @return the number of files written to the report
+   */
+  int getFileCount() {
+    return this.fileCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.generator.writeEndArray();
+    this.generator.writeEndObject();
+    this.generator.close();
+  }
+
+  @Override
+  public void fileStarted(AuditEvent auditEvent) {
+    try {
+      this.startFile(auditEvent.getFileName());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void addError(AuditEvent auditEvent) {
+    try {
+      this.generator.writeObject(ViolationRecord.of(auditEvent));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void fileFinished(AuditEvent auditEvent) {
+    try {
+      this.generator.writeEndArray();
+      this.generator.writeEndObject();
+      this.generator.flush();
+      this.fileOpen = false;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void auditStarted(AuditEvent auditEvent) {
+    // do nothing
+  }
+
+  @Override
+  public void auditFinished(AuditEvent auditEvent) {
+    // do nothing
+  }
+
+  @Override
+  public void addException(AuditEvent auditEvent, Throwable throwable) {
+    // do nothing, the exception is rethrown and recorded by fileFailed
+  }
+
+  private void startFile(String fileName) throws IOException {
+    this.generator.writeStartObject();
+    this.generator.writeStringField(
+        "file",
+        this.projectRoot.relativize(Path.of(fileName)).toString()
+    );
+    this.generator.writeArrayFieldStart("violations");
+    this.fileOpen = true;
+    this.fileCount++;
+  }
+}
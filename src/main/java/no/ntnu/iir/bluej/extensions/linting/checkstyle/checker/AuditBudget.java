@@ -0,0 +1,178 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Represents the limits on how long a single file may take to check, and how large it may be.
+ * Checkstyle cannot stop a file once it is being checked, so a file over the time budget is
+ * reported when it is finished, and deferred: it is checked after every other file from then
+ * on, in audits of its own, so it never holds up the files queued behind it again.
+ * A file larger than the size limit is not checked at all, and reported instead.
+ * Both reports are shown in the overview like any other violation, under the rule AuditBudget.
+ * A file over the time budget is not cached, so it is audited, and deferred, again next time.
+ * The budget is shared by every Checker of every pool, so it must be thread-safe.
+ */
+final class AuditBudget {
+  private static final Logger LOGGER = Logger.getLogger(AuditBudget.class.getName());
+  private static final String RULE_NAME = ViolationRecord.getRuleName(
+      AuditBudget.class.getName()
+  );
+  private static final String TIME_BUDGET_MODULE_ID = "FileTimeBudget";
+  private static final String SIZE_LIMIT_MODULE_ID = "FileSizeLimit";
+
+  private volatile long fileTimeBudgetMillis; // 0 if files may take any time
+  private volatile long maxFileSize; // in bytes, 0 if files may be any size
+  private final Set<String> deferredFiles; // absolute paths of the files over the time budget
+
+  /**
+   * Constructs a new AuditBudget without any limits.
+   */
+  AuditBudget() {
+    this.deferredFiles = ConcurrentHashMap.newKeySet();
+  }
+
+  void setFileTimeBudgetMillis(long fileTimeBudgetMillis) {
+    this.fileTimeBudgetMillis = Math.max(0, fileTimeBudgetMillis);
+  }
+
+  void setMaxFileSize(long maxFileSize) {
+    this.maxFileSize = Math.max(0, maxFileSize);
+  }
+
+  /**
+   * Returns whether a file is too large to be checked.
+   *
+   * @param file the file to check the size of
+   *
+   * @return true if the file is larger than the size limit
+   */
+  boolean isOversized(File file) {
+    return this.isOversized(file.length());
+  }
+
+  /**
+   * Returns whether a file of a given size is too large to be checked.
+   *
+   * @param size the size of the file, in bytes
+   *
+   * @return true if the size is larger than the size limit
+   */
+  boolean isOversized(long size) {
+    long limit = this.maxFileSize;
+    return limit > 0 && size > limit;
+  }
+
+  /**
+   * Returns whether a file went over the time budget the last time it was checked.
+   *
+   * @param file the file to look up
+   *
+   * @return true if the file should be checked after every other file
+   */
+  boolean isDeferred(File file) {
+    return this.deferredFiles.contains(file.getAbsolutePath());
+  }
+
+  /**
+   * Records how long a file took to check, deferring it if it went over the time budget,
+   * and no longer deferring it if it is back within the budget.
+   *
+   * @param fileName the absolute path of the file
+   * @param elapsedNanos the time the file took to check
+   *
+   * @return a violation reporting the file as over the budget, or null if it is within it
+   */
+  Violation fileChecked(String fileName, long elapsedNanos) {
+    long budget = this.fileTimeBudgetMillis;
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    if (budget == 0 || elapsedMillis <= budget) {
+      this.deferredFiles.remove(fileName);
+      return null;
+    }
+
+    if (this.deferredFiles.add(fileName)) {
+      LOGGER.info("Deferring " + fileName + ", which took " + elapsedMillis + " ms to check");
+    }
+    return createViolation(
+        TIME_BUDGET_MODULE_ID,
+        String.format(
+            "Checking this file took %,d ms, over the budget of %,d ms per file. "
+                + "It is checked after every other file until it is within the budget again.",
+            elapsedMillis,
+            budget
+        )
+    );
+  }
+
+  /**
+   * Forgets the deferred files of a project being closed.
+   *
+   * @param projectContext the project being closed
+   */
+  void evictProject(ProjectContext projectContext) {
+    this.deferredFiles.removeIf(fileName -> projectContext.contains(
+        new File(fileName).toPath()
+    ));
+  }
+
+  /**
+   * Creates a violation reporting a file as too large to be checked.
+   *
+   * @param size the size of the file, in bytes
+   *
+   * @return a violation reporting the file as over the size limit
+   */
+  Violation createOversizedViolation(long size) {
+    return createViolation(
+        SIZE_LIMIT_MODULE_ID,
+        String.format(
+            "Not checked, the file is %,d KB, larger than the limit of %,d KB per file.",
+            size / 1024,
+            this.maxFileSize / 1024
+        )
+    );
+  }
+
+  /**
+   * Returns whether a violation was reported by the budget rather than by a check.
+   * Such violations are always shown, whatever the ViolationFilter.
+   *
+   * @param sourceName the fully qualified name of the source of the violation
+   *
+   * @return true if the violation was reported by the budget
+   */
+  static boolean isBudgetReport(String sourceName) {
+    return AuditBudget.class.getName().equals(sourceName);
+  }
+
+  /**
+   * Returns whether a stored violation was reported by the budget rather than by a check.
+   *
+   * @param violationRecord the stored violation
+   *
+   * @return true if the violation was reported by the budget
+   */
+  static boolean isBudgetReport(ViolationRecord violationRecord) {
+    return RULE_NAME.equals(violationRecord.getRule());
+  }
+
+  private static Violation createViolation(String moduleId, String message) {
+    // the message is passed as an argument, so it is not parsed as a MessageFormat pattern
+    return new Violation(
+        1,
+        null,
+        null,
+        new Object[] {message},
+        SeverityLevel.WARNING,
+        moduleId,
+        AuditBudget.class,
+        "{0}"
+    );
+  }
+}
@@ -0,0 +1,169 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a registry of live audit metrics.
+ * Updated by the CheckerService and the CheckerListener while auditing, and read by the UI.
+ * Every update is a single atomic operation, so recording costs next to nothing on the audit
+ * threads; anything more expensive, like computing percentiles, is done when reading.
+ */
+public class AuditMetrics {
+  // number of recent per-file latencies kept to compute percentiles from
+  private static final int LATENCY_SAMPLES = 256;
+  private static final long NANOS_PER_MILLI = 1_000_000;
+
+  private final LongAdder filesAudited = new LongAdder();
+  private final LongAdder filesRestored = new LongAdder();
+  private final AtomicInteger pendingAudits = new AtomicInteger();
+  private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_SAMPLES);
+  private final AtomicLong latencyCount = new AtomicLong();
+  private volatile long lastLatency = -1;
+  private final AtomicInteger auditFileCount = new AtomicInteger();
+  private final AtomicInteger auditFilesDone = new AtomicInteger();
+  // the request whose progress is tracked, 0 if none, only written while holding this
+  private volatile long progressRequest;
+  private long requestSequence; // guarded by this
+
+  void auditQueued() {
+    this.pendingAudits.incrementAndGet();
+  }
+
+  void auditDequeued() {
+    this.pendingAudits.decrementAndGet();
+  }
+
+  /**
+   * Records the start of a request to audit files. A request of several files takes over
+   * the progress, which is tracked across all of its audits. A request of a single file,
+   * like saving a class during a sweep, leaves the progress of the running request alone.
+   * Only called once per request, so unlike the per-file updates it may take a lock.
+   *
+   * @param fileCount the number of files in the request
+   *
+   * @return the id of the request, to record its files and its end with,
+   *     or 0 if its progress is not tracked
+   */
+  synchronized long auditStarted(int fileCount) {
+    if (fileCount <= 1) {
+      return 0;
+    }
+
+    this.auditFilesDone.set(0);
+    this.auditFileCount.set(fileCount);
+    this.progressRequest = ++this.requestSequence;
+    return this.progressRequest;
+  }
+
+  /**
+   * Records the end of a request to audit files, once its last audit is done or cancelled.
+   * Does nothing if a newer request has taken over the progress meanwhile.
+   *
+   * @param request the id of the request, as returned when it was started
+   */
+  synchronized void auditFinished(long request) {
+    if (request != 0 && request == this.progressRequest) {
+      this.auditFileCount.set(0);
+      this.progressRequest = 0;
+    }
+  }
+
+  /**
+   * Records files of a request that are done, audited or restored.
+   * Only counted toward the progress if the request is the one tracked.
+   *
+   * @param request the id of the request the files belong to, or 0 if not tracked
+   * @param fileCount the number of files done
+   */
+  void filesDone(long request, int fileCount) {
+    // not atomic with a takeover, which at worst counts a file of the old request once
+    if (request != 0 && request == this.progressRequest) {
+      this.auditFilesDone.addAndGet(fileCount);
+    }
+  }
+
+  /**
+   * Records files whose results were restored from the ResultCache instead of audited.
+   *
+   * @param fileCount the number of restored files
+   */
+  void filesRestored(int fileCount) {
+    this.filesRestored.add(fileCount);
+  }
+
+  /**
+   * Records a file that has been audited.
+   *
+   * @param latency the time it took to audit the file, in nanoseconds
+   */
+  void fileAudited(long latency) {
+    this.filesAudited.increment();
+    this.lastLatency = latency;
+    long sample = this.latencyCount.getAndIncrement();
+    this.latencies.set((int) (sample % LATENCY_SAMPLES), latency);
+  }
+
+  public long getFilesAudited() {
+    return this.filesAudited.sum();
+  }
+
+  public long getFilesRestored() {
+    return this.filesRestored.sum();
+  }
+
+  public int getPendingAudits() {
+    return Math.max(0, this.pendingAudits.get());
+  }
+
+  /**
+   * Returns the time it took to audit the last file.
+   *
+   * @return the latency of the last file in milliseconds, or -1 if no file has been audited
+   */
+  public long getLastLatencyMillis() {
+    long latency = this.lastLatency;
+    return latency < 0 ? -1 : latency / NANOS_PER_MILLI;
+  }
+
+  /**
+   * Returns the 95th percentile of the time it took to audit the most recent files.
+   *
+   * @return the p95 latency in milliseconds, or -1 if no file has been audited
+   */
+  public long getP95LatencyMillis() {
+    int sampleCount = (int) Math.min(this.latencyCount.get(), LATENCY_SAMPLES);
+    if (sampleCount == 0) {
+      return -1;
+    }
+
+    long[] samples = new long[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      samples[i] = this.latencies.get(i);
+    }
+    Arrays.sort(samples);
+    int index = (int) Math.ceil(sampleCount * 0.95) - 1;
+    return samples[Math.max(0, index)] / NANOS_PER_MILLI;
+  }
+
+  /**
+   * Returns the number of files in the running request, if it includes several files.
+   *
+   * @return the number of files in the running request, or 0 if no such request is running
+   */
+  public int getAuditFileCount() {
+    return this.auditFileCount.get();
+  }
+
+  /**
+   * Returns the number of files of the running request that are done, audited or restored.
+   *
+   * @return the number of files done in the running request
+   */
+  public int getAuditFilesDone() {
+    return Math.min(this.auditFilesDone.get(), this.auditFileCount.get());
+  }
+}
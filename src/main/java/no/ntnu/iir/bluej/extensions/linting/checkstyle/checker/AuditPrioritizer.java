@@ -0,0 +1,12 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.io.File;
+
+/**
+ * Represents a strategy deciding how urgently a file should be audited.
+ * Called on the thread requesting the audit, when the audit is scheduled.
+ */
+@FunctionalInterface
+public interface AuditPrioritizer {
+  AuditPriority getPriority(File file);
+}
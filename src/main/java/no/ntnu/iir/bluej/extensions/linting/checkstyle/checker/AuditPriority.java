@@ -0,0 +1,24 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+/**
+ * Represents the priority of an audit, from most to least urgent.
+ * A scheduled audit always runs before any scheduled audit of a lower priority.
+ */
+public enum AuditPriority {
+  /**
+   * Files the user is editing, which feedback is waited for.
+   */
+  EDITED,
+  /**
+   * Files in the package the user is looking at.
+   */
+  CURRENT_PACKAGE,
+  /**
+   * Every other file, audited as a background sweep.
+   */
+  BACKGROUND,
+  /**
+   * Files that went over the time budget, audited one at a time after every other file.
+   */
+  DEFERRED
+}
@@ -0,0 +1,148 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import bluej.extensions2.BClass;
+import bluej.extensions2.BPackage;
+import bluej.extensions2.BProject;
+import bluej.extensions2.BlueJ;
+import bluej.extensions2.PackageNotFoundException;
+import bluej.extensions2.ProjectNotOpenException;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents an index from source file paths to the BlueJ classes they belong to.
+ * The index is kept up to date from package and class events, so looking up a class
+ * costs the same no matter how many classes are open. Each class is also indexed by itself,
+ * so a class event updates the index in constant time, however large the project is.
+ * A full resync of every open project is only done when a lookup misses.
+ * The BlueJ API may only be used from the JavaFX thread, and so may this index.
+ */
+public class BlueClassIndex {
+  private BlueJ blueJ;
+  private Map<String, BClass> blueClasses; // (file path, class)
+  private Map<BClass, String> filePaths; // (class, file path), by identity like the events
+  private Set<String> unknownPaths; // paths not found by the last resync
+
+  /**
+   * Constructs a new BlueClassIndex.
+   *
+   * @param blueJ the BlueJ instance to resync the index from
+   */
+  public BlueClassIndex(BlueJ blueJ) {
+    this.blueJ = blueJ;
+    this.blueClasses = new HashMap<>();
+    this.filePaths = new IdentityHashMap<>();
+    this.unknownPaths = new HashSet<>();
+  }
+
+  /**
+   * Returns the BClass of a source file.
+   * Resyncs the whole index if the file is not known yet.
+   *
+   * @param filePath the path of the source file
+   *
+   * @return the BClass of the file, or null if it does not belong to an open package
+   */
+  public BClass getBlueClass(String filePath) {
+    BClass blueClass = this.blueClasses.get(filePath);
+    if (blueClass == null && !this.unknownPaths.contains(filePath)) {
+      this.resync();
+      blueClass = this.blueClasses.get(filePath);
+      if (blueClass == null) {
+        this.unknownPaths.add(filePath);
+      }
+    }
+    return blueClass;
+  }
+
+  /**
+   * Adds every class of a package to the index.
+   *
+   * @param bluePackage the package to add
+   */
+  public void addPackage(BPackage bluePackage) {
+    try {
+      for (BClass blueClass : bluePackage.getClasses()) {
+        this.addClass(blueClass);
+      }
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Removes every class of a package from the index.
+   *
+   * @param bluePackage the package to remove
+   */
+  public void removePackage(BPackage bluePackage) {
+    try {
+      Path packageDirectory = bluePackage.getDir().toPath();
+      this.blueClasses.entrySet().removeIf(entry -> {
+        boolean inPackage = packageDirectory.equals(new File(entry.getKey()).toPath().getParent());
+        if (inPackage) {
+          this.filePaths.remove(entry.getValue());
+        }
+        return inPackage;
+      });
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Adds a class to the index, or updates the path of a class already in the index.
+   *
+   * @param blueClass the class to add
+   */
+  public void addClass(BClass blueClass) {
+    try {
+      String filePath = blueClass.getJavaFile().getPath();
+      this.removeClass(blueClass);
+      BClass replacedClass = this.blueClasses.put(filePath, blueClass);
+      if (replacedClass != null) {
+        this.filePaths.remove(replacedClass);
+      }
+      this.filePaths.put(blueClass, filePath);
+      this.unknownPaths.remove(filePath);
+    } catch (ProjectNotOpenException | PackageNotFoundException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Removes a class from the index.
+   *
+   * @param blueClass the class to remove
+   */
+  public void removeClass(BClass blueClass) {
+    String filePath = this.filePaths.remove(blueClass);
+    if (filePath != null) {
+      this.blueClasses.remove(filePath);
+    }
+  }
+
+  /**
+   * Rebuilds the index from every package of every open project.
+   */
+  public void resync() {
+    this.blueClasses.clear();
+    this.filePaths.clear();
+    this.unknownPaths.clear();
+
+    for (BProject blueProject : this.blueJ.getOpenProjects()) {
+      try {
+        for (BPackage bluePackage : blueProject.getPackages()) {
+          this.addPackage(bluePackage);
+        }
+      } catch (ProjectNotOpenException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilter;
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilterSet;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a Checker that can also check text that has not been saved to disk.
+ * The Checker only reads files from disk, so the configured FileSetChecks are kept
+ * as they are added, and run directly on the text when checking a buffer.
+ * Violations are reported to the listeners just like for a file on disk.
+ * Every file is timed against the AuditBudget, which is reported as a violation of the file
+ * when it is over the budget. Files over the size limit are reported without being checked.
+ */
+class BufferChecker extends Checker {
+  private static final Logger LOGGER = Logger.getLogger(BufferChecker.class.getName());
+  private static final Pattern LINE_TERMINATOR = Pattern.compile("\\n|\\r\\n?");
+
+  private final List<FileSetCheck> fileSetChecks = new ArrayList<>();
+  private final BeforeExecutionFileFilterSet beforeExecutionFileFilters =
+      new BeforeExecutionFileFilterSet();
+  private String charset = System.getProperty("file.encoding", StandardCharsets.UTF_8.name());
+  private AuditBudget auditBudget = new AuditBudget();
+  private long fileStartTime; // System.nanoTime when the current file started
+  // the first file also loads the classes of the checks, so it is not timed
+  private boolean warmedUp;
+
+  @Override
+  public void addFileSetCheck(FileSetCheck fileSetCheck) {
+    super.addFileSetCheck(fileSetCheck);
+    this.fileSetChecks.add(fileSetCheck);
+  }
+
+  @Override
+  public void addBeforeExecutionFileFilter(BeforeExecutionFileFilter filter) {
+    super.addBeforeExecutionFileFilter(filter);
+    this.beforeExecutionFileFilters.addBeforeExecutionFileFilter(filter);
+  }
+
+  @Override
+  public void removeBeforeExecutionFileFilter(BeforeExecutionFileFilter filter) {
+    super.removeBeforeExecutionFileFilter(filter);
+    this.beforeExecutionFileFilters.removeBeforeExecutionFileFilter(filter);
+  }
+
+  @Override
+  public void setCharset(String charset) throws UnsupportedEncodingException {
+    super.setCharset(charset);
+    this.charset = charset;
+  }
+
+  void setAuditBudget(AuditBudget auditBudget) {
+    this.auditBudget = auditBudget;
+  }
+
+  /**
+   * Processes a list of files, reporting the files over the size limit instead of checking them.
+   */
+  @Override
+  public int process(List<File> files) throws CheckstyleException {
+    List<File> filesToProcess = new ArrayList<>(files.size());
+    TreeMap<String, Long> oversizedFiles = new TreeMap<>(); // (file name, size)
+    for (File file : files) {
+      long size = file.length();
+      if (this.auditBudget.isOversized(size)) {
+        oversizedFiles.put(file.getAbsolutePath(), size);
+      } else {
+        filesToProcess.add(file);
+      }
+    }
+
+    int errorCount = filesToProcess.isEmpty() ? 0 : super.process(filesToProcess);
+    for (Map.Entry<String, Long> oversizedFile : oversizedFiles.entrySet()) {
+      if (this.beforeExecutionFileFilters.accept(oversizedFile.getKey())) {
+        this.fireOversizedFile(oversizedFile.getKey(), oversizedFile.getValue());
+        errorCount++;
+      }
+    }
+    return errorCount;
+  }
+
+  /**
+   * Starts timing a file against the time budget.
+   */
+  @Override
+  public void fireFileStarted(String fileName) {
+    this.fileStartTime = System.nanoTime();
+    super.fireFileStarted(fileName);
+  }
+
+  /**
+   * Reports the file as over the time budget if it took too long to check.
+   */
+  @Override
+  public void fireFileFinished(String fileName) {
+    Violation overBudget = null;
+    if (this.warmedUp) {
+      overBudget = this.auditBudget.fileChecked(fileName, System.nanoTime() - this.fileStartTime);
+    }
+    this.warmedUp = true;
+    if (overBudget != null) {
+      SortedSet<Violation> violations = new TreeSet<>();
+      violations.add(overBudget);
+      this.fireErrors(fileName, violations);
+    }
+    super.fireFileFinished(fileName);
+  }
+
+  private void fireOversizedFile(String fileName, long size) {
+    SortedSet<Violation> violations = new TreeSet<>();
+    violations.add(this.auditBudget.createOversizedViolation(size));
+    super.fireFileStarted(fileName);
+    this.fireErrors(fileName, violations);
+    super.fireFileFinished(fileName);
+  }
+
+  /**
+   * Checks the unsaved text of a file.
+   * Text that cannot be parsed, which is common while typing, is not reported at all,
+   * so the violations of the last text that could be parsed stay visible.
+   *
+   * @param file the file the text belongs to
+   * @param text the current text of the file
+   */
+  void processText(File file, String text) {
+    String fileName = file.getAbsolutePath();
+    if (!this.beforeExecutionFileFilters.accept(fileName)) {
+      return;
+    }
+    long size = text.length(); // in characters, close enough to its size on disk
+    if (this.auditBudget.isOversized(size)) {
+      this.fireOversizedFile(fileName, size);
+      return;
+    }
+
+    final long startTime = System.nanoTime();
+    FileText fileText = new FileText(file.getAbsoluteFile(), splitLines(text));
+    SortedSet<Violation> violations = new TreeSet<>();
+    for (FileSetCheck fileSetCheck : this.fileSetChecks) {
+      fileSetCheck.beginProcessing(this.charset);
+    }
+    try {
+      for (FileSetCheck fileSetCheck : this.fileSetChecks) {
+        violations.addAll(fileSetCheck.process(file, fileText));
+      }
+    } catch (CheckstyleException | RuntimeException e) {
+      LOGGER.log(Level.FINE, "Could not check unsaved text of " + fileName, e);
+      return;
+    } finally {
+      for (FileSetCheck fileSetCheck : this.fileSetChecks) {
+        fileSetCheck.finishProcessing();
+      }
+    }
+
+    this.fireFileStarted(fileName);
+    // the text is checked before the file is started, so it is timed from before the checks
+    this.fileStartTime = startTime;
+    this.fireErrors(fileName, violations);
+    this.fireFileFinished(fileName);
+  }
+
+  /**
+   * Splits a text into lines the same way Checkstyle splits a file read from disk.
+   *
+   * @param text the text to split
+   *
+   * @return the lines of the text, without line terminators
+   */
+  private static List<String> splitLines(String text) {
+    List<String> lines = new ArrayList<>();
+    Matcher matcher = LINE_TERMINATOR.matcher(text);
+    int position = 0;
+    while (matcher.find()) {
+      lines.add(text.substring(position, matcher.start()));
+      position = matcher.end();
+    }
+    if (position < text.length()) {
+      lines.add(text.substring(position));
+    }
+    return lines;
+  }
+}
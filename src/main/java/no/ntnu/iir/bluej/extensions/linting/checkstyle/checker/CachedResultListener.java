@@ -0,0 +1,18 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import java.util.List;
+
+/**
+ * Represents an AuditListener that can also receive results restored from a ResultCache.
+ * A restored file is never passed to Checkstyle, so no audit events are fired for it.
+ */
+public interface CachedResultListener extends AuditListener {
+  /**
+   * Fired when the violations of a file are restored from the cache instead of audited.
+   *
+   * @param fileName the absolute path of the restored file
+   * @param violations the cached violations of the file
+   */
+  void fileRestored(String fileName, List<ViolationRecord> violations);
+}
@@ -3,58 +3,174 @@ package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
 import bluej.extensions2.BClass;
 import bluej.extensions2.editor.TextLocation;
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
-import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import no.ntnu.iir.bluej.extensions.linting.core.violations.RuleDefinition;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import no.ntnu.iir.bluej.extensions.linting.core.violations.Violation;
-import no.ntnu.iir.bluej.extensions.linting.core.violations.ViolationManager;
 
 /**
  * Represents a CheckerListener.
- * Responsible for adding errors to the ViolationManager, 
- * and purging old errors from the ViolationManager when a file is reprocessed.
+ * Responsible for adding errors to the ViolationStore,
+ * and purging old errors from the ViolationStore when a file is reprocessed.
+ * Violations are collected per file while it is processed, and published in a single
+ * replace when the file is finished.
+ * Violations dropped by the ViolationFilter are never collected. The filter belongs to the
+ * configuration selected in the preferences, so it does not apply to files of projects
+ * checked with a configuration of their own. Reports of the AuditBudget are always shown.
+ * Audits run on background threads, while the ViolationStore and the BlueJ API
+ * must only be used from the JavaFX thread, so every update is handed over to it
+ * by a ViolationDispatcher, which publishes the finished files a few times per second.
+ * Each file is tagged with the configuration it was checked with, and only published if that
+ * is the configuration of the shown snapshot, since an audit of the previous configuration may
+ * still finish files after the configuration has been changed.
  */
-public class CheckerListener implements AuditListener {
-  private ViolationManager violationManager;
+public class CheckerListener implements CachedResultListener {
+  private static final ViolationFilter SHOW_ALL = ViolationFilter.showAll();
 
-  public CheckerListener(ViolationManager violationManager) {
-    this.violationManager = violationManager;
+  private ViolationStore violationStore;
+  private BlueClassIndex blueClassIndex;
+  private RuleDefinitionPool ruleDefinitionPool;
+  private CheckerService checkerService;
+  private AuditMetrics auditMetrics;
+  private ViolationDispatcher violationDispatcher;
+  private volatile ViolationFilter violationFilter;
+  // (file name, violations found so far) for the files currently being processed
+  private Map<String, List<ViolationRecord>> pendingViolations;
+  private Map<String, ViolationFilter> pendingFilters; // (file name, filter of the file)
+  // (file name, key of the configuration the file is checked with), absent for project configs
+  private Map<String, String> pendingConfigKeys;
+  private Map<String, Long> fileStartTimes; // (file name, System.nanoTime when started)
+
+  /**
+   * Constructs a new CheckerListener.
+   * 
+   * @param violationStore the ViolationStore to publish violations to
+   * @param blueClassIndex the index used to find the BClass of each file
+   * @param checkerService the CheckerService to record the latency of each file in, and to
+   *     find the files checked with a configuration of their project in
+   */
+  public CheckerListener(
+      ViolationStore violationStore,
+      BlueClassIndex blueClassIndex,
+      CheckerService checkerService
+  ) {
+    this.violationStore = violationStore;
+    this.blueClassIndex = blueClassIndex;
+    this.checkerService = checkerService;
+    this.auditMetrics = checkerService.getAuditMetrics();
+    this.ruleDefinitionPool = new RuleDefinitionPool();
+    this.violationDispatcher = new ViolationDispatcher(this::publishViolations);
+    this.violationFilter = ViolationFilter.showAll();
+    this.pendingViolations = new ConcurrentHashMap<>();
+    this.pendingFilters = new ConcurrentHashMap<>();
+    this.pendingConfigKeys = new ConcurrentHashMap<>();
+    this.fileStartTimes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Sets the filter deciding which violations are shown.
+   * Only applies to files processed or restored after it is set.
+   * 
+   * @param violationFilter the filter to apply
+   */
+  public void setViolationFilter(ViolationFilter violationFilter) {
+    this.violationFilter = violationFilter;
+  }
+
+  /**
+   * Returns the filter deciding which violations of a file are shown.
+   *
+   * @param fileName the absolute path of the file
+   *
+   * @return the filter of the selected configuration, or one showing every violation if the
+   *     file is checked with a configuration of its project
+   */
+  private ViolationFilter getViolationFilter(String fileName) {
+    return this.checkerService.usesProjectConfiguration(fileName)
+        ? SHOW_ALL
+        : this.violationFilter;
   }
 
   /**
    * Fired when Checkstyle finds a violation in the file being processed.
-   * Adds violations to the ViolationManager instance. 
+   * Collects the violation until the file is finished, unless it is filtered.
    */
   @Override
   public void addError(AuditEvent auditEvent) {
-    String fileName = auditEvent.getFileName();
-    File file = new File(fileName);
-    BClass sourceBClass = this.violationManager.getBlueClass(file.getPath());
-    RuleDefinition ruleDefinition = new RuleDefinition(
-        auditEvent.getMessage(), 
-        auditEvent.getModuleId(), 
-        null, 
-        auditEvent.getSeverityLevel().getName(), 
-        null
-    );
-    Violation violation = new Violation(
-        auditEvent.getMessage(), 
-        sourceBClass, 
-        new TextLocation(auditEvent.getLine(), auditEvent.getColumn()),
-        ruleDefinition
+    List<ViolationRecord> violations = this.pendingViolations.get(auditEvent.getFileName());
+    ViolationFilter filter = this.pendingFilters.get(auditEvent.getFileName());
+    if (violations == null || filter == null) {
+      return;
+    }
+    if (AuditBudget.isBudgetReport(auditEvent.getSourceName())
+        || !filter.isFull(auditEvent.getModuleId(), violations)
+        && filter.accepts(auditEvent)) {
+      violations.add(ViolationRecord.of(auditEvent));
+    }
+  }
+
+  /**
+   * Fired when the violations of a file are restored from the ResultCache.
+   * Replaces the old entry with the restored violations, as if the file was reprocessed.
+   * The cache holds every violation, so the restored violations are filtered here.
+   */
+  @Override
+  public void fileRestored(String fileName, List<ViolationRecord> violations) {
+    ViolationFilter filter = this.getViolationFilter(fileName);
+    List<ViolationRecord> filteredViolations = new ArrayList<>();
+    for (ViolationRecord violationRecord : violations) {
+      if (AuditBudget.isBudgetReport(violationRecord)
+          || !filter.isFull(violationRecord.getModuleId(), filteredViolations)
+          && filter.accepts(violationRecord)) {
+        filteredViolations.add(violationRecord);
+      }
+    }
+    this.violationDispatcher.submit(
+        fileName,
+        this.checkerService.getAuditedConfigurationKey(fileName),
+        filteredViolations
     );
+  }
 
-    List<Violation> violations = violationManager.getViolations(fileName);
-    if (violations != null) {
-      violations.add(violation);
-      violationManager.setViolations(fileName, violations);
-    } else {
-      ArrayList<Violation> violationList = new ArrayList<>();
-      violationList.add(violation);
-      violationManager.addViolations(fileName, violationList);
+  /**
+   * Replaces the violations of a file in the ViolationStore.
+   * The BClass of the file is only resolved once for all its violations,
+   * and violations of the same module share a single RuleDefinition.
+   * Files checked with another configuration than the one of the shown snapshot are dropped,
+   * they are checked again once their configuration is shown.
+   *
+   * @param fileName the absolute path of the file
+   * @param configKey the key of the configuration the file was checked with,
+   *     or null if it was checked with a configuration of its project
+   * @param violations the violations found in the file
+   */
+  private void publishViolations(
+      String fileName,
+      String configKey,
+      List<ViolationRecord> violations
+  ) {
+    if (configKey != null && !configKey.equals(this.violationStore.getSnapshotKey())) {
+      return;
+    }
+
+    if (violations.isEmpty()) {
+      this.violationStore.replaceViolations(fileName, List.of(), List.of());
+      return;
     }
+
+    BClass sourceBClass = this.blueClassIndex.getBlueClass(new File(fileName).getPath());
+    ArrayList<Violation> violationList = new ArrayList<>(violations.size());
+    for (ViolationRecord violationRecord : violations) {
+      violationList.add(new Violation(
+          violationRecord.getMessage(),
+          sourceBClass,
+          new TextLocation(violationRecord.getLine(), violationRecord.getColumn()),
+          this.ruleDefinitionPool.get(violationRecord)
+      ));
+    }
+    this.violationStore.replaceViolations(fileName, violationList, violations);
   }
 
   @Override
@@ -64,30 +180,68 @@ public class CheckerListener implements AuditListener {
 
   @Override
   public void auditFinished(AuditEvent auditEvent) {
-    // do nothing
+    // do nothing, every finished file schedules a flush of its own
+  }
+
+  /**
+   * Publishes every file finished since the last flush at once.
+   * Used before switching snapshots, so the files already checked with the old configuration
+   * are shown in its snapshot, while any finished later are dropped by their configuration.
+   * Must be called on the JavaFX thread.
+   */
+  public void flushViolations() {
+    this.violationDispatcher.flush();
+  }
+
+  /**
+   * Stops publishing violations.
+   */
+  public void shutdown() {
+    this.violationDispatcher.shutdown();
   }
 
   @Override
   public void auditStarted(AuditEvent auditEvent) {
-    try {
-      this.violationManager.syncBlueClassMap();
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
+    // do nothing, the BlueClassIndex is kept up to date by package and class events
   }
 
+  /**
+   * Fired when a file is finished processing.
+   * Publishes the collected violations, replacing the old entry.
+   */
   @Override
   public void fileFinished(AuditEvent auditEvent) {
-    // do nothing
+    String fileName = auditEvent.getFileName();
+    List<ViolationRecord> violations = this.pendingViolations.remove(fileName);
+    this.pendingFilters.remove(fileName);
+    String configKey = this.pendingConfigKeys.remove(fileName);
+    Long startTime = this.fileStartTimes.remove(fileName);
+    if (startTime != null) {
+      this.auditMetrics.fileAudited(System.nanoTime() - startTime);
+    }
+    if (violations != null) {
+      this.violationDispatcher.submit(fileName, configKey, violations);
+    }
   }
 
   /**
    * Fired when a file is starting to get processed.
-   * Should delete the old entry, in order to get a new List which 
-   * reflects the current state of the file.
+   * Starts collecting a new List which reflects the current state of the file.
+   * The old entry stays visible until the file is finished.
    */
   @Override
   public void fileStarted(AuditEvent auditEvent) {
-    this.violationManager.removeViolations(auditEvent.getFileName());
+    this.fileStartTimes.put(auditEvent.getFileName(), System.nanoTime());
+    this.pendingFilters.put(
+        auditEvent.getFileName(),
+        this.getViolationFilter(auditEvent.getFileName())
+    );
+    String configKey = this.checkerService.getAuditedConfigurationKey(auditEvent.getFileName());
+    if (configKey != null) {
+      this.pendingConfigKeys.put(auditEvent.getFileName(), configKey);
+    } else {
+      this.pendingConfigKeys.remove(auditEvent.getFileName());
+    }
+    this.pendingViolations.put(auditEvent.getFileName(), new ArrayList<>());
   }
 }
@@ -0,0 +1,223 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Represents a pool of identically configured Checkstyle checkers.
+ * A Checker is not thread-safe, so every worker borrows a Checker of its own.
+ * Files are split across the workers of a work-stealing ForkJoinPool,
+ * which keeps every core busy even when some files take much longer than others.
+ */
+class CheckerPool {
+  private static final String WORKER_THREAD_NAME = "checkstyle4bluej-audit-worker-";
+  // smallest number of files processed in one call, to amortize the cost of Checker.process
+  private static final int MIN_FILES_PER_TASK = 4;
+
+  private final List<BufferChecker> checkers;
+  private final BlockingQueue<BufferChecker> idleCheckers;
+  private final ForkJoinPool forkJoinPool;
+
+  /**
+   * Constructs a new CheckerPool.
+   *
+   * @param size the number of checkers, and the number of files audited in parallel
+   * @param configuration the configuration to configure every Checker with
+   * @param checkerFactory the factory used to create each configured Checker
+   *
+   * @throws CheckstyleException if a Checker could not be configured
+   */
+  CheckerPool(
+      int size,
+      Configuration configuration,
+      CheckerFactory checkerFactory
+  ) throws CheckstyleException {
+    this.checkers = new ArrayList<>(size);
+    this.idleCheckers = new ArrayBlockingQueue<>(size);
+    for (int i = 0; i < size; i++) {
+      BufferChecker checker = checkerFactory.createChecker(configuration);
+      this.checkers.add(checker);
+      this.idleCheckers.add(checker);
+    }
+
+    // a single Checker is run directly on the calling thread
+    this.forkJoinPool = size > 1 ? new ForkJoinPool(
+        size,
+        pool -> {
+          ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName(WORKER_THREAD_NAME + thread.getPoolIndex());
+          return thread;
+        },
+        null,
+        false
+    ) : null;
+  }
+
+  /**
+   * Returns the number of checkers in the pool.
+   *
+   * @return the number of checkers in the pool
+   */
+  int size() {
+    return this.checkers.size();
+  }
+
+  /**
+   * Adds a AuditListener to every Checker in the pool.
+   *
+   * @param listener the AuditListener to add
+   */
+  void addListener(AuditListener listener) {
+    this.checkers.forEach(checker -> checker.addListener(listener));
+  }
+
+  /**
+   * Removes a AuditListener from every Checker in the pool.
+   *
+   * @param listener the AuditListener to remove
+   */
+  void removeListener(AuditListener listener) {
+    this.checkers.forEach(checker -> checker.removeListener(listener));
+  }
+
+  /**
+   * Processes a list of files, in parallel when the pool holds more than one Checker.
+   * Blocks until every file is processed.
+   *
+   * @param files the files to process
+   * @param charset the Files charset encoding.
+   *
+   * @throws UnsupportedEncodingException if an unsupported encoding is used.
+   * @throws CheckstyleException if an error condition within Checkstyle occurs.
+   */
+  void process(
+      List<File> files,
+      String charset
+  ) throws UnsupportedEncodingException, CheckstyleException {
+    for (BufferChecker checker : this.checkers) {
+      checker.setCharset(charset);
+    }
+
+    if (this.forkJoinPool == null) {
+      this.processWithIdleChecker(files);
+      return;
+    }
+
+    try {
+      this.forkJoinPool.invoke(new AuditAction(files));
+    } catch (AuditFailure e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Checks the unsaved text of a single file on the calling thread.
+   *
+   * @param file the file the text belongs to
+   * @param text the current text of the file
+   *
+   * @throws CheckstyleException if interrupted while waiting for a Checker
+   */
+  void processText(File file, String text) throws CheckstyleException {
+    BufferChecker checker = this.takeIdleChecker();
+    try {
+      checker.processText(file, text);
+    } finally {
+      this.idleCheckers.add(checker);
+    }
+  }
+
+  /**
+   * Stops the worker threads of the pool.
+   */
+  void shutdown() {
+    if (this.forkJoinPool != null) {
+      this.forkJoinPool.shutdownNow();
+    }
+  }
+
+  private BufferChecker takeIdleChecker() throws CheckstyleException {
+    try {
+      return this.idleCheckers.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CheckstyleException("Interrupted while waiting for a Checker", e);
+    }
+  }
+
+  private void processWithIdleChecker(List<File> files) throws CheckstyleException {
+    BufferChecker checker = this.takeIdleChecker();
+    try {
+      checker.process(files);
+    } finally {
+      this.idleCheckers.add(checker);
+    }
+  }
+
+  /**
+   * Represents a factory creating configured Checker instances.
+   */
+  @FunctionalInterface
+  interface CheckerFactory {
+    BufferChecker createChecker(Configuration configuration) throws CheckstyleException;
+  }
+
+  /**
+   * Represents a part of an audit, split in halves until it is small enough to process.
+   * Idle workers steal the unprocessed halves from busy workers.
+   */
+  private final class AuditAction extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<File> files;
+
+    private AuditAction(List<File> files) {
+      this.files = files;
+    }
+
+    @Override
+    protected void compute() {
+      int fileCount = this.files.size();
+      if (fileCount <= MIN_FILES_PER_TASK) {
+        try {
+          processWithIdleChecker(this.files);
+        } catch (CheckstyleException e) {
+          throw new AuditFailure(e);
+        }
+      } else {
+        int middle = fileCount / 2;
+        invokeAll(
+            new AuditAction(this.files.subList(0, middle)),
+            new AuditAction(this.files.subList(middle, fileCount))
+        );
+      }
+    }
+  }
+
+  /**
+   * Carries a CheckstyleException out of the ForkJoinPool.
+   */
+  private static final class AuditFailure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private AuditFailure(CheckstyleException cause) {
+      super(cause);
+    }
+
+    @Override
+    public CheckstyleException getCause() {
+      return (CheckstyleException) super.getCause();
+    }
+  }
+}
@@ -1,46 +1,313 @@
 package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
 
 import com.puppycrawl.tools.checkstyle.Checker;
-import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
-import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
 import java.io.File;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import no.ntnu.iir.bluej.extensions.linting.core.checker.ICheckerService;
 
 /**
  * Represents a Checker service.
  * Responsible for handling requests to check files using a Checkstyle checker.
+ * Audits are run on a dedicated background thread, so requests never block the caller.
+ * Each audit can be split across a pool of checkers to use several cores.
+ * The unsaved text of a file open in an editor can be checked the same way.
+ * Scheduled audits run in order of priority, so the files the user is editing are audited
+ * before the rest of the project, which is swept in small chunks in the background.
+ * A project with a checkstyle.xml file in its root directory is audited with that
+ * configuration and a pool of checkers of its own, and is not affected when the configuration
+ * selected in the preferences changes. Every project still shares the audit thread and the
+ * checker lock, so the audits of different projects run one after another.
+ * Setting the configuration or the number of checkers never waits for a running audit,
+ * the new ones are installed by the next audit instead.
  */
 public class CheckerService implements ICheckerService {
-  private Checker checker;
+  private static final Logger LOGGER = Logger.getLogger(CheckerService.class.getName());
+  private static final String AUDIT_THREAD_NAME = "checkstyle4bluej-audit";
+  private static final String PROJECT_CONFIG_FILE_NAME = "checkstyle.xml";
+
+  private static final String PREWARM_THREAD_NAME = "checkstyle4bluej-prewarm";
+  private static final String PROFILE_THREAD_NAME = "checkstyle4bluej-profile";
+  private static final int MAX_CACHED_CONFIGURATIONS = 4;
+  // files per background audit, so more urgent audits never wait for a whole project
+  private static final int BACKGROUND_CHUNK_SIZE = 8;
+
+  private CompiledConfiguration compiledConfiguration; // in use by audits, guarded by checkerLock
+  // the configuration set last, installed by the next audit, see installSelectedConfiguration
+  private volatile CompiledConfiguration selectedConfiguration;
+  // the path of the configuration in use, read by listeners on the threads of the CheckerPool
+  private volatile String compiledConfigurationKey;
+  private volatile int poolSize;
   private boolean enabled;
   private List<AuditListener> listeners;
-  
+  private ResultCache resultCache;
+  private volatile ResultCacheRecorder resultCacheRecorder;
+  private volatile RemoteConfigCache remoteConfigCache;
+  private final ConfigurationCache configurationCache;
+  private final Object checkerLock;
+  private final ExecutorService auditExecutor;
+  private final ExecutorService prewarmExecutor;
+  private final ExecutorService profileExecutor;
+  private volatile CompletableFuture<List<ModuleCost>> runningProfile;
+  private final Set<AuditTask> pendingAudits;
+  private final Map<String, AuditTask> pendingTextAudits; // (file name, latest text audit)
+  private final Map<Path, ProjectContext> projectContexts; // (project directory, context)
+  private volatile AuditTask runningAudit;
+  private final CancellationGuard cancellationGuard;
+  private final AuditMetrics auditMetrics;
+  private final AuditBudget auditBudget;
+  private final AtomicLong auditSequence;
+  private AuditPrioritizer auditPrioritizer;
+  private volatile String lastCharset;
 
   /**
    * Constructs a new CheckerService.
    */
   public CheckerService() {
     this.enabled = false;
-    this.listeners = new ArrayList<>();
-    this.initChecker();
+    this.poolSize = 1;
+    // read without the lock when the checkers of a new configuration are configured
+    this.listeners = new CopyOnWriteArrayList<>();
+    this.cancellationGuard = new CancellationGuard();
+    this.auditMetrics = new AuditMetrics();
+    this.auditBudget = new AuditBudget();
+    this.auditSequence = new AtomicLong();
+    this.auditPrioritizer = file -> AuditPriority.CURRENT_PACKAGE;
+    this.lastCharset = StandardCharsets.UTF_8.name();
+    this.configurationCache = new ConfigurationCache(MAX_CACHED_CONFIGURATIONS);
+    this.checkerLock = new Object();
+    this.pendingAudits = ConcurrentHashMap.newKeySet();
+    this.pendingTextAudits = new ConcurrentHashMap<>();
+    this.projectContexts = new ConcurrentHashMap<>();
+    // only AuditTasks are executed, which the queue orders by priority
+    this.auditExecutor = new ThreadPoolExecutor(
+        1,
+        1,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new PriorityBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, AUDIT_THREAD_NAME);
+          thread.setDaemon(true);
+          return thread;
+        }
+    );
+    this.prewarmExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, PREWARM_THREAD_NAME);
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    this.profileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, PROFILE_THREAD_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
   }
 
-  private void initChecker() {
-    this.checker = new Checker();
-    this.checker.setBasedir(null);
-    this.checker.setModuleClassLoader(Checker.class.getClassLoader());
+  /**
+   * Creates a new Checker using the given configuration and the current listeners.
+   * 
+   * @param configuration the configuration to configure the Checker with
+   * 
+   * @return a new configured Checker
+   * 
+   * @throws CheckstyleException if the Checker could not be configured
+   */
+  private BufferChecker createChecker(Configuration configuration) throws CheckstyleException {
+    BufferChecker checker = new BufferChecker();
+    checker.setAuditBudget(this.auditBudget);
+    checker.setBasedir(null);
+    checker.setModuleClassLoader(Checker.class.getClassLoader());
+
+    // must be the first listener, so a cancelled audit stops before anyone sees the next file
+    checker.addListener(this.cancellationGuard);
 
     for (AuditListener listener : this.listeners) {
-      this.checker.addListener(listener);
+      checker.addListener(listener);
+    }
+
+    if (this.resultCacheRecorder != null) {
+      checker.addListener(this.resultCacheRecorder);
+    }
+
+    checker.configure(configuration);
+    return checker;
+  }
+
+  /**
+   * Applies an action to every CheckerPool that has been created, cached or in use.
+   * Must be called while holding the checker lock.
+   * 
+   * @param action the action to apply
+   */
+  private void forEachCheckerPool(Consumer<CheckerPool> action) {
+    Set<CheckerPool> checkerPools = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<CompiledConfiguration> compiledConfigurations = this.configurationCache.values();
+    if (this.compiledConfiguration != null) {
+      compiledConfigurations.add(this.compiledConfiguration);
+    }
+    if (this.selectedConfiguration != null) {
+      compiledConfigurations.add(this.selectedConfiguration);
+    }
+    for (ProjectContext projectContext : this.projectContexts.values()) {
+      if (projectContext.hasProjectConfiguration()) {
+        compiledConfigurations.add(projectContext.getProjectConfiguration());
+      }
+    }
+
+    for (CompiledConfiguration cached : compiledConfigurations) {
+      CheckerPool checkerPool = cached.getCheckerPool();
+      if (checkerPool != null && checkerPools.add(checkerPool)) {
+        action.accept(checkerPool);
+      }
     }
   }
 
+  /**
+   * Sets the number of files audited in parallel.
+   * Any running audit is cancelled, since the checkers are replaced.
+   * The checkers in use are replaced by the next audit, so this never waits for a running one.
+   * 
+   * @param poolSize the number of checkers to audit with, at least 1
+   */
+  public void setPoolSize(int poolSize) {
+    int newPoolSize = Math.max(1, poolSize);
+    if (newPoolSize == this.poolSize) {
+      return;
+    }
+
+    this.cancelAudits();
+    this.poolSize = newPoolSize;
+  }
+
+  /**
+   * Returns the number of files audited in parallel.
+   * 
+   * @return the number of files audited in parallel
+   */
+  public int getPoolSize() {
+    return this.poolSize;
+  }
+
+  /**
+   * Sets the RemoteConfigCache used to load configurations served over http(s) from disk.
+   * 
+   * @param remoteConfigCache the RemoteConfigCache to use, or null to always download them
+   */
+  public void setRemoteConfigCache(RemoteConfigCache remoteConfigCache) {
+    this.remoteConfigCache = remoteConfigCache;
+  }
+
+  /**
+   * Sets the ResultCache used to skip auditing files that have not changed.
+   * 
+   * @param resultCache the ResultCache to use, or null to always audit every file
+   */
+  public void setResultCache(ResultCache resultCache) {
+    synchronized (this.checkerLock) {
+      if (this.resultCacheRecorder != null) {
+        this.forEachCheckerPool(pool -> pool.removeListener(this.resultCacheRecorder));
+      }
+
+      this.resultCache = resultCache;
+      this.resultCacheRecorder = null;
+
+      if (resultCache != null) {
+        this.resultCacheRecorder = new ResultCacheRecorder(resultCache);
+        this.forEachCheckerPool(pool -> pool.addListener(this.resultCacheRecorder));
+      }
+    }
+  }
+
+  /**
+   * Sets the strategy deciding how urgently each requested file is audited.
+   * 
+   * @param auditPrioritizer the strategy to prioritize files with
+   */
+  public void setAuditPrioritizer(AuditPrioritizer auditPrioritizer) {
+    this.auditPrioritizer = auditPrioritizer;
+  }
+
+  /**
+   * Sets how long a single file may take to check before it is reported and deferred.
+   * Checkstyle cannot stop a file once it has started, so a file over the budget is finished,
+   * and then checked after every other file from then on, so it never holds up other files.
+   * Files over the budget are never cached, so they are checked again on every audit,
+   * and the budget is not part of the key of the ResultCache.
+   * 
+   * @param fileTimeBudgetMillis the time budget per file in milliseconds, or 0 for no budget
+   */
+  public void setFileTimeBudget(long fileTimeBudgetMillis) {
+    this.auditBudget.setFileTimeBudgetMillis(fileTimeBudgetMillis);
+  }
+
+  /**
+   * Sets the size of the largest file that is checked.
+   * Larger files are reported in the overview instead of being checked.
+   * 
+   * @param maxFileSize the size limit in bytes, or 0 for no limit
+   */
+  public void setMaxFileSize(long maxFileSize) {
+    this.auditBudget.setMaxFileSize(maxFileSize);
+  }
+
+  /**
+   * Returns the charset of the files in the last requested audit.
+   * 
+   * @return the charset of the files in the last requested audit
+   */
+  public String getLastCharset() {
+    return this.lastCharset;
+  }
+
+  /**
+   * Returns the live metrics of the audits run by this service.
+   * 
+   * @return the live metrics of the audits run by this service
+   */
+  public AuditMetrics getAuditMetrics() {
+    return this.auditMetrics;
+  }
+
   @Override
   public void enable() {
     this.enabled = true;
@@ -56,20 +323,388 @@ public class CheckerService implements ICheckerService {
     return this.enabled;
   }
 
+  /**
+   * Downloads the remote configurations among the given ones that have no local copy yet,
+   * in the background. Setting a remote configuration without a local copy downloads it on
+   * the calling thread, so this is used first on the JavaFX thread.
+   *
+   * @param configPaths the paths to the configuration files about to be set
+   *
+   * @return a CompletableFuture completing when every download is done, already completed if
+   *     nothing has to be downloaded, or completing exceptionally with the IOException if a
+   *     configuration could not be downloaded
+   */
+  public CompletableFuture<Void> downloadConfigurationsAsync(Collection<String> configPaths) {
+    RemoteConfigCache currentRemoteConfigCache = this.remoteConfigCache;
+    if (currentRemoteConfigCache == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    List<String> configPathsToDownload = new ArrayList<>();
+    for (String configPath : configPaths) {
+      if (!currentRemoteConfigCache.hasLocalCopy(configPath)) {
+        configPathsToDownload.add(configPath);
+      }
+    }
+    if (configPathsToDownload.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return CompletableFuture.runAsync(() -> {
+      for (String configPath : configPathsToDownload) {
+        try {
+          currentRemoteConfigCache.resolve(configPath);
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }
+    }, this.prewarmExecutor);
+  }
+
   /**
    * Configures Checkstyle to use given configuration.
+   * Any audit using the previous configuration is cancelled first,
+   * while audits of projects with a configuration of their own keep running.
+   * Recently used configurations are cached, so switching back to one is almost instant.
    * 
    * @param configPath the path to the configuration file to use
    * 
    * @throws CheckstyleException if an error condition within Checkstyle occurs.
    */
   public void setConfiguration(String configPath) throws CheckstyleException {
-    Properties checkstyleProperties = new Properties();
-    this.initChecker(); // re init checker to prevent using two configs
-    this.checker.configure(ConfigurationLoader.loadConfiguration(
-        configPath,
-        new PropertiesExpander(checkstyleProperties)
-    ));
+    this.cancelSelectedConfigurationAudits();
+    this.useConfiguration(this.loadConfiguration(configPath));
+  }
+
+  /**
+   * Configures Checkstyle to check with several configurations at once.
+   * Each file is read and parsed once, and checked by the checks of every configuration.
+   * The module id of every violation is tagged with the name of its configuration,
+   * like "Google/LineLength".
+   * 
+   * @param namedConfigPaths the paths to the configuration files to use, by name
+   * 
+   * @throws CheckstyleException if an error condition within Checkstyle occurs.
+   */
+  public void setConfigurations(Map<String, String> namedConfigPaths) throws CheckstyleException {
+    this.cancelSelectedConfigurationAudits();
+
+    Map<String, String> sortedConfigPaths = new TreeMap<>(namedConfigPaths);
+    String mergedConfigPath = CompiledConfiguration.getMergedConfigPath(sortedConfigPaths);
+    CompiledConfiguration mergedConfiguration = this.configurationCache.get(mergedConfigPath);
+    if (mergedConfiguration == null) {
+      Map<String, CompiledConfiguration> namedConfigurations = new LinkedHashMap<>();
+      for (Map.Entry<String, String> namedConfigPath : sortedConfigPaths.entrySet()) {
+        namedConfigurations.put(
+            namedConfigPath.getKey(),
+            this.loadConfiguration(namedConfigPath.getValue())
+        );
+      }
+      mergedConfiguration = CompiledConfiguration.merge(namedConfigurations, mergedConfigPath);
+    }
+    this.useConfiguration(mergedConfiguration);
+  }
+
+  /**
+   * Returns a loaded configuration, from the configuration cache if it is up to date.
+   * A remote configuration without a local copy is downloaded first, on the calling thread,
+   * see {@link #downloadConfigurationsAsync(Collection)}.
+   * 
+   * @param configPath the path to the configuration file
+   * 
+   * @return the loaded configuration
+   * 
+   * @throws CheckstyleException if the configuration could not be loaded
+   */
+  private CompiledConfiguration loadConfiguration(String configPath) throws CheckstyleException {
+    String localConfigPath = configPath;
+    RemoteConfigCache currentRemoteConfigCache = this.remoteConfigCache;
+    if (currentRemoteConfigCache != null) {
+      try {
+        localConfigPath = currentRemoteConfigCache.resolve(configPath);
+      } catch (IOException e) {
+        throw new CheckstyleException("Unable to download " + configPath, e);
+      }
+    }
+
+    CompiledConfiguration loadedConfiguration = this.configurationCache.get(localConfigPath);
+    if (loadedConfiguration == null) {
+      loadedConfiguration = CompiledConfiguration.load(localConfigPath);
+    }
+    return loadedConfiguration;
+  }
+
+  /**
+   * Makes a loaded configuration the one audits are run with.
+   * The checkers are configured right away, so an invalid configuration is reported here.
+   * That needs no lock, since no audit uses the configuration yet, and the configuration
+   * is then installed by the next audit, so this never waits for a running audit.
+   * 
+   * @param loadedConfiguration the configuration to use
+   * 
+   * @throws CheckstyleException if the checkers could not be configured
+   */
+  private void useConfiguration(
+      CompiledConfiguration loadedConfiguration
+  ) throws CheckstyleException {
+    loadedConfiguration.prepareCheckerPool(this.poolSize, this::createChecker);
+    this.configurationCache.put(loadedConfiguration);
+    this.selectedConfiguration = loadedConfiguration;
+  }
+
+  /**
+   * Installs the configuration set last, unless it already is.
+   * Must be called while holding the checker lock, so no audit is using the previous one,
+   * which may have its checkers released when it is unpinned.
+   */
+  private void installSelectedConfiguration() {
+    CompiledConfiguration selected = this.selectedConfiguration;
+    if (selected != null && selected != this.compiledConfiguration) {
+      this.configurationCache.put(selected);
+      this.configurationCache.pin(selected);
+      this.compiledConfiguration = selected;
+      this.compiledConfigurationKey = selected.getConfigPath();
+    }
+  }
+
+  /**
+   * Returns the key of the configuration set last, which the next audits are run with.
+   * Remote configurations are keyed by the path they were downloaded to, and several
+   * configurations checked at once by the combination of their paths.
+   *
+   * @return the key of the selected configuration, or null if none is set
+   */
+  public String getSelectedConfigurationKey() {
+    CompiledConfiguration selected = this.selectedConfiguration;
+    return selected != null ? selected.getConfigPath() : null;
+  }
+
+  /**
+   * Returns the key of the configuration a file is being checked with.
+   * Lets listeners tell the results of an audit apart from those of an audit started after
+   * the configuration was changed. Must be called while the file is being checked.
+   *
+   * @param fileName the absolute path of the file
+   *
+   * @return the key of the configuration in use, like {@link #getSelectedConfigurationKey()},
+   *     or null if the file is checked with a configuration of its project
+   */
+  public String getAuditedConfigurationKey(String fileName) {
+    return this.usesProjectConfiguration(fileName) ? null : this.compiledConfigurationKey;
+  }
+
+  /**
+   * Loads the given configurations into the configuration cache in the background.
+   * Configurations that fail to load are skipped, and reported once they are used.
+   * 
+   * @param configPaths the paths to the configuration files to load
+   */
+  public void prewarmConfigurations(Collection<String> configPaths) {
+    List<String> configPathsToLoad = List.copyOf(configPaths);
+    this.prewarmExecutor.execute(() -> {
+      for (String configPath : configPathsToLoad) {
+        try {
+          this.precompileConfiguration(configPath);
+        } catch (CheckstyleException e) {
+          LOGGER.log(Level.INFO, "Could not pre-load configuration " + configPath, e);
+        }
+      }
+    });
+  }
+
+  /**
+   * Loads the given configuration into the configuration cache in the background,
+   * reporting whether it could be loaded.
+   * Used to validate a configuration before it is used, so using it later is instant.
+   * 
+   * @param configPath the path to the configuration file to load
+   * 
+   * @return a CompletableFuture completing when the configuration is loaded,
+   *     or completing exceptionally with the CheckstyleException if it is invalid
+   */
+  public CompletableFuture<Void> validateConfigurationAsync(String configPath) {
+    return CompletableFuture.runAsync(() -> {
+      try {
+        this.precompileConfiguration(configPath);
+      } catch (CheckstyleException e) {
+        throw new CompletionException(e);
+      }
+    }, this.prewarmExecutor);
+  }
+
+  /**
+   * Loads a configuration and configures its checkers, and adds it to the configuration cache.
+   * 
+   * @param configPath the path to the configuration file to load
+   * 
+   * @throws CheckstyleException if the configuration could not be loaded or configured
+   */
+  private void precompileConfiguration(String configPath) throws CheckstyleException {
+    CompiledConfiguration loadedConfiguration = this.loadConfiguration(configPath);
+    loadedConfiguration.prepareCheckerPool(this.poolSize, this::createChecker);
+    this.configurationCache.put(loadedConfiguration);
+  }
+
+
+  /**
+   * Records that a package of a project was opened, which opens the project if it was closed.
+   * A project with a checkstyle.xml file in its root directory is audited with that
+   * configuration from then on, instead of the one selected in the preferences.
+   * 
+   * @param projectDirectory the root directory of the project
+   */
+  public void packageOpened(File projectDirectory) {
+    Path projectPath = projectDirectory.toPath().toAbsolutePath();
+    ProjectContext projectContext = this.projectContexts.get(projectPath);
+    if (projectContext == null) {
+      projectContext = new ProjectContext(
+          projectDirectory,
+          this.loadProjectConfiguration(projectDirectory)
+      );
+      this.projectContexts.put(projectPath, projectContext);
+    }
+    projectContext.packageOpened();
+  }
+
+  /**
+   * Records that a package of a project is being closed, which closes the project if it was
+   * the last open package. Closing a project cancels its audits right away, and schedules its
+   * checkers to be released and its cached results to be dropped from memory on the audit
+   * thread, so the caller never waits for a running audit.
+   * 
+   * @param projectDirectory the root directory of the project
+   * 
+   * @return true if the project was closed
+   */
+  public boolean packageClosing(File projectDirectory) {
+    Path projectPath = projectDirectory.toPath().toAbsolutePath();
+    ProjectContext projectContext = this.projectContexts.get(projectPath);
+    if (projectContext == null || !projectContext.packageClosed()) {
+      return false;
+    }
+
+    this.projectContexts.remove(projectPath);
+    this.cancelAudits(projectDirectory);
+    this.auditBudget.evictProject(projectContext);
+    // not a pending audit, so it is never cancelled, and runs before any waiting audit
+    AuditTask closeTask = new AuditTask(List.of(), AuditPriority.EDITED, () -> {
+      this.closeProject(projectDirectory, projectContext);
+      return null;
+    });
+    try {
+      this.auditExecutor.execute(closeTask);
+    } catch (RejectedExecutionException e) {
+      // shut down, which releases every checker anyway
+      LOGGER.log(Level.FINE, "Could not release the checkers of " + projectDirectory, e);
+    }
+    return true;
+  }
+
+  /**
+   * Releases the checkers of a closed project and drops its cached results from memory.
+   * Runs on the audit thread, once a running audit of the project has stopped.
+   * 
+   * @param projectDirectory the root directory of the project
+   * @param projectContext the audit context of the project
+   */
+  private void closeProject(File projectDirectory, ProjectContext projectContext) {
+    synchronized (this.checkerLock) {
+      if (projectContext.hasProjectConfiguration()) {
+        projectContext.getProjectConfiguration().release();
+      }
+      if (this.resultCache != null) {
+        this.resultCache.unloadProject(projectDirectory);
+      }
+    }
+  }
+
+  /**
+   * Returns whether a project is audited with a configuration of its own.
+   * 
+   * @param projectDirectory the root directory of the project
+   * 
+   * @return true if the project has a checkstyle.xml file that is used instead of
+   *     the configuration selected in the preferences
+   */
+  public boolean hasProjectConfiguration(File projectDirectory) {
+    ProjectContext projectContext = this.projectContexts.get(
+        projectDirectory.toPath().toAbsolutePath()
+    );
+    return projectContext != null && projectContext.hasProjectConfiguration();
+  }
+
+  /**
+   * Returns whether a file is audited with the configuration of its project.
+   * 
+   * @param fileName the absolute path of the file
+   * 
+   * @return true if the file is audited with a configuration of its own project, instead of
+   *     the configuration selected in the preferences
+   */
+  public boolean usesProjectConfiguration(String fileName) {
+    ProjectContext projectContext = this.getProjectContext(new File(fileName));
+    return projectContext != null && projectContext.hasProjectConfiguration();
+  }
+
+  /**
+   * Loads the configuration file of a project, if it has one.
+   * The configuration is not shared through the configuration cache, so its checkers
+   * can be released as soon as the project is closed.
+   * 
+   * @param projectDirectory the root directory of the project
+   * 
+   * @return the configuration of the project, or null if it has none or it is invalid
+   */
+  private CompiledConfiguration loadProjectConfiguration(File projectDirectory) {
+    File configFile = new File(projectDirectory, PROJECT_CONFIG_FILE_NAME);
+    if (!configFile.isFile()) {
+      return null;
+    }
+
+    try {
+      CompiledConfiguration projectConfiguration = CompiledConfiguration.load(
+          configFile.getAbsolutePath()
+      );
+      LOGGER.info("Checking " + projectDirectory + " with " + configFile);
+      return projectConfiguration;
+    } catch (CheckstyleException e) {
+      LOGGER.log(Level.WARNING, "Could not load " + configFile + ", using the selected one", e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the context of the open project a file belongs to.
+   * 
+   * @param file the file to find the project of
+   * 
+   * @return the context of the project, or null if the file is not in an open project
+   */
+  private ProjectContext getProjectContext(File file) {
+    Path filePath = file.toPath().toAbsolutePath();
+    for (ProjectContext projectContext : this.projectContexts.values()) {
+      if (projectContext.contains(filePath)) {
+        return projectContext;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the configuration a file is audited with.
+   * Must be called while holding the checker lock.
+   * 
+   * @param file the file to audit
+   * 
+   * @return the configuration of the project of the file if it has one, else the selected
+   *     configuration, or null if none has been set
+   */
+  private CompiledConfiguration getConfiguration(File file) {
+    ProjectContext projectContext = this.getProjectContext(file);
+    if (projectContext != null && projectContext.hasProjectConfiguration()) {
+      return projectContext.getProjectConfiguration();
+    }
+    return this.compiledConfiguration;
   }
 
   /**
@@ -78,8 +713,10 @@ public class CheckerService implements ICheckerService {
    * @param listener the AuditListener to add to the Checker.
    */
   public void addListener(AuditListener listener) {
-    this.listeners.add(listener);
-    this.checker.addListener(listener);
+    synchronized (this.checkerLock) {
+      this.listeners.add(listener);
+      this.forEachCheckerPool(pool -> pool.addListener(listener));
+    }
   }
 
   /**
@@ -88,45 +725,648 @@ public class CheckerService implements ICheckerService {
    * @param listener the AuditListener to remove from the Checker.
    */
   public void removeListener(AuditListener listener) {
-    this.listeners.remove(listener);
-    this.checker.removeListener(listener);
+    synchronized (this.checkerLock) {
+      this.listeners.remove(listener);
+      this.forEachCheckerPool(pool -> pool.removeListener(listener));
+    }
+  }
+
+  /**
+   * Requests a single file to be checked using Checkstyle.
+   * The file is checked in the background, see {@link #checkFileAsync(File, String)}.
+   * 
+   * @param fileToCheck a File to check with Checkstyle.
+   * @param charset the Files charset encoding.
+   */
+  public void checkFile(File fileToCheck, String charset) {
+    this.checkFileAsync(fileToCheck, charset);
+  }
+
+  /**
+   * Requests a list of files to be checked using Checkstyle.
+   * The files are checked in the background, see {@link #checkFilesAsync(List, String)}.
+   * 
+   * @param filesToCheck a List of Files to check with Checkstyle.
+   * @param charset the Files charset encoding.
+   */
+  public void checkFiles(List<File> filesToCheck, String charset) {
+    this.checkFilesAsync(filesToCheck, charset);
   }
 
   /**
-   * Checks a single file using Checkstyle.
+   * Schedules a single file to be checked on the audit thread.
    * 
    * @param fileToCheck a File to check with Checkstyle.
    * @param charset the Files charset encoding.
    * 
+   * @return a Future completing when the audit is done, which can be used to cancel it
+   */
+  public Future<Void> checkFileAsync(File fileToCheck, String charset) {
+    return this.checkFilesAsync(List.of(fileToCheck), charset);
+  }
+
+  /**
+   * Schedules a list of files to be checked on the audit thread.
+   * Audits are run one at a time, most urgent first, as decided by the AuditPrioritizer.
+   * Files of different priorities are audited separately, and background files in chunks,
+   * so a more urgent audit scheduled later can run in between.
+   * Files that went over the time budget are deferred, and audited one at a time after
+   * every other file, so they never hold up the files scheduled with them.
+   * Files of different projects are audited separately as well, so the audits of one project
+   * can be cancelled without affecting another.
+   * Cancelling the returned Future stops the audit before the next file is processed.
+   * 
+   * @param filesToCheck a List of Files to check with Checkstyle.
+   * @param charset the Files charset encoding.
+   * 
+   * @return a Future completing when the audit is done, which can be used to cancel it
+   */
+  public Future<Void> checkFilesAsync(List<File> filesToCheck, String charset) {
+    this.lastCharset = charset;
+    // (priority, (project, files)), where files outside of open projects have no project
+    Map<AuditPriority, Map<ProjectContext, List<File>>> filesByPriority =
+        new EnumMap<>(AuditPriority.class);
+    for (File file : filesToCheck) {
+      filesByPriority
+          .computeIfAbsent(this.getPriority(file), priority -> new HashMap<>())
+          .computeIfAbsent(this.getProjectContext(file), projectContext -> new ArrayList<>())
+          .add(file);
+    }
+
+    // the progress of the whole request is tracked, not that of each of its audits
+    long progressRequest = this.auditMetrics.auditStarted(filesToCheck.size());
+    AtomicInteger remainingTasks = new AtomicInteger();
+    Runnable taskDone = () -> {
+      if (remainingTasks.decrementAndGet() == 0) {
+        this.auditMetrics.auditFinished(progressRequest);
+        this.scheduleResultCacheFlush();
+      }
+    };
+    List<AuditTask> auditTasks = new ArrayList<>();
+    filesByPriority.forEach((priority, filesByProject) -> {
+      for (List<File> files : filesByProject.values()) {
+        int chunkSize;
+        if (priority == AuditPriority.DEFERRED) {
+          chunkSize = 1;
+        } else if (priority == AuditPriority.BACKGROUND) {
+          chunkSize = BACKGROUND_CHUNK_SIZE;
+        } else {
+          chunkSize = files.size();
+        }
+        for (int start = 0; start < files.size(); start += chunkSize) {
+          List<File> chunk = List.copyOf(
+              files.subList(start, Math.min(start + chunkSize, files.size()))
+          );
+          auditTasks.add(new AuditTask(chunk, priority, () -> {
+            this.auditFiles(chunk, charset, false);
+            return null;
+          }, taskDone, progressRequest));
+        }
+      }
+    });
+
+    // every task must be counted before the first one can finish
+    remainingTasks.set(auditTasks.size());
+    if (auditTasks.isEmpty()) {
+      this.auditMetrics.auditFinished(progressRequest);
+    }
+    auditTasks.forEach(this::schedule);
+
+    return auditTasks.size() == 1 ? auditTasks.get(0) : new AuditGroup(auditTasks);
+  }
+
+  /**
+   * Schedules the unsaved text of a file to be checked on the audit thread.
+   * A check of an older text of the same file that has not finished yet is cancelled,
+   * since only the latest text is of interest.
+   * 
+   * @param fileToCheck the file the text belongs to
+   * @param text the current text of the file
+   * 
+   * @return a Future completing when the audit is done, which can be used to cancel it
+   */
+  public Future<Void> checkTextAsync(File fileToCheck, String text) {
+    AuditPriority priority = this.auditBudget.isDeferred(fileToCheck)
+        ? AuditPriority.DEFERRED
+        : AuditPriority.EDITED;
+    AuditTask auditTask = new AuditTask(List.of(fileToCheck), priority, () -> {
+      this.auditText(fileToCheck, text);
+      return null;
+    });
+
+    AuditTask replacedTask = this.pendingTextAudits.put(fileToCheck.getAbsolutePath(), auditTask);
+    if (replacedTask != null) {
+      replacedTask.cancel(false);
+    }
+    return this.schedule(auditTask);
+  }
+
+  private AuditPriority getPriority(File file) {
+    return this.auditBudget.isDeferred(file)
+        ? AuditPriority.DEFERRED
+        : this.auditPrioritizer.getPriority(file);
+  }
+
+  private AuditTask schedule(AuditTask auditTask) {
+    this.pendingAudits.add(auditTask);
+    this.auditMetrics.auditQueued();
+    this.auditExecutor.execute(auditTask);
+    return auditTask;
+  }
+
+  /**
+   * Schedules every module of the current configuration to be profiled on a thread of its own,
+   * so audits are not held up while it runs.
+   * Profiling audits the files once per module, so it takes much longer than a normal audit.
+   * A profile still running is cancelled, and so is this one if the returned future is.
+   * 
+   * @param filesToProfile the files to audit while profiling
+   * @param charset the Files charset encoding.
+   * 
+   * @return a future completing with the cost of every module, most expensive first
+   */
+  public CompletableFuture<List<ModuleCost>> profileConfigurationAsync(
+      List<File> filesToProfile,
+      String charset
+  ) {
+    this.cancelProfiling();
+    List<File> files = List.copyOf(filesToProfile);
+    CompletableFuture<List<ModuleCost>> moduleCosts = new CompletableFuture<>();
+    this.runningProfile = moduleCosts;
+    // profiles the configuration selected when it was scheduled, even if it changes meanwhile
+    CompiledConfiguration selected = this.selectedConfiguration;
+    try {
+      this.profileExecutor.execute(() -> {
+        try {
+          if (selected == null) {
+            moduleCosts.complete(List.of());
+            return;
+          }
+          moduleCosts.complete(new ModuleProfiler(
+              selected.getConfiguration(),
+              files,
+              charset,
+              moduleCosts::isDone
+          ).profile());
+        } catch (CheckstyleException | IOException | RuntimeException e) {
+          moduleCosts.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      moduleCosts.completeExceptionally(e);
+    }
+    return moduleCosts;
+  }
+
+  /**
+   * Cancels the running profile, if any. It stops once the file being audited is finished.
+   */
+  public void cancelProfiling() {
+    CompletableFuture<List<ModuleCost>> moduleCosts = this.runningProfile;
+    if (moduleCosts != null) {
+      moduleCosts.cancel(false);
+    }
+  }
+
+  /**
+   * Cancels every scheduled and running audit.
+   */
+  public void cancelAudits() {
+    this.pendingAudits.forEach(auditTask -> auditTask.cancel(false));
+  }
+
+  /**
+   * Cancels every scheduled and running audit that includes files in the given directory.
+   * 
+   * @param directory the directory to cancel audits for, typically a package being closed
+   */
+  public void cancelAudits(File directory) {
+    Path directoryPath = directory.toPath().toAbsolutePath();
+    this.pendingAudits.stream()
+        .filter(auditTask -> auditTask.includesFilesIn(directoryPath))
+        .forEach(auditTask -> auditTask.cancel(false));
+  }
+
+  /**
+   * Cancels every scheduled and running audit of files checked with the selected configuration.
+   * Audits of projects with a configuration of their own are left running.
+   */
+  private void cancelSelectedConfigurationAudits() {
+    this.pendingAudits.stream()
+        .filter(auditTask -> !auditTask.isOfProjectWithConfiguration())
+        .forEach(auditTask -> auditTask.cancel(false));
+  }
+
+  /**
+   * Cancels every audit and stops the audit thread.
+   */
+  public void shutdown() {
+    this.cancelAudits();
+    this.auditExecutor.shutdown();
+    this.prewarmExecutor.shutdownNow();
+    this.cancelProfiling();
+    this.profileExecutor.shutdown();
+    if (this.remoteConfigCache != null) {
+      this.remoteConfigCache.shutdown();
+    }
+    synchronized (this.checkerLock) {
+      this.forEachCheckerPool(CheckerPool::shutdown);
+      if (this.resultCache != null) {
+        this.resultCache.flush();
+      }
+    }
+  }
+
+  /**
+   * Checks a list of files using Checkstyle on the calling thread.
+   * Blocks until the audit is done.
+   * 
+   * @param filesToCheck a List of Files to check with Checkstyle.
+   * @param charset the Files charset encoding.
+   * 
    * @throws UnsupportedEncodingException if an unsupported encoding is used.
    * @throws CheckstyleException if an error condition within Checkstyle occurs.
    */
-  public void checkFile(
-      File fileToCheck,
+  public void auditFiles(
+      List<File> filesToCheck,
       String charset
   ) throws UnsupportedEncodingException, CheckstyleException {
-    if (this.enabled) {
-      this.checker.setCharset(charset);
-      this.checker.process(List.of(fileToCheck));
-    }
+    this.auditFiles(filesToCheck, charset, true);
   }
 
   /**
-   * Checks a list of files using Checkstyle.
+   * Checks a list of files using Checkstyle on the calling thread.
+   * The audits of a scheduled request only write the ResultCache once the request is done,
+   * so a project swept in chunks is not written to disk again for every chunk.
    * 
    * @param filesToCheck a List of Files to check with Checkstyle.
    * @param charset the Files charset encoding.
+   * @param flushResults whether to write the new results to disk once the files are checked
    * 
    * @throws UnsupportedEncodingException if an unsupported encoding is used.
    * @throws CheckstyleException if an error condition within Checkstyle occurs.
    */
-  public void checkFiles(
-      List<File> filesToCheck, 
+  private void auditFiles(
+      List<File> filesToCheck,
+      String charset,
+      boolean flushResults
+  ) throws UnsupportedEncodingException, CheckstyleException {
+    if (!this.enabled) {
+      return;
+    }
+
+    synchronized (this.checkerLock) {
+      this.installSelectedConfiguration();
+      // audits are scheduled per project, so there is usually a single configuration
+      Map<CompiledConfiguration, List<File>> filesByConfiguration = new LinkedHashMap<>();
+      for (File file : filesToCheck) {
+        CompiledConfiguration configuration = this.getConfiguration(file);
+        if (configuration != null) {
+          filesByConfiguration.computeIfAbsent(configuration, key -> new ArrayList<>()).add(file);
+        }
+      }
+      if (filesByConfiguration.isEmpty()) {
+        return;
+      }
+
+      try {
+        for (Map.Entry<CompiledConfiguration, List<File>> configurationFiles
+            : filesByConfiguration.entrySet()) {
+          this.auditWithConfiguration(
+              configurationFiles.getKey(),
+              configurationFiles.getValue(),
+              charset
+          );
+        }
+      } finally {
+        if (flushResults && this.resultCache != null) {
+          this.resultCache.flush();
+        }
+      }
+    }
+  }
+
+  /**
+   * Schedules the new results in the ResultCache to be written to disk on the audit thread,
+   * after the audits already waiting of the same priority.
+   * Not a pending audit, so it is never cancelled.
+   */
+  private void scheduleResultCacheFlush() {
+    AuditTask flushTask = new AuditTask(List.of(), AuditPriority.BACKGROUND, () -> {
+      synchronized (this.checkerLock) {
+        if (this.resultCache != null) {
+          this.resultCache.flush();
+        }
+      }
+      return null;
+    });
+    try {
+      this.auditExecutor.execute(flushTask);
+    } catch (RejectedExecutionException e) {
+      // shut down, which writes the results itself
+      LOGGER.log(Level.FINE, "Could not write the result cache", e);
+    }
+  }
+
+  /**
+   * Checks a list of files with a configuration, restoring unchanged files from the ResultCache.
+   * Must be called while holding the checker lock.
+   * 
+   * @param configuration the configuration to check the files with
+   * @param filesToCheck the files to check
+   * @param charset the Files charset encoding.
+   */
+  private void auditWithConfiguration(
+      CompiledConfiguration configuration,
+      List<File> filesToCheck,
       String charset
   ) throws UnsupportedEncodingException, CheckstyleException {
-    if (this.enabled) {
-      this.checker.setCharset(charset);
-      this.checker.process(filesToCheck);
+    CheckerPool checkerPool = configuration.getCheckerPool(this.poolSize, this::createChecker);
+    if (this.resultCache == null) {
+      checkerPool.process(filesToCheck, charset);
+      return;
+    }
+
+    List<File> filesToAudit = this.restoreCachedResults(configuration, filesToCheck, charset);
+    if (!filesToAudit.isEmpty()) {
+      checkerPool.process(filesToAudit, charset);
+    }
+  }
+
+  /**
+   * Checks the unsaved text of a file using Checkstyle on the calling thread.
+   * The result is not cached, since the text is not what is stored on disk.
+   * 
+   * @param fileToCheck the file the text belongs to
+   * @param text the current text of the file
+   * 
+   * @throws CheckstyleException if an error condition within Checkstyle occurs.
+   */
+  public void auditText(File fileToCheck, String text) throws CheckstyleException {
+    if (!this.enabled) {
+      return;
+    }
+
+    synchronized (this.checkerLock) {
+      this.installSelectedConfiguration();
+      CompiledConfiguration configuration = this.getConfiguration(fileToCheck);
+      if (configuration == null) {
+        return;
+      }
+
+      if (this.resultCacheRecorder != null) {
+        // a cancelled audit may have left the file expected with the hash of its saved contents
+        this.resultCacheRecorder.reset();
+      }
+      configuration.getCheckerPool(this.poolSize, this::createChecker)
+          .processText(fileToCheck, text);
+    }
+  }
+
+  /**
+   * Restores the results of every file that has a valid entry in the ResultCache.
+   * Restored results are passed directly to the CachedResultListeners.
+   * 
+   * @param configuration the configuration the files are checked with
+   * @param filesToCheck the files requested to be checked
+   * @param charset the Files charset encoding, which is part of the cache key
+   * 
+   * @return the files that could not be restored and still has to be audited
+   */
+  private List<File> restoreCachedResults(
+      CompiledConfiguration configuration,
+      List<File> filesToCheck,
+      String charset
+  ) {
+    // files over the time budget are never cached, so the budget is not part of the key
+    String fingerprint = ResultCache.hashStrings(configuration.getFingerprint(), charset);
+    this.resultCacheRecorder.reset(); // a cancelled audit may have left files unfinished
+    this.resultCacheRecorder.setFingerprint(fingerprint);
+    List<File> filesToAudit = new ArrayList<>();
+    int restoredCount = 0;
+
+    for (File file : filesToCheck) {
+      AuditTask auditTask = this.runningAudit;
+      if (auditTask != null && auditTask.isCancelled()) {
+        // nothing is audited either, the CancellationGuard would stop at the first file
+        filesToAudit.clear();
+        break;
+      }
+      if (this.auditBudget.isOversized(file)) {
+        // reported without being read, so neither hashed nor cached
+        filesToAudit.add(file);
+        continue;
+      }
+
+      String fileName = file.getAbsolutePath();
+      String contentHash = null;
+      try {
+        contentHash = ResultCache.hashFile(file);
+      } catch (IOException e) {
+        // let Checkstyle report the file as unreadable
+        filesToAudit.add(file);
+        continue;
+      }
+
+      List<ViolationRecord> cachedViolations = this.resultCache.get(
+          fileName,
+          contentHash,
+          fingerprint
+      );
+
+      if (cachedViolations == null) {
+        this.resultCacheRecorder.expect(fileName, contentHash);
+        filesToAudit.add(file);
+      } else {
+        for (AuditListener listener : this.listeners) {
+          if (listener instanceof CachedResultListener) {
+            ((CachedResultListener) listener).fileRestored(fileName, cachedViolations);
+          }
+        }
+        restoredCount++;
+      }
+    }
+
+    this.auditMetrics.filesRestored(restoredCount);
+    this.auditMetrics.filesDone(this.getProgressRequest(), restoredCount);
+    return filesToAudit;
+  }
+
+  /**
+   * Represents a scheduled audit of a list of files.
+   * Ordered by priority, and audits of the same priority in the order they were scheduled.
+   */
+  private final class AuditTask extends FutureTask<Void> implements Comparable<AuditTask> {
+    private final List<File> filesToCheck;
+    private final AuditPriority priority;
+    private final long sequence;
+    private final Runnable onDone; // run once the task is done or cancelled
+    private final long progressRequest; // the request the files count toward, 0 if none
+
+    private AuditTask(List<File> filesToCheck, AuditPriority priority, Callable<Void> audit) {
+      this(filesToCheck, priority, audit, () -> { }, 0);
+    }
+
+    private AuditTask(
+        List<File> filesToCheck,
+        AuditPriority priority,
+        Callable<Void> audit,
+        Runnable onDone,
+        long progressRequest
+    ) {
+      super(audit);
+      this.filesToCheck = filesToCheck;
+      this.priority = priority;
+      this.sequence = auditSequence.getAndIncrement();
+      this.onDone = onDone;
+      this.progressRequest = progressRequest;
+    }
+
+    @Override
+    public int compareTo(AuditTask other) {
+      int priorityOrder = this.priority.compareTo(other.priority);
+      return priorityOrder != 0 ? priorityOrder : Long.compare(this.sequence, other.sequence);
+    }
+
+    private boolean includesFilesIn(Path directory) {
+      return this.filesToCheck.stream()
+          .anyMatch(file -> file.toPath().toAbsolutePath().startsWith(directory));
+    }
+
+    private boolean isOfProjectWithConfiguration() {
+      return !this.filesToCheck.isEmpty() && this.filesToCheck.stream()
+          .allMatch(file -> usesProjectConfiguration(file.getAbsolutePath()));
+    }
+
+    @Override
+    public void run() {
+      runningAudit = this;
+      try {
+        super.run();
+      } finally {
+        runningAudit = null;
+      }
+    }
+
+    @Override
+    protected void done() {
+      if (pendingAudits.remove(this)) {
+        auditMetrics.auditDequeued();
+      }
+      pendingTextAudits.values().remove(this);
+      this.onDone.run();
+      if (this.isCancelled()) {
+        return;
+      }
+
+      try {
+        this.get();
+      } catch (ExecutionException e) {
+        LOGGER.log(Level.WARNING, "Checkstyle audit failed", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Represents an audit split into several AuditTasks, completing when all of them are done.
+   */
+  private static final class AuditGroup implements Future<Void> {
+    private final List<AuditTask> auditTasks;
+
+    private AuditGroup(List<AuditTask> auditTasks) {
+      this.auditTasks = auditTasks;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = false;
+      for (AuditTask auditTask : this.auditTasks) {
+        cancelled |= auditTask.cancel(mayInterruptIfRunning);
+      }
+      return cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return this.auditTasks.stream().anyMatch(AuditTask::isCancelled);
+    }
+
+    @Override
+    public boolean isDone() {
+      return this.auditTasks.stream().allMatch(AuditTask::isDone);
+    }
+
+    @Override
+    public Void get() throws InterruptedException, ExecutionException {
+      for (AuditTask auditTask : this.auditTasks) {
+        auditTask.get();
+      }
+      return null;
+    }
+
+    @Override
+    public Void get(
+        long timeout,
+        TimeUnit unit
+    ) throws InterruptedException, ExecutionException, TimeoutException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      for (AuditTask auditTask : this.auditTasks) {
+        auditTask.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Returns the request the files of the running audit count toward.
+   *
+   * @return the id of the request, or 0 if its progress is not tracked, or nothing is running
+   */
+  private long getProgressRequest() {
+    AuditTask auditTask = this.runningAudit;
+    return auditTask != null ? auditTask.progressRequest : 0;
+  }
+
+  /**
+   * Represents an AuditListener that aborts the running audit once it has been cancelled.
+   * Checkstyle offers no way to stop an audit, so the guard throws when the next file starts,
+   * which makes the Checker abandon the remaining files.
+   * Every finished file is counted toward the progress of the request of the running audit.
+   */
+  private final class CancellationGuard implements AuditListener {
+    @Override
+    public void fileStarted(AuditEvent auditEvent) {
+      AuditTask auditTask = runningAudit;
+      if (auditTask != null && auditTask.isCancelled()) {
+        throw new CancellationException("Audit was cancelled");
+      }
+    }
+
+    @Override
+    public void auditStarted(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void auditFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void fileFinished(AuditEvent auditEvent) {
+      auditMetrics.filesDone(getProgressRequest(), 1);
+    }
+
+    @Override
+    public void addError(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void addException(AuditEvent auditEvent, Throwable throwable) {
+      // do nothing
     }
   }
 }
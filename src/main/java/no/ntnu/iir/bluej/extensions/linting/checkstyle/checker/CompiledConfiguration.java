@@ -0,0 +1,334 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Represents a loaded Checkstyle configuration, ready to be audited with.
+ * Holds the parsed Configuration, its fingerprint and, once requested,
+ * a CheckerPool configured with it, so switching back to it needs no parsing.
+ * A configuration may also be merged from several others, see {@link ConfigurationMerger}.
+ * Files referenced by the configuration, like suppressions or headers, are part of it:
+ * changing one changes the fingerprint, and makes the configuration out of date.
+ * The CheckerPool may be prepared on any thread, while only audits holding the checker lock
+ * of the CheckerService use it or replace it.
+ */
+class CompiledConfiguration {
+  private static final Logger LOGGER = Logger.getLogger(CompiledConfiguration.class.getName());
+  // properties naming a file the modules read when configured, but not the cacheFile they write
+  private static final Set<String> FILE_PROPERTIES = Set.of("file", "headerFile");
+
+  private final String configPath;
+  private final long modificationTime;
+  private final Map<String, Long> referencedFiles; // (path, modification time)
+  private final Configuration configuration;
+  private final String fingerprint;
+  private final List<CompiledConfiguration> mergedConfigurations;
+  private CheckerPool checkerPool;
+
+  private CompiledConfiguration(
+      String configPath,
+      long modificationTime,
+      Map<String, Long> referencedFiles,
+      Configuration configuration,
+      String fingerprint,
+      List<CompiledConfiguration> mergedConfigurations
+  ) {
+    this.configPath = configPath;
+    this.modificationTime = modificationTime;
+    this.referencedFiles = referencedFiles;
+    this.configuration = configuration;
+    this.fingerprint = fingerprint;
+    this.mergedConfigurations = mergedConfigurations;
+  }
+
+  /**
+   * Loads and parses a configuration file.
+   *
+   * @param configPath the path or URL of the configuration file
+   *
+   * @return the loaded configuration
+   *
+   * @throws CheckstyleException if the configuration could not be loaded
+   */
+  static CompiledConfiguration load(String configPath) throws CheckstyleException {
+    long modificationTime = getModificationTime(configPath);
+    Configuration configuration = ConfigurationLoader.loadConfiguration(
+        configPath,
+        new PropertiesExpander(new Properties())
+    );
+    // the times are taken before the contents are read, so a change meanwhile is not missed
+    Map<String, Long> referencedFiles = new LinkedHashMap<>();
+    for (String referencedFile : getReferencedFiles(configuration)) {
+      referencedFiles.put(referencedFile, getModificationTime(referencedFile));
+    }
+    return new CompiledConfiguration(
+        configPath,
+        modificationTime,
+        referencedFiles,
+        configuration,
+        fingerprintConfiguration(configPath, referencedFiles.keySet()),
+        List.of()
+    );
+  }
+
+  /**
+   * Merges several loaded configurations into one, so each file is parsed once for all of them.
+   *
+   * @param namedConfigurations the configurations to merge, by name
+   * @param mergedConfigPath the path to cache the merged configuration by,
+   *     see {@link #getMergedConfigPath(Map)}
+   *
+   * @return the merged configuration
+   *
+   * @throws CheckstyleException if the configurations could not be merged
+   */
+  static CompiledConfiguration merge(
+      Map<String, CompiledConfiguration> namedConfigurations,
+      String mergedConfigPath
+  ) throws CheckstyleException {
+    Map<String, Configuration> configurations = new LinkedHashMap<>();
+    List<String> fingerprintParts = new ArrayList<>();
+    for (Map.Entry<String, CompiledConfiguration> namedConfiguration
+        : namedConfigurations.entrySet()) {
+      configurations.put(namedConfiguration.getKey(), namedConfiguration.getValue().configuration);
+      fingerprintParts.add(namedConfiguration.getKey());
+      fingerprintParts.add(namedConfiguration.getValue().fingerprint);
+    }
+
+    return new CompiledConfiguration(
+        mergedConfigPath,
+        0,
+        Map.of(),
+        ConfigurationMerger.merge(configurations),
+        ResultCache.hashStrings(fingerprintParts.toArray(new String[0])),
+        List.copyOf(namedConfigurations.values())
+    );
+  }
+
+  /**
+   * Returns the path a merged configuration is cached by.
+   *
+   * @param namedConfigPaths the paths of the merged configurations, by name
+   *
+   * @return the path of the merged configuration, which is not a file
+   */
+  static String getMergedConfigPath(Map<String, String> namedConfigPaths) {
+    return "merged:" + namedConfigPaths.toString();
+  }
+
+  /**
+   * Returns the time a configuration file was last modified.
+   * Configurations that are not plain files, like the built-in ones, never change.
+   *
+   * @param configPath the path or URL of the configuration file
+   *
+   * @return the time the file was last modified, or 0 if it is not a plain file
+   */
+  static long getModificationTime(String configPath) {
+    File configFile = new File(configPath);
+    if (configFile.isFile()) {
+      return configFile.lastModified();
+    }
+
+    try {
+      URI configUri = new URI(configPath);
+      if ("file".equals(configUri.getScheme())) {
+        return new File(configUri).lastModified();
+      }
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      // not a file URI
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the files referenced by the modules of a configuration, like suppressions files,
+   * import control files and headers, as they are named once the properties are expanded.
+   *
+   * @param configuration the loaded configuration
+   *
+   * @return the paths or URLs of the referenced files, in the order they appear
+   */
+  static List<String> getReferencedFiles(Configuration configuration) {
+    List<String> referencedFiles = new ArrayList<>();
+    addReferencedFiles(configuration, referencedFiles);
+    return referencedFiles;
+  }
+
+  private static void addReferencedFiles(Configuration module, List<String> referencedFiles) {
+    for (String propertyName : module.getPropertyNames()) {
+      if (FILE_PROPERTIES.contains(propertyName)) {
+        try {
+          String fileName = module.getProperty(propertyName);
+          if (fileName != null && !fileName.isBlank() && !referencedFiles.contains(fileName)) {
+            referencedFiles.add(fileName);
+          }
+        } catch (CheckstyleException e) {
+          // not set, so nothing is referenced
+        }
+      }
+    }
+    for (Configuration child : module.getChildren()) {
+      addReferencedFiles(child, referencedFiles);
+    }
+  }
+
+  /**
+   * Computes a fingerprint of a configuration.
+   * The fingerprint changes whenever the configuration file, a file it references or the
+   * Checkstyle version changes, which invalidates every result cached with the previous
+   * configuration. A referenced file that is missing, like an optional suppressions file,
+   * is fingerprinted as empty, so creating it changes the fingerprint too.
+   *
+   * @param configPath the path or URL of the configuration file
+   * @param referencedFiles the paths or URLs of the files referenced by the configuration
+   *
+   * @return the fingerprint of the configuration
+   */
+  private static String fingerprintConfiguration(
+      String configPath,
+      Collection<String> referencedFiles
+  ) {
+    List<String> fingerprintParts = new ArrayList<>();
+    fingerprintParts.add(configPath);
+    try (InputStream inputStream = openConfiguration(configPath)) {
+      fingerprintParts.add(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // fall back to fingerprinting the path only
+      LOGGER.log(Level.FINE, "Could not read configuration " + configPath, e);
+      fingerprintParts.add("");
+    }
+    fingerprintParts.add(Checker.class.getPackage().getImplementationVersion());
+
+    for (String referencedFile : referencedFiles) {
+      fingerprintParts.add(referencedFile);
+      fingerprintParts.add(readReferencedFile(referencedFile));
+    }
+    return ResultCache.hashStrings(fingerprintParts.toArray(new String[0]));
+  }
+
+  private static String readReferencedFile(String fileName) {
+    try (InputStream inputStream = CommonUtil.getUriByFilename(fileName).toURL().openStream()) {
+      return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (CheckstyleException | IOException e) {
+      return "";
+    }
+  }
+
+  private static InputStream openConfiguration(String configPath) throws IOException {
+    File configFile = new File(configPath);
+    if (configFile.isFile()) {
+      return Files.newInputStream(configFile.toPath());
+    }
+    return new URL(configPath).openStream();
+  }
+
+  /**
+   * Returns whether this is still the current version of the configuration file.
+   *
+   * @return true if the file, the files it references, or any merged file,
+   *     have not been modified since it was loaded
+   */
+  boolean isUpToDate() {
+    return this.modificationTime == getModificationTime(this.configPath)
+        && this.referencedFiles.entrySet().stream()
+            .allMatch(file -> file.getValue() == getModificationTime(file.getKey()))
+        && this.mergedConfigurations.stream().allMatch(CompiledConfiguration::isUpToDate);
+  }
+
+  String getConfigPath() {
+    return this.configPath;
+  }
+
+  Configuration getConfiguration() {
+    return this.configuration;
+  }
+
+  String getFingerprint() {
+    return this.fingerprint;
+  }
+
+  /**
+   * Returns the CheckerPool for this configuration, creating it if needed.
+   * A pool of a different size is replaced.
+   *
+   * @param poolSize the number of checkers in the pool
+   * @param checkerFactory the factory used to create each configured Checker
+   *
+   * @return a CheckerPool configured with this configuration
+   *
+   * @throws CheckstyleException if a Checker could not be configured
+   */
+  synchronized CheckerPool getCheckerPool(
+      int poolSize,
+      CheckerPool.CheckerFactory checkerFactory
+  ) throws CheckstyleException {
+    if (this.checkerPool != null && this.checkerPool.size() != poolSize) {
+      this.release();
+    }
+
+    if (this.checkerPool == null) {
+      this.checkerPool = new CheckerPool(poolSize, this.configuration, checkerFactory);
+    }
+    return this.checkerPool;
+  }
+
+  /**
+   * Returns the CheckerPool for this configuration, if it has been created.
+   *
+   * @return the CheckerPool for this configuration, or null
+   */
+  synchronized CheckerPool getCheckerPool() {
+    return this.checkerPool;
+  }
+
+  /**
+   * Creates the CheckerPool for this configuration if it has none yet.
+   * An existing pool is never replaced, since it may be in use by an audit.
+   *
+   * @param poolSize the number of checkers in the pool
+   * @param checkerFactory the factory used to create each configured Checker
+   *
+   * @throws CheckstyleException if a Checker could not be configured
+   */
+  synchronized void prepareCheckerPool(
+      int poolSize,
+      CheckerPool.CheckerFactory checkerFactory
+  ) throws CheckstyleException {
+    if (this.checkerPool == null) {
+      this.checkerPool = new CheckerPool(poolSize, this.configuration, checkerFactory);
+    }
+  }
+
+  /**
+   * Releases the CheckerPool of this configuration.
+   */
+  synchronized void release() {
+    if (this.checkerPool != null) {
+      this.checkerPool.shutdown();
+      this.checkerPool = null;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a bounded cache of loaded configurations.
+ * Entries are keyed by configuration path and invalidated when the file is modified.
+ * When the cache is full, the least recently used entry is evicted and its checkers released,
+ * except for the configuration currently in use.
+ */
+class ConfigurationCache {
+  private final int maxEntries;
+  private final LinkedHashMap<String, CompiledConfiguration> entries; // (config path, entry)
+  private CompiledConfiguration pinned;
+
+  /**
+   * Constructs a new ConfigurationCache.
+   *
+   * @param maxEntries the maximum number of configurations to keep loaded
+   */
+  ConfigurationCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true); // access order, for LRU eviction
+  }
+
+  /**
+   * Returns the cached configuration for a path, if it is still up to date.
+   *
+   * @param configPath the path or URL of the configuration file
+   *
+   * @return the cached configuration, or null if there is no up to date entry
+   */
+  synchronized CompiledConfiguration get(String configPath) {
+    CompiledConfiguration compiledConfiguration = this.entries.get(configPath);
+    if (compiledConfiguration != null && !compiledConfiguration.isUpToDate()) {
+      this.entries.remove(configPath);
+      this.releaseUnlessPinned(compiledConfiguration);
+      compiledConfiguration = null;
+    }
+    return compiledConfiguration;
+  }
+
+  /**
+   * Adds a configuration to the cache, evicting the least recently used entries if needed.
+   *
+   * @param compiledConfiguration the configuration to add
+   */
+  synchronized void put(CompiledConfiguration compiledConfiguration) {
+    CompiledConfiguration previous = this.entries.put(
+        compiledConfiguration.getConfigPath(),
+        compiledConfiguration
+    );
+    if (previous != null && previous != compiledConfiguration) {
+      this.releaseUnlessPinned(previous);
+    }
+
+    Iterator<CompiledConfiguration> iterator = this.entries.values().iterator();
+    while (this.entries.size() > this.maxEntries && iterator.hasNext()) {
+      CompiledConfiguration eldest = iterator.next();
+      if (eldest != this.pinned && eldest != compiledConfiguration) {
+        iterator.remove();
+        eldest.release();
+      }
+    }
+  }
+
+  /**
+   * Pins a configuration, so it is never evicted or released while in use.
+   *
+   * @param compiledConfiguration the configuration in use
+   */
+  synchronized void pin(CompiledConfiguration compiledConfiguration) {
+    CompiledConfiguration previous = this.pinned;
+    this.pinned = compiledConfiguration;
+    if (previous != null && previous != compiledConfiguration
+        && this.entries.get(previous.getConfigPath()) != previous) {
+      // the previous configuration was dropped from the cache while pinned
+      previous.release();
+    }
+  }
+
+  /**
+   * Returns every cached configuration.
+   *
+   * @return a snapshot of every cached configuration
+   */
+  synchronized List<CompiledConfiguration> values() {
+    return new ArrayList<>(this.entries.values());
+  }
+
+  private void releaseUnlessPinned(CompiledConfiguration compiledConfiguration) {
+    if (compiledConfiguration != this.pinned) {
+      compiledConfiguration.release();
+    }
+  }
+}
@@ -0,0 +1,338 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Represents a merger of several configurations into one, so they can be audited together.
+ * The checks of every TreeWalker are moved into a single TreeWalker, so each file is read
+ * and parsed once no matter how many configurations it is checked with.
+ * Every module gets an id tagged with the name of its configuration, like "Google/LineLength",
+ * so the violations of each configuration can be told apart.
+ * Filters apply to the violations of every configuration, so the ids they suppress, including
+ * those in suppressions files, are tagged the same way, and only match their own configuration.
+ * The root and TreeWalker settings, like tabWidth, are taken from the first configuration,
+ * and a warning is logged for every setting of another configuration that is ignored.
+ */
+final class ConfigurationMerger {
+  private static final Logger LOGGER = Logger.getLogger(ConfigurationMerger.class.getName());
+  private static final String TREE_WALKER = "TreeWalker";
+  private static final String SEVERITY = "severity";
+  private static final String ID = "id";
+  private static final String ID_FORMAT = "idFormat";
+  private static final String FILE = "file";
+  // filters whose id property is the id of the modules to suppress, not an id of their own
+  private static final Set<String> SINGLE_FILTERS = Set.of(
+      "SuppressionSingleFilter",
+      "SuppressionXpathSingleFilter"
+  );
+  // filters reading the ids of the modules to suppress from a suppressions file
+  private static final Set<String> FILE_FILTERS = Set.of(
+      "SuppressionFilter",
+      "SuppressionXpathFilter"
+  );
+
+  private ConfigurationMerger() {
+  }
+
+  /**
+   * Merges several configurations into one.
+   *
+   * @param namedConfigurations the configurations to merge, by name
+   *
+   * @return the merged configuration
+   *
+   * @throws CheckstyleException if a property could not be read
+   */
+  static Configuration merge(
+      Map<String, Configuration> namedConfigurations
+  ) throws CheckstyleException {
+    DefaultConfiguration root = null;
+    DefaultConfiguration treeWalker = null;
+    String firstConfigName = null;
+    String treeWalkerConfigName = null;
+
+    for (Map.Entry<String, Configuration> namedConfiguration : namedConfigurations.entrySet()) {
+      String configName = namedConfiguration.getKey();
+      Configuration configuration = namedConfiguration.getValue();
+      if (root == null) {
+        root = copyWithoutChildren(configuration, SEVERITY);
+        firstConfigName = configName;
+      } else {
+        warnIgnoredProperties(configName, configuration, firstConfigName, root);
+      }
+      // the severity of a module is inherited from its parents, which are shared once merged
+      String rootSeverity = getProperty(configuration, SEVERITY, null);
+
+      for (Configuration child : configuration.getChildren()) {
+        if (isFilter(child)) {
+          root.addChild(tagFilter(configName, child));
+        } else if (!TREE_WALKER.equals(child.getName())) {
+          root.addChild(tag(configName, child, rootSeverity));
+        } else {
+          if (treeWalker == null) {
+            treeWalker = copyWithoutChildren(child, SEVERITY);
+            treeWalkerConfigName = configName;
+            root.addChild(treeWalker);
+          } else {
+            warnIgnoredProperties(configName, child, treeWalkerConfigName, treeWalker);
+          }
+
+          String treeWalkerSeverity = getProperty(child, SEVERITY, rootSeverity);
+          for (Configuration treeWalkerChild : child.getChildren()) {
+            treeWalker.addChild(isFilter(treeWalkerChild)
+                ? tagFilter(configName, treeWalkerChild)
+                : tag(configName, treeWalkerChild, treeWalkerSeverity));
+          }
+        }
+      }
+    }
+    return root;
+  }
+
+  /**
+   * Copies a module configuration, tagging its id with the name of its configuration.
+   *
+   * @param configName the name of the configuration the module belongs to
+   * @param original the module configuration to copy
+   * @param inheritedSeverity the severity of the parents of the module, or null
+   *
+   * @return the tagged copy
+   *
+   * @throws CheckstyleException if a property could not be read
+   */
+  private static DefaultConfiguration tag(
+      String configName,
+      Configuration original,
+      String inheritedSeverity
+  ) throws CheckstyleException {
+    DefaultConfiguration copy = copyWithoutChildren(original, ID, SEVERITY);
+    copy.addProperty(ID, tagId(configName, getProperty(original, ID, original.getName())));
+    String severity = getProperty(original, SEVERITY, inheritedSeverity);
+    if (severity != null) {
+      copy.addProperty(SEVERITY, severity);
+    }
+    for (Configuration child : original.getChildren()) {
+      copy.addChild(child);
+    }
+    return copy;
+  }
+
+  /**
+   * Copies a filter, tagging the ids it suppresses with the name of its configuration,
+   * so they match the tagged ids of the modules of the configuration.
+   *
+   * @param configName the name of the configuration the filter belongs to
+   * @param original the filter configuration to copy
+   *
+   * @return the tagged copy
+   *
+   * @throws CheckstyleException if a property could not be read
+   */
+  private static DefaultConfiguration tagFilter(
+      String configName,
+      Configuration original
+  ) throws CheckstyleException {
+    DefaultConfiguration copy = copyWithoutChildren(original, ID, ID_FORMAT, FILE);
+    String id = getProperty(original, ID, null);
+    if (id != null) {
+      copy.addProperty(
+          ID,
+          SINGLE_FILTERS.contains(original.getName()) ? tagId(configName, id) : id
+      );
+    }
+    String idFormat = getProperty(original, ID_FORMAT, null);
+    if (idFormat != null) {
+      // the format is searched for in the id, so it must follow the tag
+      copy.addProperty(
+          ID_FORMAT,
+          Pattern.quote(tagId(configName, "")) + "(?:" + idFormat.replaceFirst("^\\^", "") + ")"
+      );
+    }
+    String file = getProperty(original, FILE, null);
+    if (file != null) {
+      copy.addProperty(
+          FILE,
+          FILE_FILTERS.contains(original.getName()) ? tagSuppressionsFile(configName, file) : file
+      );
+    }
+    for (Configuration child : original.getChildren()) {
+      copy.addChild(child);
+    }
+    return copy;
+  }
+
+  /**
+   * Copies a suppressions file, tagging every id in it with the name of its configuration.
+   * The copy is a temporary file, deleted when BlueJ exits.
+   *
+   * @param configName the name of the configuration the suppressions belong to
+   * @param fileName the path or URL of the suppressions file
+   *
+   * @return the path of the tagged copy, or the original if it has no ids or cannot be read
+   */
+  private static String tagSuppressionsFile(String configName, String fileName) {
+    try {
+      DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+      // the DTD is only needed by Checkstyle, which validates the copy
+      documentBuilderFactory.setFeature(
+          "http://apache.org/xml/features/nonvalidating/load-external-dtd",
+          false
+      );
+      Document document;
+      try (InputStream inputStream = CommonUtil.getUriByFilename(fileName).toURL().openStream()) {
+        document = documentBuilderFactory.newDocumentBuilder().parse(inputStream);
+      }
+
+      boolean tagged = false;
+      NodeList elements = document.getElementsByTagName("*");
+      for (int i = 0; i < elements.getLength(); i++) {
+        Element element = (Element) elements.item(i);
+        if (element.hasAttribute(ID)) {
+          element.setAttribute(ID, tagId(configName, element.getAttribute(ID)));
+          tagged = true;
+        }
+      }
+      if (!tagged) {
+        return fileName;
+      }
+
+      File taggedFile = File.createTempFile("checkstyle4bluej-suppressions", ".xml");
+      taggedFile.deleteOnExit();
+      Transformer transformer = TransformerFactory.newInstance().newTransformer();
+      DocumentType documentType = document.getDoctype();
+      if (documentType != null) {
+        transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, documentType.getPublicId());
+        transformer.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM, documentType.getSystemId());
+      }
+      transformer.transform(new DOMSource(document), new StreamResult(taggedFile));
+      return taggedFile.getAbsolutePath();
+    } catch (CheckstyleException | IOException | ParserConfigurationException | SAXException
+        | TransformerException e) {
+      LOGGER.log(
+          Level.WARNING,
+          "Could not tag the ids in " + fileName + ", they will not match any module",
+          e
+      );
+      return fileName;
+    }
+  }
+
+  /**
+   * Logs a warning for every root or TreeWalker property of a configuration that is ignored,
+   * since the merged module takes its properties from the first configuration.
+   *
+   * @param configName the name of the configuration the module belongs to
+   * @param module the root or TreeWalker module of the configuration
+   * @param mergedConfigName the name of the configuration the merged module was copied from
+   * @param mergedModule the merged module
+   *
+   * @throws CheckstyleException if a property could not be read
+   */
+  private static void warnIgnoredProperties(
+      String configName,
+      Configuration module,
+      String mergedConfigName,
+      Configuration mergedModule
+  ) throws CheckstyleException {
+    for (String propertyName : module.getPropertyNames()) {
+      if (SEVERITY.equals(propertyName)) {
+        continue; // inherited by every module of the configuration instead
+      }
+
+      String value = module.getProperty(propertyName);
+      String mergedValue = getProperty(mergedModule, propertyName, null);
+      if (!Objects.equals(value, mergedValue)) {
+        LOGGER.warning(String.format(
+            "%s sets %s %s to %s, which is ignored when merged, %s uses %s",
+            configName,
+            module.getName(),
+            propertyName,
+            value,
+            mergedConfigName,
+            mergedValue != null ? mergedValue : "the default"
+        ));
+      }
+    }
+  }
+
+  private static String tagId(String configName, String id) {
+    return configName + "/" + id;
+  }
+
+  /**
+   * Returns whether a module is a filter or a holder, which serve the other modules.
+   *
+   * @param moduleConfiguration the module configuration
+   *
+   * @return true if the module is a filter or a holder
+   */
+  static boolean isFilter(Configuration moduleConfiguration) {
+    String moduleName = moduleConfiguration.getName();
+    return moduleName.endsWith("Filter") || moduleName.endsWith("Holder");
+  }
+
+  /**
+   * Copies a module configuration without its children.
+   *
+   * @param original the module configuration to copy
+   * @param excludedProperties the properties not to copy
+   *
+   * @return the copy
+   *
+   * @throws CheckstyleException if a property could not be read
+   */
+  static DefaultConfiguration copyWithoutChildren(
+      Configuration original,
+      String... excludedProperties
+  ) throws CheckstyleException {
+    List<String> excluded = Arrays.asList(excludedProperties);
+    DefaultConfiguration copy = new DefaultConfiguration(original.getName());
+    for (String propertyName : original.getPropertyNames()) {
+      if (!excluded.contains(propertyName)) {
+        copy.addProperty(propertyName, original.getProperty(propertyName));
+      }
+    }
+    for (Map.Entry<String, String> message : original.getMessages().entrySet()) {
+      copy.addMessage(message.getKey(), message.getValue());
+    }
+    return copy;
+  }
+
+  private static String getProperty(
+      Configuration moduleConfiguration,
+      String propertyName,
+      String defaultValue
+  ) throws CheckstyleException {
+    if (Arrays.asList(moduleConfiguration.getPropertyNames()).contains(propertyName)) {
+      return moduleConfiguration.getProperty(propertyName);
+    }
+    return defaultValue;
+  }
+}
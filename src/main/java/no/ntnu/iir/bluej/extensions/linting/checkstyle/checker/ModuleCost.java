@@ -0,0 +1,35 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+/**
+ * Represents the measured cost of a single configured module.
+ */
+public final class ModuleCost {
+  private final String moduleName;
+  private final long nanos;
+  private final int violationCount;
+
+  /**
+   * Constructs a new ModuleCost.
+   *
+   * @param moduleName the name of the module, including its parent if it is a TreeWalker child
+   * @param nanos the time the module took across the profiled files, in nanoseconds
+   * @param violationCount the number of violations the module reported
+   */
+  public ModuleCost(String moduleName, long nanos, int violationCount) {
+    this.moduleName = moduleName;
+    this.nanos = nanos;
+    this.violationCount = violationCount;
+  }
+
+  public String getModuleName() {
+    return this.moduleName;
+  }
+
+  public long getNanos() {
+    return this.nanos;
+  }
+
+  public int getViolationCount() {
+    return this.violationCount;
+  }
+}
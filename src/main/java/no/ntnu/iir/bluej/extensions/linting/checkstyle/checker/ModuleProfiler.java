@@ -0,0 +1,256 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Represents a profiler measuring the cost of every module of a configuration.
+ * Checkstyle offers no way to time a module while it runs, so every module is instead
+ * audited on its own with the same files and root settings.
+ * TreeWalker children are timed inside a TreeWalker of their own, and the cost of parsing
+ * and walking the tree is subtracted and reported separately. A TreeWalker without checks
+ * does not parse at all, so that cost is measured with a single check that does next to nothing.
+ * Filters and holders, like SuppressWarningsFilter and SuppressWarningsHolder, are kept in
+ * every audit, so the violation counts match those of a normal audit.
+ * Profiling can be cancelled, which stops it once the file being audited is finished.
+ */
+class ModuleProfiler {
+  private static final String TREE_WALKER = "TreeWalker";
+  private static final String PARSING = TREE_WALKER + " (parsing)";
+  // only counts top-level types, which is negligible compared to parsing
+  private static final String PARSING_PROBE = "OuterTypeNumber";
+  // every audit is repeated, and the fastest run is used, to reduce noise
+  private static final int RUNS_PER_AUDIT = 3;
+
+  private final Configuration configuration;
+  private final List<File> files;
+  private final String charset;
+  private final BooleanSupplier cancelled;
+
+  /**
+   * Constructs a new ModuleProfiler.
+   *
+   * @param configuration the configuration to profile
+   * @param files the files to audit while profiling
+   * @param charset the Files charset encoding.
+   * @param cancelled returns true once profiling should stop
+   */
+  ModuleProfiler(
+      Configuration configuration,
+      List<File> files,
+      String charset,
+      BooleanSupplier cancelled
+  ) {
+    this.configuration = configuration;
+    this.files = files;
+    this.charset = charset;
+    this.cancelled = cancelled;
+  }
+
+  /**
+   * Profiles every module of the configuration.
+   *
+   * @return the cost of every module, most expensive first
+   *
+   * @throws CheckstyleException if a module could not be configured
+   * @throws UnsupportedEncodingException if an unsupported encoding is used.
+   * @throws CancellationException if profiling was cancelled
+   */
+  List<ModuleCost> profile() throws CheckstyleException, UnsupportedEncodingException {
+    List<ModuleCost> moduleCosts = new ArrayList<>();
+
+    // warm up, so the first modules profiled do not pay for class loading and JIT compilation
+    this.audit(this.configuration);
+
+    for (Configuration child : this.configuration.getChildren()) {
+      if (ConfigurationMerger.isFilter(child)) {
+        continue;
+      }
+
+      if (!TREE_WALKER.equals(child.getName())) {
+        DefaultConfiguration root = this.copyRootWithFilters();
+        root.addChild(child);
+        moduleCosts.add(this.audit(root).named(getModuleName(child)));
+        continue;
+      }
+
+      DefaultConfiguration parsingTreeWalker = copyWithFilters(child);
+      parsingTreeWalker.addChild(new DefaultConfiguration(PARSING_PROBE));
+      DefaultConfiguration parsingRoot = this.copyRootWithFilters();
+      parsingRoot.addChild(parsingTreeWalker);
+      ModuleCost parsingCost = this.audit(parsingRoot).named(PARSING);
+      moduleCosts.add(parsingCost);
+
+      for (Configuration treeWalkerChild : child.getChildren()) {
+        if (ConfigurationMerger.isFilter(treeWalkerChild)) {
+          continue;
+        }
+
+        DefaultConfiguration treeWalker = copyWithFilters(child);
+        treeWalker.addChild(treeWalkerChild);
+        DefaultConfiguration root = this.copyRootWithFilters();
+        root.addChild(treeWalker);
+
+        UnnamedCost treeWalkerCost = this.audit(root);
+        moduleCosts.add(new ModuleCost(
+            TREE_WALKER + "/" + getModuleName(treeWalkerChild),
+            Math.max(0, treeWalkerCost.getNanos() - parsingCost.getNanos()),
+            treeWalkerCost.getViolationCount()
+        ));
+      }
+    }
+
+    moduleCosts.sort(Comparator.comparingLong(ModuleCost::getNanos).reversed());
+    return moduleCosts;
+  }
+
+  /**
+   * Audits the files with a configuration, timing the audit and counting its violations.
+   *
+   * @param auditConfiguration the configuration to audit with
+   *
+   * @return the cost of the audit, without a module name
+   */
+  private UnnamedCost audit(
+      Configuration auditConfiguration
+  ) throws CheckstyleException, UnsupportedEncodingException {
+    ViolationCounter violationCounter = new ViolationCounter();
+    Checker checker = new Checker();
+    checker.setModuleClassLoader(Checker.class.getClassLoader());
+    checker.addListener(violationCounter);
+    checker.configure(auditConfiguration);
+    checker.setCharset(this.charset);
+    // a file that cannot be parsed is reported as a violation instead of ending the profile
+    checker.setHaltOnException(false);
+    // skips the remaining files once cancelled, as a file being audited cannot be stopped
+    checker.addBeforeExecutionFileFilter(fileName -> !this.cancelled.getAsBoolean());
+
+    try {
+      long fastestRun = Long.MAX_VALUE;
+      for (int run = 0; run < RUNS_PER_AUDIT; run++) {
+        violationCounter.violationCount = 0;
+        long startTime = System.nanoTime();
+        checker.process(this.files);
+        fastestRun = Math.min(fastestRun, System.nanoTime() - startTime);
+        if (this.cancelled.getAsBoolean()) {
+          throw new CancellationException("Profiling was cancelled");
+        }
+      }
+      return new UnnamedCost(fastestRun, violationCounter.violationCount);
+    } finally {
+      checker.destroy();
+    }
+  }
+
+  private DefaultConfiguration copyRootWithFilters() throws CheckstyleException {
+    return copyWithFilters(this.configuration);
+  }
+
+  /**
+   * Copies a module configuration with only those children that are filters or holders.
+   *
+   * @param original the module configuration to copy
+   *
+   * @return the copy
+   *
+   * @throws CheckstyleException if a property could not be read
+   */
+  private static DefaultConfiguration copyWithFilters(
+      Configuration original
+  ) throws CheckstyleException {
+    DefaultConfiguration copy = ConfigurationMerger.copyWithoutChildren(original);
+    for (Configuration child : original.getChildren()) {
+      if (ConfigurationMerger.isFilter(child)) {
+        copy.addChild(child);
+      }
+    }
+    return copy;
+  }
+
+  private static String getModuleName(Configuration moduleConfiguration) {
+    try {
+      for (String propertyName : moduleConfiguration.getPropertyNames()) {
+        if ("id".equals(propertyName)) {
+          return moduleConfiguration.getName()
+              + "[" + moduleConfiguration.getProperty(propertyName) + "]";
+        }
+      }
+    } catch (CheckstyleException e) {
+      // fall back to the name only
+    }
+    return moduleConfiguration.getName();
+  }
+
+  /**
+   * Represents the cost of an audit before it is known which module it belongs to.
+   */
+  private static final class UnnamedCost {
+    private final long nanos;
+    private final int violationCount;
+
+    private UnnamedCost(long nanos, int violationCount) {
+      this.nanos = nanos;
+      this.violationCount = violationCount;
+    }
+
+    private long getNanos() {
+      return this.nanos;
+    }
+
+    private int getViolationCount() {
+      return this.violationCount;
+    }
+
+    private ModuleCost named(String moduleName) {
+      return new ModuleCost(moduleName, this.nanos, this.violationCount);
+    }
+  }
+
+  /**
+   * Represents an AuditListener counting the violations of an audit.
+   */
+  private static final class ViolationCounter implements AuditListener {
+    private int violationCount;
+
+    @Override
+    public void addError(AuditEvent auditEvent) {
+      this.violationCount++;
+    }
+
+    @Override
+    public void auditStarted(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void auditFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void fileStarted(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void fileFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void addException(AuditEvent auditEvent, Throwable throwable) {
+      // do nothing
+    }
+  }
+}
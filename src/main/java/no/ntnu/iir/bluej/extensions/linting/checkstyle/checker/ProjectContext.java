@@ -0,0 +1,67 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Represents the audit context of a single open BlueJ project.
+ * A project with a configuration file of its own is audited with its own configuration and
+ * pool of checkers, which are released once the project is closed. Other projects are audited
+ * with the configuration selected in the preferences. Only the configuration and the checkers
+ * are per project, every project is audited on the same audit thread.
+ * BlueJ has no event for opening or closing a project, so the project is open as long as
+ * any of its packages is open.
+ */
+final class ProjectContext {
+  private final Path projectDirectory;
+  private final CompiledConfiguration projectConfiguration; // null if the selected one is used
+  private int openPackages;
+
+  /**
+   * Constructs a new ProjectContext.
+   *
+   * @param projectDirectory the root directory of the project
+   * @param projectConfiguration the configuration of the project, or null to use the selected one
+   */
+  ProjectContext(File projectDirectory, CompiledConfiguration projectConfiguration) {
+    this.projectDirectory = projectDirectory.toPath().toAbsolutePath();
+    this.projectConfiguration = projectConfiguration;
+  }
+
+  /**
+   * Returns whether a file belongs to the project.
+   *
+   * @param file the absolute path of the file
+   *
+   * @return true if the file is in the directory of the project
+   */
+  boolean contains(Path file) {
+    return file.startsWith(this.projectDirectory);
+  }
+
+  Path getProjectDirectory() {
+    return this.projectDirectory;
+  }
+
+  CompiledConfiguration getProjectConfiguration() {
+    return this.projectConfiguration;
+  }
+
+  boolean hasProjectConfiguration() {
+    return this.projectConfiguration != null;
+  }
+
+  void packageOpened() {
+    this.openPackages++;
+  }
+
+  /**
+   * Records that a package of the project was closed.
+   *
+   * @return true if it was the last open package, which closes the project
+   */
+  boolean packageClosed() {
+    this.openPackages--;
+    return this.openPackages <= 0;
+  }
+}
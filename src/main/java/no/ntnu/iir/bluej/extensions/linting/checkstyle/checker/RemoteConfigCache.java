@@ -0,0 +1,226 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Represents an on-disk cache of configuration files served over http(s).
+ * Audits always load the local copy, so switching configurations or restarting BlueJ
+ * needs no network. A remote configuration is only downloaded in the foreground the
+ * first time it is used. After that the local copy is revalidated in the background with
+ * ETag and Last-Modified, at most once per refresh interval, and replaced if it changed.
+ * A replaced copy has a new modification time, which makes the configuration cache
+ * load it again the next time the configuration is selected.
+ */
+public class RemoteConfigCache {
+  private static final Logger LOGGER = Logger.getLogger(RemoteConfigCache.class.getName());
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+  private static final long REFRESH_INTERVAL_MILLIS = 10 * 60 * 1000;
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "lastModified";
+  private static final String URL = "url";
+
+  private final File cacheDirectory;
+  private final HttpClient httpClient;
+  private final ExecutorService refreshExecutor;
+  private final Map<String, Long> lastRefreshTimes; // (url, System.currentTimeMillis)
+
+  /**
+   * Constructs a new RemoteConfigCache.
+   *
+   * @param cacheDirectory the directory to store the local copies in
+   */
+  public RemoteConfigCache(File cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+    this.httpClient = HttpClient.newBuilder()
+        .connectTimeout(REQUEST_TIMEOUT)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+    this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "checkstyle4bluej-config-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.lastRefreshTimes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns whether a configuration path is a remote URL cached by this class.
+   *
+   * @param configPath the path or URL of the configuration file
+   *
+   * @return true if the configuration is served over http(s)
+   */
+  public static boolean isRemote(String configPath) {
+    String lowerCasePath = configPath.toLowerCase();
+    return lowerCasePath.startsWith("http://") || lowerCasePath.startsWith("https://");
+  }
+
+  /**
+   * Returns whether a configuration can be resolved without waiting for a download.
+   *
+   * @param configPath the path or URL of the configuration file
+   *
+   * @return true if the configuration is local, or a remote one with a local copy
+   */
+  public boolean hasLocalCopy(String configPath) {
+    return !isRemote(configPath) || this.getLocalCopy(configPath).isFile();
+  }
+
+  /**
+   * Returns the path to load a configuration from.
+   * Remote configurations are resolved to their local copy, which is downloaded if missing,
+   * and revalidated in the background otherwise. Other paths are returned as they are.
+   *
+   * @param configPath the path or URL of the configuration file
+   *
+   * @return the path to load the configuration from
+   *
+   * @throws IOException if a remote configuration has no local copy and could not be downloaded
+   */
+  public String resolve(String configPath) throws IOException {
+    if (!isRemote(configPath)) {
+      return configPath;
+    }
+
+    File localCopy = this.getLocalCopy(configPath);
+    if (!localCopy.isFile()) {
+      this.refresh(configPath);
+    } else {
+      this.refreshInBackground(configPath);
+    }
+    return localCopy.getPath();
+  }
+
+  /**
+   * Revalidates the local copy of a remote configuration in the background,
+   * unless it was revalidated within the refresh interval.
+   *
+   * @param url the URL of the configuration file
+   */
+  private void refreshInBackground(String url) {
+    long now = System.currentTimeMillis();
+    Long lastRefreshTime = this.lastRefreshTimes.get(url);
+    if (lastRefreshTime != null && now - lastRefreshTime < REFRESH_INTERVAL_MILLIS) {
+      return;
+    }
+
+    this.lastRefreshTimes.put(url, now);
+    this.refreshExecutor.execute(() -> {
+      try {
+        this.refresh(url);
+      } catch (IOException e) {
+        // the local copy is still used, and revalidated again later
+        LOGGER.log(Level.INFO, "Could not revalidate configuration " + url, e);
+      }
+    });
+  }
+
+  /**
+   * Downloads a remote configuration if it changed since the local copy was downloaded.
+   *
+   * @param url the URL of the configuration file
+   *
+   * @throws IOException if the configuration could not be downloaded
+   */
+  synchronized void refresh(String url) throws IOException {
+    File localCopy = this.getLocalCopy(url);
+    File metadataFile = this.getMetadataFile(url);
+    Properties metadata = new Properties();
+    if (localCopy.isFile() && metadataFile.isFile()) {
+      try (InputStream inputStream = Files.newInputStream(metadataFile.toPath())) {
+        metadata.load(inputStream);
+      }
+    }
+
+    HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(url))
+        .timeout(REQUEST_TIMEOUT)
+        .GET();
+    if (metadata.getProperty(ETAG) != null) {
+      requestBuilder.header("If-None-Match", metadata.getProperty(ETAG));
+    }
+    if (metadata.getProperty(LAST_MODIFIED) != null) {
+      requestBuilder.header("If-Modified-Since", metadata.getProperty(LAST_MODIFIED));
+    }
+
+    HttpResponse<InputStream> response;
+    try {
+      response = this.httpClient.send(
+          requestBuilder.build(),
+          HttpResponse.BodyHandlers.ofInputStream()
+      );
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while downloading " + url, e);
+    }
+    this.lastRefreshTimes.put(url, System.currentTimeMillis());
+
+    try (InputStream body = response.body()) {
+      if (response.statusCode() == 304) {
+        return;
+      }
+      if (response.statusCode() != 200) {
+        throw new IOException("Could not download " + url + ": HTTP " + response.statusCode());
+      }
+
+      Files.createDirectories(this.cacheDirectory.toPath());
+      // written to a temporary file first, so a failed download never replaces the local copy
+      Path temporaryFile = Files.createTempFile(this.cacheDirectory.toPath(), "config", ".tmp");
+      try {
+        Files.copy(body, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(
+            temporaryFile,
+            localCopy.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+      } finally {
+        Files.deleteIfExists(temporaryFile);
+      }
+    }
+
+    Properties newMetadata = new Properties();
+    newMetadata.setProperty(URL, url);
+    Optional<String> etag = response.headers().firstValue("ETag");
+    etag.ifPresent(value -> newMetadata.setProperty(ETAG, value));
+    Optional<String> lastModified = response.headers().firstValue("Last-Modified");
+    lastModified.ifPresent(value -> newMetadata.setProperty(LAST_MODIFIED, value));
+    try (OutputStream outputStream = Files.newOutputStream(metadataFile.toPath())) {
+      newMetadata.store(outputStream, null);
+    }
+    LOGGER.info("Downloaded configuration " + url);
+  }
+
+  private File getLocalCopy(String url) {
+    return new File(this.cacheDirectory, ResultCache.hashStrings(url) + ".xml");
+  }
+
+  private File getMetadataFile(String url) {
+    return new File(this.cacheDirectory, ResultCache.hashStrings(url) + ".properties");
+  }
+
+  /**
+   * Stops revalidating in the background.
+   */
+  public void shutdown() {
+    this.refreshExecutor.shutdownNow();
+  }
+}
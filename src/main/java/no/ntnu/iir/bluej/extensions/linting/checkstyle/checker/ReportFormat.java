@@ -0,0 +1,35 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+/**
+ * Represents a file format violations can be exported to.
+ */
+public enum ReportFormat {
+  /**
+   * The Static Analysis Results Interchange Format 2.1.0, read by code scanning tools and IDEs.
+   */
+  SARIF("SARIF files (*.sarif)", "*.sarif"),
+  /**
+   * The XML format written by the Checkstyle command line, read by most CI servers.
+   */
+  CHECKSTYLE_XML("Checkstyle XML files (*.xml)", "*.xml"),
+  /**
+   * The JSON format of the reports written by the batch runner.
+   */
+  JSON("JSON files (*.json)", "*.json");
+
+  private final String description;
+  private final String extension;
+
+  ReportFormat(String description, String extension) {
+    this.description = description;
+    this.extension = extension;
+  }
+
+  public String getDescription() {
+    return this.description;
+  }
+
+  public String getExtension() {
+    return this.extension;
+  }
+}
@@ -0,0 +1,299 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Represents a persistent cache of audit results.
+ * Results are stored per BlueJ project, keyed by the path of each file,
+ * the fingerprint of the configuration used and a hash of the file contents.
+ * Unlike the cache built into Checkstyle, the full list of violations is kept
+ * for every file, so files with violations can be restored without an audit.
+ * Only the results of the last few configurations a file was audited with are kept.
+ */
+public class ResultCache {
+  private static final Logger LOGGER = Logger.getLogger(ResultCache.class.getName());
+  private static final String PROJECT_MARKER = "package.bluej";
+  private static final String HASH_ALGORITHM = "SHA-256";
+  // results kept per file, for the configurations most recently audited with
+  static final int MAX_FINGERPRINTS_PER_FILE = 4;
+
+  private final File cacheDirectory;
+  private final ObjectMapper objectMapper;
+  // (project root, (file path, (fingerprint, entry)))
+  private final Map<File, Map<String, Map<String, CacheEntry>>> projects;
+  private final Set<File> dirtyProjects;
+
+  /**
+   * Constructs a new ResultCache.
+   *
+   * @param cacheDirectory the directory to persist the cached results to
+   */
+  public ResultCache(File cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+    this.objectMapper = new ObjectMapper();
+    this.projects = new HashMap<>();
+    this.dirtyProjects = new HashSet<>();
+  }
+
+  /**
+   * Computes the hash of the contents of a file.
+   *
+   * @param file the file to hash
+   *
+   * @return the hex encoded hash of the file contents
+   *
+   * @throws IOException if the file could not be read
+   */
+  public static String hashFile(File file) throws IOException {
+    MessageDigest digest = createDigest();
+    byte[] buffer = new byte[8192];
+    try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+      int read = inputStream.read(buffer);
+      while (read != -1) {
+        digest.update(buffer, 0, read);
+        read = inputStream.read(buffer);
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Computes the hash of a set of strings, used to fingerprint configurations.
+   *
+   * @param values the values to hash
+   *
+   * @return the hex encoded hash of the values
+   */
+  public static String hashStrings(String... values) {
+    MessageDigest digest = createDigest();
+    for (String value : values) {
+      digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0); // separator
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Returns the cached violations of a file, if the cached entry is still valid.
+   *
+   * @param fileName the absolute path of the file
+   * @param contentHash the hash of the current contents of the file
+   * @param fingerprint the fingerprint of the configuration in use
+   *
+   * @return the cached violations, or null if there is no valid entry
+   */
+  public synchronized List<ViolationRecord> get(
+      String fileName,
+      String contentHash,
+      String fingerprint
+  ) {
+    Map<String, CacheEntry> entries = this.getProject(fileName).get(fileName);
+    if (entries == null) {
+      return null;
+    }
+
+    CacheEntry entry = entries.get(fingerprint);
+    if (entry == null || !entry.getContentHash().equals(contentHash)) {
+      return null;
+    }
+    return entry.getViolations();
+  }
+
+  /**
+   * Stores the violations found in a file.
+   *
+   * @param fileName the absolute path of the file
+   * @param contentHash the hash of the contents of the file when it was audited
+   * @param fingerprint the fingerprint of the configuration used for the audit
+   * @param violations the violations found in the file
+   */
+  public synchronized void put(
+      String fileName,
+      String contentHash,
+      String fingerprint,
+      List<ViolationRecord> violations
+  ) {
+    Map<String, CacheEntry> entries = this.getProject(fileName)
+        .computeIfAbsent(fileName, key -> new LinkedHashMap<>());
+    // removed first, so the entries stay in the order they were stored, oldest first
+    entries.remove(fingerprint);
+    entries.put(fingerprint, new CacheEntry(contentHash, List.copyOf(violations)));
+    Iterator<String> fingerprints = entries.keySet().iterator();
+    while (entries.size() > MAX_FINGERPRINTS_PER_FILE) {
+      fingerprints.next();
+      fingerprints.remove();
+    }
+    this.dirtyProjects.add(findProjectRoot(new File(fileName)));
+  }
+
+  /**
+   * Writes all projects with new results to disk.
+   */
+  public synchronized void flush() {
+    for (File projectRoot : this.dirtyProjects) {
+      this.writeProject(projectRoot);
+    }
+    this.dirtyProjects.clear();
+  }
+
+  /**
+   * Writes the results of a project to disk if it has new results, and drops them from memory.
+   * Used when a project is closed, its results are loaded again if it is opened later.
+   *
+   * @param projectRoot the root directory of the project
+   */
+  public synchronized void unloadProject(File projectRoot) {
+    File absoluteProjectRoot = projectRoot.getAbsoluteFile();
+    if (this.dirtyProjects.remove(absoluteProjectRoot)) {
+      this.writeProject(absoluteProjectRoot);
+    }
+    this.projects.remove(absoluteProjectRoot);
+  }
+
+  private void writeProject(File projectRoot) {
+    File cacheFile = this.getCacheFile(projectRoot);
+    try {
+      Files.createDirectories(this.cacheDirectory.toPath());
+      File tempFile = new File(cacheFile.getPath() + ".tmp");
+      this.objectMapper.writeValue(tempFile, this.projects.get(projectRoot));
+      Files.move(
+          tempFile.toPath(),
+          cacheFile.toPath(),
+          StandardCopyOption.REPLACE_EXISTING
+      );
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Could not write result cache " + cacheFile, e);
+    }
+  }
+
+  /**
+   * Returns the cached results of the project a file belongs to.
+   * Loads the results from disk the first time a project is accessed.
+   *
+   * @param fileName the absolute path of a file in the project
+   *
+   * @return the cached results of the project
+   */
+  private Map<String, Map<String, CacheEntry>> getProject(String fileName) {
+    return this.projects.computeIfAbsent(
+        findProjectRoot(new File(fileName)),
+        this::loadProject
+    );
+  }
+
+  /**
+   * Loads the cached results of a project from disk.
+   * Entries for files that no longer exist are dropped.
+   *
+   * @param projectRoot the root directory of the project
+   *
+   * @return the cached results of the project, empty if none could be loaded
+   */
+  private Map<String, Map<String, CacheEntry>> loadProject(File projectRoot) {
+    File cacheFile = this.getCacheFile(projectRoot);
+    Map<String, Map<String, CacheEntry>> entries = new HashMap<>();
+
+    if (cacheFile.isFile()) {
+      try {
+        entries = this.objectMapper.readValue(
+            cacheFile,
+            new TypeReference<HashMap<String, Map<String, CacheEntry>>>() {}
+        );
+        entries.keySet().removeIf(fileName -> !new File(fileName).isFile());
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Discarding unreadable result cache " + cacheFile, e);
+      }
+    }
+
+    return entries;
+  }
+
+  private File getCacheFile(File projectRoot) {
+    return new File(
+        this.cacheDirectory,
+        hashStrings(projectRoot.getAbsolutePath()) + ".json"
+    );
+  }
+
+  /**
+   * Finds the root directory of the BlueJ project a file belongs to.
+   * Every package directory in a BlueJ project holds a package.bluej file,
+   * so the root is the outermost directory in the chain that has one.
+   *
+   * @param file the file to find the project root of
+   *
+   * @return the project root, or the parent directory if the file is not in a project
+   */
+  static File findProjectRoot(File file) {
+    File directory = file.getAbsoluteFile().getParentFile();
+    File projectRoot = directory;
+    while (directory != null && new File(directory, PROJECT_MARKER).isFile()) {
+      projectRoot = directory;
+      directory = directory.getParentFile();
+    }
+    return projectRoot;
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder builder = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+      builder.append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Represents the cached result of auditing one version of a file.
+   */
+  static final class CacheEntry {
+    private final String contentHash;
+    private final List<ViolationRecord> violations;
+
+    @JsonCreator
+    CacheEntry(
+        @JsonProperty("contentHash") String contentHash,
+        @JsonProperty("violations") List<ViolationRecord> violations
+    ) {
+      this.contentHash = contentHash;
+      this.violations = violations;
+    }
+
+    public String getContentHash() {
+      return this.contentHash;
+    }
+
+    public List<ViolationRecord> getViolations() {
+      return this.violations;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents an AuditListener that records audit results into a ResultCache.
+ * Only files registered through {@link #expect(String, String)} are recorded,
+ * since the content hash has to be known before the file is audited.
+ * A file reported as over the time budget is not recorded, since the report depends on how
+ * long the audit took rather than on the contents of the file.
+ * The recorder is shared by every Checker in a CheckerPool, so it must be thread-safe.
+ */
+class ResultCacheRecorder implements AuditListener {
+  private final ResultCache resultCache;
+  private final Map<String, String> expectedHashes; // (file name, content hash)
+  private final Map<String, List<ViolationRecord>> recordedViolations;
+  private volatile String fingerprint;
+
+  ResultCacheRecorder(ResultCache resultCache) {
+    this.resultCache = resultCache;
+    this.expectedHashes = new ConcurrentHashMap<>();
+    this.recordedViolations = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Sets the fingerprint of the configuration the recorded results belong to.
+   *
+   * @param fingerprint the fingerprint of the configuration in use
+   */
+  void setFingerprint(String fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
+  /**
+   * Registers a file that is about to be audited.
+   *
+   * @param fileName the absolute path of the file
+   * @param contentHash the hash of the contents of the file
+   */
+  void expect(String fileName, String contentHash) {
+    this.expectedHashes.put(fileName, contentHash);
+  }
+
+  /**
+   * Forgets every expected file and partially recorded result.
+   */
+  void reset() {
+    this.expectedHashes.clear();
+    this.recordedViolations.clear();
+  }
+
+  @Override
+  public void auditStarted(AuditEvent auditEvent) {
+    // do nothing
+  }
+
+  @Override
+  public void auditFinished(AuditEvent auditEvent) {
+    // do nothing, a pooled audit finishes once per Checker
+  }
+
+  @Override
+  public void fileStarted(AuditEvent auditEvent) {
+    if (this.expectedHashes.containsKey(auditEvent.getFileName())) {
+      this.recordedViolations.put(auditEvent.getFileName(), new ArrayList<>());
+    }
+  }
+
+  @Override
+  public void addError(AuditEvent auditEvent) {
+    if (AuditBudget.isBudgetReport(auditEvent.getSourceName())) {
+      this.recordedViolations.remove(auditEvent.getFileName());
+      return;
+    }
+
+    List<ViolationRecord> violations = this.recordedViolations.get(auditEvent.getFileName());
+    if (violations != null) {
+      violations.add(ViolationRecord.of(auditEvent));
+    }
+  }
+
+  @Override
+  public void addException(AuditEvent auditEvent, Throwable throwable) {
+    // an incomplete result should never be cached
+    this.recordedViolations.remove(auditEvent.getFileName());
+  }
+
+  @Override
+  public void fileFinished(AuditEvent auditEvent) {
+    String fileName = auditEvent.getFileName();
+    List<ViolationRecord> violations = this.recordedViolations.remove(fileName);
+    String contentHash = this.expectedHashes.remove(fileName);
+    if (violations != null && contentHash != null) {
+      this.resultCache.put(fileName, contentHash, this.fingerprint, violations);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import no.ntnu.iir.bluej.extensions.linting.core.violations.RuleDefinition;
+
+/**
+ * Represents a pool of shared RuleDefinitions.
+ * A RuleDefinition only describes the rule that was broken, so every violation of the
+ * same module with the same severity shares a single instance instead of creating its own.
+ * The number of instances is bounded by the number of checks in the configuration.
+ * The definitions are looked up by rule, module id and severity in turn, so finding the
+ * definition of a violation allocates nothing once it has been created.
+ */
+class RuleDefinitionPool {
+  // (rule name, (module id or rule name if none, (severity, definition)))
+  private final Map<String, Map<String, Map<SeverityLevel, RuleDefinition>>> ruleDefinitions =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Returns the shared RuleDefinition of a rule, creating it on first use.
+   *
+   * @param violationRecord the violation to return the RuleDefinition of
+   *
+   * @return the RuleDefinition shared by every violation of the module with the same severity
+   */
+  RuleDefinition get(ViolationRecord violationRecord) {
+    String rule = violationRecord.getRule();
+    String moduleId = violationRecord.getModuleId();
+    String id = moduleId != null ? moduleId : rule;
+    SeverityLevel severityLevel = violationRecord.getSeverityLevel();
+
+    Map<String, Map<SeverityLevel, RuleDefinition>> moduleDefinitions =
+        this.ruleDefinitions.get(rule);
+    if (moduleDefinitions == null) {
+      moduleDefinitions = this.ruleDefinitions.computeIfAbsent(
+          rule,
+          key -> new ConcurrentHashMap<>()
+      );
+    }
+    Map<SeverityLevel, RuleDefinition> severityDefinitions = moduleDefinitions.get(id);
+    if (severityDefinitions == null) {
+      severityDefinitions = moduleDefinitions.computeIfAbsent(
+          id,
+          key -> new ConcurrentHashMap<>()
+      );
+    }
+    RuleDefinition ruleDefinition = severityDefinitions.get(severityLevel);
+    if (ruleDefinition == null) {
+      ruleDefinition = severityDefinitions.computeIfAbsent(
+          severityLevel,
+          key -> new RuleDefinition(rule, id, null, severityLevel.getName(), null)
+      );
+    }
+    return ruleDefinition;
+  }
+
+  /**
+   * Returns the number of RuleDefinitions in the pool.
+   *
+   * @return the number of RuleDefinitions in the pool
+   */
+  int size() {
+    return this.ruleDefinitions.values().stream()
+        .flatMap(moduleDefinitions -> moduleDefinitions.values().stream())
+        .mapToInt(Map::size)
+        .sum();
+  }
+}
@@ -0,0 +1,49 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import no.ntnu.iir.bluej.extensions.linting.core.violations.ViolationManager;
+
+/**
+ * Represents the ViolationManager of a ViolationStore, which is also handed to the handlers
+ * of BlueJ-Linting-Core. The handlers remove the violations of removed and renamed classes
+ * from the ViolationManager they are given, so every removal that does not come from the
+ * store is routed through it, keeping its counts, snapshots and evicted files in step.
+ * Like the store, it may only be used from the JavaFX thread.
+ */
+public class StoreViolationManager extends ViolationManager {
+  private ViolationStore violationStore;
+
+  /**
+   * Sets the ViolationStore holding the violations shown in this ViolationManager.
+   *
+   * @param violationStore the ViolationStore to route removals through
+   */
+  public void setViolationStore(ViolationStore violationStore) {
+    this.violationStore = violationStore;
+  }
+
+  /**
+   * Removes the violations of a file.
+   * Unless the store is removing them itself, they are dropped from the store as well,
+   * including any snapshot, since the file is typically removed or renamed.
+   *
+   * @param fileName the absolute path of the file
+   */
+  @Override
+  public void removeViolations(String fileName) {
+    if (this.violationStore != null && !this.violationStore.isUpdatingManager()) {
+      this.violationStore.dropFile(fileName);
+    }
+    super.removeViolations(fileName);
+  }
+
+  /**
+   * Removes every violation, dropping them from the store as well.
+   */
+  @Override
+  public void clearViolations() {
+    if (this.violationStore != null) {
+      this.violationStore.dropAllFiles();
+    }
+    super.clearViolations();
+  }
+}
@@ -0,0 +1,138 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+
+/**
+ * Represents a dispatcher handing the violations of audited files over to the JavaFX thread.
+ * The violations of each file are collected, and flushed together at most a few times per
+ * second, so the UI is updated a bounded number of times however many files are audited.
+ * A file updated twice between flushes is only published once, with its latest violations.
+ * Every file is submitted with the configuration it was checked with, so the publisher can
+ * drop the results of an audit that was still running when the configuration was changed.
+ * Audits run on background threads, so files may be submitted from any thread,
+ * while they are always published on the JavaFX thread.
+ */
+final class ViolationDispatcher {
+  private static final long FLUSH_INTERVAL_MILLIS = 250;
+
+  private final Publisher publisher;
+  private final ScheduledExecutorService flushScheduler;
+  // (file name, submitted file) of the files submitted since the last flush, guarded by this
+  private Map<String, SubmittedFile> pendingFiles;
+  private boolean flushScheduled;
+  private long lastFlushTime; // System.nanoTime of the last flush
+
+  /**
+   * Constructs a new ViolationDispatcher.
+   *
+   * @param publisher publishes the violations of a file, called on the JavaFX thread
+   */
+  ViolationDispatcher(Publisher publisher) {
+    this.publisher = publisher;
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "checkstyle4bluej-dispatcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.pendingFiles = new LinkedHashMap<>();
+    this.lastFlushTime = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS);
+  }
+
+  /**
+   * Submits the violations of a file, replacing any submitted since the last flush.
+   * A flush is scheduled for when the flush interval has passed since the last one.
+   *
+   * @param fileName the absolute path of the file
+   * @param configKey the key of the configuration the file was checked with,
+   *     or null if it was checked with a configuration of its project
+   * @param violations the violations of the file
+   */
+  synchronized void submit(String fileName, String configKey, List<ViolationRecord> violations) {
+    this.pendingFiles.put(fileName, new SubmittedFile(configKey, violations));
+    this.scheduleFlush();
+  }
+
+  /**
+   * Schedules a flush for when the flush interval has passed since the last one.
+   * Must be called while holding the lock of this dispatcher.
+   */
+  private void scheduleFlush() {
+    if (this.flushScheduled || this.pendingFiles.isEmpty()) {
+      return;
+    }
+
+    this.flushScheduled = true;
+    long delay = Math.max(
+        0,
+        this.lastFlushTime
+            + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS)
+            - System.nanoTime()
+    );
+    this.flushScheduler.schedule(
+        () -> Platform.runLater(this::flush),
+        delay,
+        TimeUnit.NANOSECONDS
+    );
+  }
+
+  /**
+   * Publishes every file submitted since the last flush.
+   * Must be called on the JavaFX thread.
+   */
+  void flush() {
+    Map<String, SubmittedFile> filesToPublish;
+    synchronized (this) {
+      filesToPublish = this.pendingFiles;
+      this.pendingFiles = new LinkedHashMap<>();
+      this.flushScheduled = false;
+      this.lastFlushTime = System.nanoTime();
+    }
+    filesToPublish.forEach((fileName, submittedFile) -> this.publisher.publish(
+        fileName,
+        submittedFile.configKey,
+        submittedFile.violations
+    ));
+  }
+
+  /**
+   * Stops scheduling flushes.
+   */
+  void shutdown() {
+    this.flushScheduler.shutdownNow();
+  }
+
+  /**
+   * Represents the receiver of the files flushed by a ViolationDispatcher.
+   */
+  @FunctionalInterface
+  interface Publisher {
+    /**
+     * Publishes the violations of a file, called on the JavaFX thread.
+     *
+     * @param fileName the absolute path of the file
+     * @param configKey the key of the configuration the file was checked with,
+     *     or null if it was checked with a configuration of its project
+     * @param violations the violations of the file
+     */
+    void publish(String fileName, String configKey, List<ViolationRecord> violations);
+  }
+
+  /**
+   * Represents the violations of a file waiting to be flushed.
+   */
+  private static final class SubmittedFile {
+    private final String configKey;
+    private final List<ViolationRecord> violations;
+
+    private SubmittedFile(String configKey, List<ViolationRecord> violations) {
+      this.configKey = configKey;
+      this.violations = violations;
+    }
+  }
+}
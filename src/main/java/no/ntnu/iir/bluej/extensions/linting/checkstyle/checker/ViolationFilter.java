@@ -0,0 +1,289 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a filter deciding which violations are shown, set per configuration.
+ * Violations below a minimum severity, of modules not allowed or denied, or beyond a
+ * maximum per file are dropped by the CheckerListener before anything is allocated for them.
+ * Modules are matched by their name, like LineLength or LineLengthCheck, or by their id.
+ * Violations of audits and violations restored from the ResultCache are matched the same way.
+ * With merged configurations every configuration is filtered, and capped, by its own filter,
+ * which matches the ids as written in the configuration, without the tag of the merge.
+ * A configuration without a filter shows every violation.
+ * The ResultCache keeps every violation, so changing a filter needs no new audit.
+ */
+public final class ViolationFilter {
+  private static final String CHECK_SUFFIX = "Check";
+  private static final char TAG_SEPARATOR = '/';
+
+  private final SeverityLevel minimumSeverity;
+  private final List<String> allowedModules; // every module is allowed if empty
+  private final List<String> deniedModules;
+  private final int maxViolationsPerFile; // no maximum if 0
+  // the modules as rule names, without a package or Check suffix, to match stored violations
+  private final String[] allowedRules;
+  private final String[] deniedRules;
+  // suffixes of the class names of the modules, to match events without allocating
+  private final String[] allowedSuffixes;
+  private final String[] deniedSuffixes;
+  // (config name, filter) of merged configurations, matched by the tag of the module id
+  private final Map<String, ViolationFilter> taggedFilters;
+
+  /**
+   * Constructs a new ViolationFilter.
+   *
+   * @param minimumSeverity the name of the lowest severity level to show
+   * @param allowedModules the only modules to show violations of, or empty for every module
+   * @param deniedModules the modules to never show violations of
+   * @param maxViolationsPerFile the most violations to show per file, or 0 for no maximum
+   */
+  @JsonCreator
+  public ViolationFilter(
+      @JsonProperty("minimumSeverity") String minimumSeverity,
+      @JsonProperty("allowedModules") List<String> allowedModules,
+      @JsonProperty("deniedModules") List<String> deniedModules,
+      @JsonProperty("maxViolationsPerFile") int maxViolationsPerFile
+  ) {
+    this.minimumSeverity = minimumSeverity != null
+        ? SeverityLevel.getInstance(minimumSeverity)
+        : SeverityLevel.INFO;
+    this.allowedModules = allowedModules != null ? List.copyOf(allowedModules) : List.of();
+    this.deniedModules = deniedModules != null ? List.copyOf(deniedModules) : List.of();
+    this.maxViolationsPerFile = Math.max(0, maxViolationsPerFile);
+    this.allowedRules = toRules(this.allowedModules);
+    this.deniedRules = toRules(this.deniedModules);
+    this.allowedSuffixes = toSuffixes(this.allowedRules);
+    this.deniedSuffixes = toSuffixes(this.deniedRules);
+    this.taggedFilters = Map.of();
+  }
+
+  private ViolationFilter(Map<String, ViolationFilter> taggedFilters) {
+    this.minimumSeverity = SeverityLevel.INFO;
+    this.allowedModules = List.of();
+    this.deniedModules = List.of();
+    this.maxViolationsPerFile = 0;
+    this.allowedRules = new String[0];
+    this.deniedRules = new String[0];
+    this.allowedSuffixes = new String[0];
+    this.deniedSuffixes = new String[0];
+    this.taggedFilters = Map.copyOf(taggedFilters);
+  }
+
+  /**
+   * Returns a filter that shows every violation.
+   *
+   * @return a filter that shows every violation
+   */
+  public static ViolationFilter showAll() {
+    return new ViolationFilter(null, null, null, 0);
+  }
+
+  /**
+   * Returns a filter for configurations merged by {@link ConfigurationMerger}.
+   * Each violation is filtered by the filter of the configuration its module id is tagged with.
+   *
+   * @param configFilters the filter of each merged configuration, by name
+   *
+   * @return a filter applying the filter of each merged configuration
+   */
+  public static ViolationFilter forMergedConfigs(Map<String, ViolationFilter> configFilters) {
+    return new ViolationFilter(configFilters);
+  }
+
+  private static String[] toRules(List<String> modules) {
+    String[] rules = new String[modules.size()];
+    for (int i = 0; i < rules.length; i++) {
+      rules[i] = ViolationRecord.getRuleName(modules.get(i));
+    }
+    return rules;
+  }
+
+  private static String[] toSuffixes(String[] rules) {
+    String[] suffixes = new String[rules.length];
+    for (int i = 0; i < suffixes.length; i++) {
+      suffixes[i] = "." + rules[i];
+    }
+    return suffixes;
+  }
+
+  /**
+   * Returns whether the violation of an event should be shown.
+   *
+   * @param auditEvent the event of the violation
+   *
+   * @return true if the violation should be shown
+   */
+  boolean accepts(AuditEvent auditEvent) {
+    String moduleId = auditEvent.getModuleId();
+    String tag = this.getTag(moduleId);
+    ViolationFilter filter = tag != null ? this.taggedFilters.get(tag) : this;
+    if (auditEvent.getSeverityLevel().compareTo(filter.minimumSeverity) < 0) {
+      return false;
+    }
+
+    String sourceName = auditEvent.getSourceName();
+    int idStart = getIdStart(tag);
+    if (matchesAnyEvent(
+        filter.deniedSuffixes, filter.deniedModules, sourceName, moduleId, idStart
+    )) {
+      return false;
+    }
+    return filter.allowedModules.isEmpty() || matchesAnyEvent(
+        filter.allowedSuffixes, filter.allowedModules, sourceName, moduleId, idStart
+    );
+  }
+
+  /**
+   * Returns whether a stored violation should be shown.
+   *
+   * @param violationRecord the stored violation
+   *
+   * @return true if the violation should be shown
+   */
+  boolean accepts(ViolationRecord violationRecord) {
+    String moduleId = violationRecord.getModuleId();
+    String tag = this.getTag(moduleId);
+    ViolationFilter filter = tag != null ? this.taggedFilters.get(tag) : this;
+    if (violationRecord.getSeverityLevel().compareTo(filter.minimumSeverity) < 0) {
+      return false;
+    }
+
+    String rule = violationRecord.getRule();
+    int idStart = getIdStart(tag);
+    if (matchesAnyRecord(filter.deniedRules, filter.deniedModules, rule, moduleId, idStart)) {
+      return false;
+    }
+    return filter.allowedModules.isEmpty() || matchesAnyRecord(
+        filter.allowedRules, filter.allowedModules, rule, moduleId, idStart
+    );
+  }
+
+  /**
+   * Returns whether a file already has as many violations of a module as may be shown.
+   * With merged configurations the maximum applies to each configuration on its own,
+   * so only the violations of the configuration the module id is tagged with are counted.
+   *
+   * @param moduleId the id of the module of the next violation
+   * @param shownViolations the violations shown for the file so far
+   *
+   * @return true if no more violations of the module should be shown for the file
+   */
+  boolean isFull(String moduleId, List<ViolationRecord> shownViolations) {
+    ViolationFilter filter = this.getFilter(moduleId);
+    if (filter.maxViolationsPerFile == 0) {
+      return false;
+    }
+    if (filter == this) {
+      return shownViolations.size() >= this.maxViolationsPerFile;
+    }
+
+    // at most the maximum of every configuration is shown, so this is bounded by the maximums
+    int violationCount = 0;
+    for (ViolationRecord violationRecord : shownViolations) {
+      if (this.getFilter(violationRecord.getModuleId()) == filter) {
+        violationCount++;
+      }
+    }
+    return violationCount >= filter.maxViolationsPerFile;
+  }
+
+  private ViolationFilter getFilter(String moduleId) {
+    String tag = this.getTag(moduleId);
+    return tag != null ? this.taggedFilters.get(tag) : this;
+  }
+
+  /**
+   * Returns the name of the merged configuration a module id is tagged with.
+   *
+   * @param moduleId the module id of a violation, which may be null
+   *
+   * @return the name of the configuration, or null if the id is not tagged with one
+   */
+  private String getTag(String moduleId) {
+    if (this.taggedFilters.isEmpty() || moduleId == null) {
+      return null;
+    }
+
+    for (String configName : this.taggedFilters.keySet()) {
+      if (moduleId.length() > configName.length()
+          && moduleId.charAt(configName.length()) == TAG_SEPARATOR
+          && moduleId.startsWith(configName)) {
+        return configName;
+      }
+    }
+    return null;
+  }
+
+  private static int getIdStart(String tag) {
+    return tag != null ? tag.length() + 1 : 0;
+  }
+
+  private static boolean matchesAnyEvent(
+      String[] suffixes,
+      List<String> modules,
+      String sourceName,
+      String moduleId,
+      int idStart
+  ) {
+    for (int i = 0; i < suffixes.length; i++) {
+      if (sourceName != null && (sourceName.endsWith(suffixes[i])
+          || sourceName.endsWith(CHECK_SUFFIX) && sourceName.regionMatches(
+              sourceName.length() - CHECK_SUFFIX.length() - suffixes[i].length(),
+              suffixes[i], 0, suffixes[i].length()))) {
+        return true;
+      }
+      if (matchesId(modules.get(i), moduleId, idStart)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matchesAnyRecord(
+      String[] rules,
+      List<String> modules,
+      String rule,
+      String moduleId,
+      int idStart
+  ) {
+    for (int i = 0; i < rules.length; i++) {
+      if (rules[i].equals(rule) || matchesId(modules.get(i), moduleId, idStart)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether a module id, without the tag of its configuration, equals an entry.
+   * Compared in place, so no untagged id is allocated for every violation.
+   */
+  private static boolean matchesId(String module, String moduleId, int idStart) {
+    return moduleId != null
+        && moduleId.length() - idStart == module.length()
+        && moduleId.startsWith(module, idStart);
+  }
+
+  public String getMinimumSeverity() {
+    return this.minimumSeverity.getName();
+  }
+
+  public List<String> getAllowedModules() {
+    return this.allowedModules;
+  }
+
+  public List<String> getDeniedModules() {
+    return this.deniedModules;
+  }
+
+  public int getMaxViolationsPerFile() {
+    return this.maxViolationsPerFile;
+  }
+
+}
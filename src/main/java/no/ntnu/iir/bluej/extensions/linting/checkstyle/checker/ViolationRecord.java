@@ -0,0 +1,119 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Represents a single Checkstyle violation detached from the audit that produced it.
+ * Holds only the plain values needed to rebuild a Violation for the ViolationManager,
+ * which makes it cheap to store and (de)serialize.
+ * Only the message is unique to a violation; the rule name and module id are interned,
+ * and the severity is kept as its enum constant.
+ */
+public final class ViolationRecord {
+  private static final String CHECK_SUFFIX = "Check";
+
+  private final int line;
+  private final int column;
+  private final SeverityLevel severity;
+  private final String rule;
+  private final String moduleId;
+  private final String message;
+
+  /**
+   * Constructs a new ViolationRecord.
+   *
+   * @param line the line the violation was found on
+   * @param column the column the violation was found on
+   * @param severity the name of the severity level of the violation
+   * @param rule the name of the check that reported the violation, like MagicNumber
+   * @param moduleId the id of the module that reported the violation, if it has one
+   * @param message the localized message describing the violation
+   */
+  @JsonCreator
+  public ViolationRecord(
+      @JsonProperty("line") int line,
+      @JsonProperty("column") int column,
+      @JsonProperty("severity") String severity,
+      @JsonProperty("rule") String rule,
+      @JsonProperty("moduleId") String moduleId,
+      @JsonProperty("message") String message
+  ) {
+    this.line = line;
+    this.column = column;
+    this.severity = SeverityLevel.getInstance(severity);
+    this.rule = intern(rule != null ? rule : moduleId);
+    this.moduleId = intern(moduleId);
+    this.message = message;
+  }
+
+  /**
+   * Creates a ViolationRecord from an AuditEvent fired by Checkstyle.
+   *
+   * @param auditEvent the event to copy the violation details from
+   *
+   * @return a ViolationRecord holding the details of the event
+   */
+  public static ViolationRecord of(AuditEvent auditEvent) {
+    return new ViolationRecord(
+        auditEvent.getLine(),
+        auditEvent.getColumn(),
+        auditEvent.getSeverityLevel().getName(),
+        getRuleName(auditEvent.getSourceName()),
+        auditEvent.getModuleId(),
+        auditEvent.getMessage()
+    );
+  }
+
+  /**
+   * Returns the short name of a check, the way it is written in configuration files.
+   *
+   * @param sourceName the fully qualified class name of the check
+   *
+   * @return the class name without its package and Check suffix
+   */
+  static String getRuleName(String sourceName) {
+    if (sourceName == null) {
+      return null;
+    }
+    String ruleName = sourceName.substring(sourceName.lastIndexOf('.') + 1);
+    if (ruleName.endsWith(CHECK_SUFFIX) && ruleName.length() > CHECK_SUFFIX.length()) {
+      ruleName = ruleName.substring(0, ruleName.length() - CHECK_SUFFIX.length());
+    }
+    return ruleName;
+  }
+
+  private static String intern(String value) {
+    return value != null ? value.intern() : null;
+  }
+
+  public int getLine() {
+    return this.line;
+  }
+
+  public int getColumn() {
+    return this.column;
+  }
+
+  public String getSeverity() {
+    return this.severity.getName();
+  }
+
+  SeverityLevel getSeverityLevel() {
+    return this.severity;
+  }
+
+  public String getRule() {
+    return this.rule;
+  }
+
+  public String getModuleId() {
+    return this.moduleId;
+  }
+
+  public String getMessage() {
+    return this.message;
+  }
+}
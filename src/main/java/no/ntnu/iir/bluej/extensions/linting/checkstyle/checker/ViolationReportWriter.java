@@ -0,0 +1,315 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Represents a writer exporting violations to a report file.
+ * Every format is written as a stream, one violation at a time, so exporting a large project
+ * needs no more memory than a single violation. SARIF and JSON are written with the Jackson
+ * streaming generator, and Checkstyle XML with the StAX writer of the JDK.
+ * The violations are only read, so they may be exported on any thread.
+ */
+public final class ViolationReportWriter {
+  private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+  private static final String SARIF_VERSION = "2.1.0";
+  private static final String SOURCE_ROOT = "SRCROOT";
+  private static final String TOOL_NAME = "Checkstyle";
+  private static final String TOOL_URI = "https://checkstyle.org";
+  // written by the build, and the Maven metadata of Checkstyle, which the shaded JAR keeps
+  private static final String POM_PROPERTIES = "config/pom.properties";
+  private static final String CHECKSTYLE_POM_PROPERTIES =
+      "META-INF/maven/com.puppycrawl.tools/checkstyle/pom.properties";
+  private static final String CHECKSTYLE_VERSION = loadCheckstyleVersion();
+
+  private final Path projectRoot;
+  private final JsonFactory jsonFactory;
+
+  /**
+   * Constructs a new ViolationReportWriter.
+   *
+   * @param projectRoot the root directory of the project, which file names are relative to
+   */
+  public ViolationReportWriter(File projectRoot) {
+    this.projectRoot = projectRoot.toPath().toAbsolutePath();
+    this.jsonFactory = new JsonFactory(new ObjectMapper());
+  }
+
+  /**
+   * Writes violations to a report file, replacing it if it exists.
+   *
+   * @param violations the violations to export, by absolute file name
+   * @param reportFile the file to write the report to
+   * @param reportFormat the format to write the report in
+   *
+   * @throws IOException if the report could not be written
+   */
+  public void write(
+      Map<String, List<ViolationRecord>> violations,
+      File reportFile,
+      ReportFormat reportFormat
+  ) throws IOException {
+    switch (reportFormat) {
+      case SARIF:
+        this.writeSarif(violations, reportFile);
+        break;
+      case CHECKSTYLE_XML:
+        this.writeCheckstyleXml(violations, reportFile);
+        break;
+      default:
+        this.writeJson(violations, reportFile);
+        break;
+    }
+  }
+
+  /**
+   * Writes a SARIF log with a single run, and a result for every violation.
+   */
+  private void writeSarif(
+      Map<String, List<ViolationRecord>> violations,
+      File reportFile
+  ) throws IOException {
+    try (JsonGenerator generator = this.createGenerator(reportFile)) {
+      generator.writeStartObject();
+      generator.writeStringField("$schema", SARIF_SCHEMA);
+      generator.writeStringField("version", SARIF_VERSION);
+      generator.writeArrayFieldStart("runs");
+      generator.writeStartObject();
+
+      generator.writeObjectFieldStart("tool");
+      generator.writeObjectFieldStart("driver");
+      generator.writeStringField("name", TOOL_NAME);
+      String checkstyleVersion = getCheckstyleVersion();
+      if (checkstyleVersion != null) {
+        generator.writeStringField("version", checkstyleVersion);
+      }
+      generator.writeStringField("informationUri", TOOL_URI);
+      generator.writeEndObject();
+      generator.writeEndObject();
+
+      generator.writeObjectFieldStart("originalUriBaseIds");
+      generator.writeObjectFieldStart(SOURCE_ROOT);
+      generator.writeStringField("uri", this.projectRoot.toUri().toString());
+      generator.writeEndObject();
+      generator.writeEndObject();
+
+      generator.writeArrayFieldStart("results");
+      for (Map.Entry<String, List<ViolationRecord>> file : violations.entrySet()) {
+        Path filePath = Path.of(file.getKey()).toAbsolutePath();
+        boolean inProject = filePath.startsWith(this.projectRoot);
+        String fileUri = inProject
+            ? toRelativeUri(this.projectRoot.relativize(filePath))
+            : filePath.toUri().toString();
+
+        for (ViolationRecord violationRecord : file.getValue()) {
+          generator.writeStartObject();
+          generator.writeStringField("ruleId", violationRecord.getRule());
+          generator.writeStringField("level", getSarifLevel(violationRecord));
+          generator.writeObjectFieldStart("message");
+          generator.writeStringField("text", violationRecord.getMessage());
+          generator.writeEndObject();
+
+          generator.writeArrayFieldStart("locations");
+          generator.writeStartObject();
+          generator.writeObjectFieldStart("physicalLocation");
+          generator.writeObjectFieldStart("artifactLocation");
+          generator.writeStringField("uri", fileUri);
+          if (inProject) {
+            generator.writeStringField("uriBaseId", SOURCE_ROOT);
+          }
+          generator.writeEndObject();
+          // Checkstyle uses 0 when a violation has no line or column, which SARIF does not allow
+          if (violationRecord.getLine() > 0) {
+            generator.writeObjectFieldStart("region");
+            generator.writeNumberField("startLine", violationRecord.getLine());
+            if (violationRecord.getColumn() > 0) {
+              generator.writeNumberField("startColumn", violationRecord.getColumn());
+            }
+            generator.writeEndObject();
+          }
+          generator.writeEndObject();
+          generator.writeEndObject();
+          generator.writeEndArray();
+          generator.writeEndObject();
+        }
+      }
+      generator.writeEndArray();
+
+      generator.writeEndObject();
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * Writes a report in the same format as the XMLLogger of Checkstyle.
+   */
+  private void writeCheckstyleXml(
+      Map<String, List<ViolationRecord>> violations,
+      File reportFile
+  ) throws IOException {
+    try (OutputStream outputStream = new BufferedOutputStream(
+        Files.newOutputStream(reportFile.toPath())
+    )) {
+      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(
+          outputStream,
+          StandardCharsets.UTF_8.name()
+      );
+      try {
+        writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        writer.writeCharacters("\n");
+        writer.writeStartElement("checkstyle");
+        String checkstyleVersion = getCheckstyleVersion();
+        if (checkstyleVersion != null) {
+          writer.writeAttribute("version", checkstyleVersion);
+        }
+        writer.writeCharacters("\n");
+
+        for (Map.Entry<String, List<ViolationRecord>> file : violations.entrySet()) {
+          writer.writeStartElement("file");
+          writer.writeAttribute("name", file.getKey());
+          writer.writeCharacters("\n");
+          for (ViolationRecord violationRecord : file.getValue()) {
+            writer.writeEmptyElement("error");
+            writer.writeAttribute("line", String.valueOf(violationRecord.getLine()));
+            if (violationRecord.getColumn() > 0) {
+              writer.writeAttribute("column", String.valueOf(violationRecord.getColumn()));
+            }
+            writer.writeAttribute("severity", violationRecord.getSeverity());
+            writer.writeAttribute("message", violationRecord.getMessage());
+            writer.writeAttribute("source", violationRecord.getRule());
+            writer.writeCharacters("\n");
+          }
+          writer.writeEndElement();
+          writer.writeCharacters("\n");
+        }
+
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+      } finally {
+        writer.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException("Could not write " + reportFile, e);
+    }
+  }
+
+  /**
+   * Writes a report in the same format as the reports of the batch runner.
+   */
+  private void writeJson(
+      Map<String, List<ViolationRecord>> violations,
+      File reportFile
+  ) throws IOException {
+    try (JsonGenerator generator = this.createGenerator(reportFile)) {
+      generator.writeStartObject();
+      generator.writeStringField("project", this.projectRoot.toString());
+      generator.writeArrayFieldStart("files");
+      for (Map.Entry<String, List<ViolationRecord>> file : violations.entrySet()) {
+        Path filePath = Path.of(file.getKey()).toAbsolutePath();
+        generator.writeStartObject();
+        generator.writeStringField(
+            "file",
+            filePath.startsWith(this.projectRoot)
+                ? this.projectRoot.relativize(filePath).toString()
+                : filePath.toString()
+        );
+        generator.writeArrayFieldStart("violations");
+        for (ViolationRecord violationRecord : file.getValue()) {
+          generator.writeObject(violationRecord);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+
+  private JsonGenerator createGenerator(File reportFile) throws IOException {
+    return this.jsonFactory
+        .createGenerator(reportFile, JsonEncoding.UTF8)
+        .useDefaultPrettyPrinter();
+  }
+
+  private static String getSarifLevel(ViolationRecord violationRecord) {
+    switch (violationRecord.getSeverityLevel()) {
+      case ERROR:
+        return "error";
+      case WARNING:
+        return "warning";
+      case INFO:
+        return "note";
+      default:
+        return "none";
+    }
+  }
+
+  /**
+   * Returns a relative path as a URI reference, with forward slashes and escaped characters.
+   */
+  private static String toRelativeUri(Path relativePath) throws IOException {
+    StringBuilder uriPath = new StringBuilder();
+    for (Path segment : relativePath) {
+      if (uriPath.length() > 0) {
+        uriPath.append('/');
+      }
+      uriPath.append(segment);
+    }
+
+    try {
+      return new URI(null, null, uriPath.toString(), null).toASCIIString();
+    } catch (URISyntaxException e) {
+      throw new IOException("Could not write the path " + relativePath, e);
+    }
+  }
+
+  private static String getCheckstyleVersion() {
+    return CHECKSTYLE_VERSION;
+  }
+
+  /**
+   * Loads the version of the bundled Checkstyle.
+   * The manifest of the shaded JAR is that of the extension, so the implementation version
+   * of the Checkstyle package is the version of the extension, and cannot be used.
+   *
+   * @return the version of Checkstyle, or null if it is not known
+   */
+  private static String loadCheckstyleVersion() {
+    String version = loadProperty(POM_PROPERTIES, "checkstyle.version");
+    return version != null ? version : loadProperty(CHECKSTYLE_POM_PROPERTIES, "version");
+  }
+
+  private static String loadProperty(String resourceName, String propertyName) {
+    try (InputStream inputStream = ViolationReportWriter.class.getClassLoader()
+        .getResourceAsStream(resourceName)) {
+      if (inputStream == null) {
+        return null;
+      }
+      Properties properties = new Properties();
+      properties.load(inputStream);
+      return properties.getProperty(propertyName);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,415 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import no.ntnu.iir.bluej.extensions.linting.core.violations.Violation;
+import no.ntnu.iir.bluej.extensions.linting.core.violations.ViolationManager;
+
+/**
+ * Represents a memory-bounded store of the violations shown in the ViolationManager.
+ * When the violations would exceed the memory budget, the files that were least recently
+ * updated are evicted from the ViolationManager. Their results are still in the ResultCache
+ * on disk, so they are brought back by checking them again, which restores them from the cache
+ * without auditing, once the overview of their project is opened.
+ * The violations of each configuration are kept in a separate snapshot, so switching back to a
+ * configuration shows its violations at once. Snapshots of configurations that are not shown
+ * count towards the memory budget, and are dropped before any shown violation is evicted.
+ * Projects with a configuration of their own keep their violations when switching snapshots.
+ * The violations of a closed package are evicted the same way, while every violation of a
+ * project is dropped as soon as it is closed.
+ * The records the violations were created from are kept alongside them, so the shown
+ * violations can be exported without going through the ViolationManager.
+ * The ViolationManager may only be used from the JavaFX thread, and so may this store.
+ * Violations removed from a StoreViolationManager by anyone but the store are dropped from the
+ * store as well, see {@link StoreViolationManager}.
+ */
+public class ViolationStore {
+  // heap retained by a shown violation and its record, as measured by ViolationFootprint
+  // (see docs/heap-footprint.md), rounded up for what the ViolationManager keeps per file
+  private static final long ESTIMATED_BYTES_PER_VIOLATION = 256;
+
+  private ViolationManager violationManager;
+  private CheckerService checkerService;
+  // (file name, violations) of the shown snapshot, by last access
+  private LinkedHashMap<String, StoredFile> storedFiles;
+  private Set<String> evictedFiles;
+  private long storedViolations;
+  private String snapshotKey; // the configuration of the shown snapshot
+  private LinkedHashMap<String, Snapshot> snapshots; // (configuration, snapshot), by last use
+  private long snapshotViolations; // violations in the snapshots not shown
+  private long maxViolations;
+  private boolean updatingManager; // whether the store itself is removing shown violations
+
+  /**
+   * Constructs a new ViolationStore without a memory budget.
+   *
+   * @param violationManager the ViolationManager holding the violations that are shown
+   * @param checkerService the CheckerService used to restore evicted files
+   */
+  public ViolationStore(ViolationManager violationManager, CheckerService checkerService) {
+    this.violationManager = violationManager;
+    this.checkerService = checkerService;
+    this.storedFiles = new LinkedHashMap<>(16, 0.75f, true);
+    this.evictedFiles = new HashSet<>();
+    this.snapshots = new LinkedHashMap<>();
+    this.maxViolations = Long.MAX_VALUE;
+  }
+
+  /**
+   * Sets the memory budget for stored violations, evicting files if it is exceeded.
+   *
+   * @param budgetBytes the approximate number of bytes the violations may use
+   */
+  public void setMemoryBudget(long budgetBytes) {
+    this.maxViolations = Math.max(1, budgetBytes / ESTIMATED_BYTES_PER_VIOLATION);
+    this.evictToBudget(null);
+  }
+
+  /**
+   * Replaces the violations of a file, evicting other files if the budget is exceeded.
+   *
+   * @param fileName the absolute path of the file
+   * @param violations the new violations of the file
+   * @param violationRecords the records the violations were created from, in the same order
+   */
+  void replaceViolations(
+      String fileName,
+      List<Violation> violations,
+      List<ViolationRecord> violationRecords
+  ) {
+    this.hideViolations(fileName);
+    this.evictedFiles.remove(fileName);
+    StoredFile previousFile = this.storedFiles.remove(fileName);
+    if (previousFile != null) {
+      this.storedViolations -= previousFile.violations.size();
+    }
+
+    if (violations.isEmpty()) {
+      return;
+    }
+
+    this.violationManager.addViolations(fileName, violations);
+    this.storedFiles.put(fileName, new StoredFile(violations, violationRecords));
+    this.storedViolations += violations.size();
+    this.evictToBudget(fileName);
+  }
+
+  /**
+   * Removes the violations of a file, typically one that has been deleted.
+   *
+   * @param fileName the absolute path of the file
+   */
+  public void removeViolations(String fileName) {
+    this.replaceViolations(fileName, List.of(), List.of());
+  }
+
+  /**
+   * Drops the violations of a file, shown, evicted or in snapshots, typically one that has been
+   * removed or renamed, so none of its old violations are shown again.
+   *
+   * @param fileName the absolute path of the file
+   */
+  void dropFile(String fileName) {
+    Path filePath = Path.of(fileName);
+    this.evictFiles(filePath::equals, false);
+  }
+
+  /**
+   * Drops the violations of every file, shown, evicted or in snapshots.
+   */
+  void dropAllFiles() {
+    this.evictFiles(file -> true, false);
+  }
+
+  /**
+   * Returns whether the store itself is removing violations from the ViolationManager.
+   *
+   * @return true while the store is removing violations
+   */
+  boolean isUpdatingManager() {
+    return this.updatingManager;
+  }
+
+  /**
+   * Removes the shown violations of a file from the ViolationManager, without dropping them
+   * from the store, which keeps track of them itself.
+   *
+   * @param fileName the absolute path of the file
+   */
+  private void hideViolations(String fileName) {
+    this.updatingManager = true;
+    try {
+      this.violationManager.removeViolations(fileName);
+    } finally {
+      this.updatingManager = false;
+    }
+  }
+
+  /**
+   * Returns the records of every violation that is shown, by file name.
+   * The lists of records are never changed once stored, so they may be read on any thread,
+   * and only the map itself is copied.
+   *
+   * @return the records of the shown violations, sorted by file name
+   */
+  public Map<String, List<ViolationRecord>> getShownViolations() {
+    Map<String, List<ViolationRecord>> shownViolations = new TreeMap<>();
+    this.storedFiles.forEach(
+        (fileName, storedFile) -> shownViolations.put(fileName, storedFile.violationRecords)
+    );
+    return shownViolations;
+  }
+
+  /**
+   * Shows the snapshot of a configuration, keeping the shown violations as a snapshot of their own.
+   * Only the violations of files checked with the configuration selected in the preferences are
+   * switched, files of projects with a configuration of their own stay as they are.
+   * The snapshot may be out of date, so the files should be checked again after switching,
+   * which restores unchanged files from the ResultCache.
+   *
+   * @param configKey the configuration to show the violations of
+   */
+  public void showSnapshot(String configKey) {
+    if (Objects.equals(configKey, this.snapshotKey)) {
+      return;
+    }
+
+    LinkedHashMap<String, StoredFile> snapshotFiles = new LinkedHashMap<>(16, 0.75f, true);
+    Set<String> snapshotEvictedFiles = new HashSet<>();
+    long snapshotViolationCount = 0;
+    Iterator<Map.Entry<String, StoredFile>> iterator = this.storedFiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, StoredFile> storedFile = iterator.next();
+      if (!this.checkerService.usesProjectConfiguration(storedFile.getKey())) {
+        this.hideViolations(storedFile.getKey());
+        snapshotFiles.put(storedFile.getKey(), storedFile.getValue());
+        snapshotViolationCount += storedFile.getValue().violations.size();
+        iterator.remove();
+      }
+    }
+    this.evictedFiles.removeIf(fileName -> {
+      boolean switched = !this.checkerService.usesProjectConfiguration(fileName);
+      if (switched) {
+        snapshotEvictedFiles.add(fileName);
+      }
+      return switched;
+    });
+    this.storedViolations -= snapshotViolationCount;
+
+    if (this.snapshotKey != null) {
+      this.snapshots.put(
+          this.snapshotKey,
+          new Snapshot(snapshotFiles, snapshotEvictedFiles, snapshotViolationCount)
+      );
+      this.snapshotViolations += snapshotViolationCount;
+    }
+
+    Snapshot snapshot = this.snapshots.remove(configKey);
+    if (snapshot != null) {
+      this.snapshotViolations -= snapshot.violationCount;
+      snapshot.storedFiles.forEach((fileName, storedFile) -> {
+        // the project may have gotten a configuration of its own since the snapshot was taken
+        if (!this.checkerService.usesProjectConfiguration(fileName)) {
+          this.violationManager.addViolations(fileName, storedFile.violations);
+          this.storedFiles.put(fileName, storedFile);
+          this.storedViolations += storedFile.violations.size();
+        }
+      });
+      for (String fileName : snapshot.evictedFiles) {
+        if (!this.checkerService.usesProjectConfiguration(fileName)) {
+          this.evictedFiles.add(fileName);
+        }
+      }
+    }
+    this.snapshotKey = configKey;
+    this.evictToBudget(null);
+  }
+
+  /**
+   * Returns the configuration the shown violations of files checked with the configuration
+   * selected in the preferences belong to.
+   *
+   * @return the key of the shown snapshot, or null if none has been shown yet
+   */
+  public String getSnapshotKey() {
+    return this.snapshotKey;
+  }
+
+  /**
+   * Evicts the violations of every file in a package, typically one that is being closed.
+   * Like files evicted to stay within the memory budget, they are restored from the ResultCache
+   * when the overview of their project is opened or a report of it is exported.
+   *
+   * @param packageDirectory the directory of the package
+   */
+  public void evictPackage(File packageDirectory) {
+    Path packagePath = packageDirectory.toPath().toAbsolutePath();
+    this.evictFiles(file -> packagePath.equals(file.getParent()), true);
+  }
+
+  /**
+   * Drops the violations of every file in a project, including those in snapshots,
+   * typically one that has been closed, so its memory is freed right away.
+   *
+   * @param projectDirectory the root directory of the project
+   */
+  public void evictProject(File projectDirectory) {
+    Path projectPath = projectDirectory.toPath().toAbsolutePath();
+    this.evictFiles(file -> file.startsWith(projectPath), false);
+  }
+
+  /**
+   * Evicts or drops the violations of every file matching a predicate, shown or in snapshots.
+   *
+   * @param evicted the predicate deciding which files to evict, given their absolute path
+   * @param restorable true to keep the files as evicted, so they can be restored,
+   *     false to forget them altogether
+   */
+  private void evictFiles(Predicate<Path> evicted, boolean restorable) {
+    Iterator<Map.Entry<String, StoredFile>> iterator = this.storedFiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, StoredFile> storedFile = iterator.next();
+      if (evicted.test(Path.of(storedFile.getKey()))) {
+        this.hideViolations(storedFile.getKey());
+        this.storedViolations -= storedFile.getValue().violations.size();
+        if (restorable) {
+          this.evictedFiles.add(storedFile.getKey());
+        }
+        iterator.remove();
+      }
+    }
+    if (!restorable) {
+      this.evictedFiles.removeIf(fileName -> evicted.test(Path.of(fileName)));
+    }
+
+    for (Snapshot snapshot : this.snapshots.values()) {
+      this.snapshotViolations -= snapshot.evictFiles(evicted, restorable);
+    }
+  }
+
+  /**
+   * Restores the evicted files in a directory, typically a project whose overview is opened.
+   * The files are restored in the background, mostly from the ResultCache.
+   *
+   * @param directory the directory to restore evicted files in
+   *
+   * @return a Future completing once the files are restored, which are then published
+   *     with the next flush of the CheckerListener
+   */
+  public Future<Void> restoreEvicted(File directory) {
+    Path directoryPath = directory.toPath().toAbsolutePath();
+    List<File> filesToRestore = new ArrayList<>();
+    for (String fileName : this.evictedFiles) {
+      if (Path.of(fileName).startsWith(directoryPath)) {
+        filesToRestore.add(new File(fileName));
+      }
+    }
+
+    if (filesToRestore.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return this.checkerService.checkFilesAsync(
+        filesToRestore,
+        this.checkerService.getLastCharset()
+    );
+  }
+
+  /**
+   * Evicts the least recently updated files until the stored violations fit in the budget.
+   *
+   * @param keptFileName a file that is never evicted, or null
+   */
+  private void evictToBudget(String keptFileName) {
+    Iterator<Snapshot> snapshotIterator = this.snapshots.values().iterator();
+    while (this.storedViolations + this.snapshotViolations > this.maxViolations
+        && snapshotIterator.hasNext()) {
+      this.snapshotViolations -= snapshotIterator.next().violationCount;
+      snapshotIterator.remove();
+    }
+
+    Iterator<Map.Entry<String, StoredFile>> iterator = this.storedFiles.entrySet().iterator();
+    while (this.storedViolations > this.maxViolations && iterator.hasNext()) {
+      Map.Entry<String, StoredFile> storedFile = iterator.next();
+      if (storedFile.getKey().equals(keptFileName)) {
+        continue;
+      }
+
+      this.hideViolations(storedFile.getKey());
+      this.storedViolations -= storedFile.getValue().violations.size();
+      this.evictedFiles.add(storedFile.getKey());
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Represents the violations of a configuration that is not shown.
+   */
+  private static class Snapshot {
+    private LinkedHashMap<String, StoredFile> storedFiles;
+    private Set<String> evictedFiles;
+    private long violationCount;
+
+    private Snapshot(
+        LinkedHashMap<String, StoredFile> storedFiles,
+        Set<String> evictedFiles,
+        long violationCount
+    ) {
+      this.storedFiles = storedFiles;
+      this.evictedFiles = evictedFiles;
+      this.violationCount = violationCount;
+    }
+
+    /**
+     * Evicts or drops the violations of every file matching a predicate.
+     *
+     * @param evicted the predicate deciding which files to evict, given their absolute path
+     * @param restorable true to keep the files as evicted, false to forget them altogether
+     *
+     * @return the number of violations evicted
+     */
+    private long evictFiles(Predicate<Path> evicted, boolean restorable) {
+      long evictedCount = 0;
+      Iterator<Map.Entry<String, StoredFile>> iterator = this.storedFiles.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, StoredFile> storedFile = iterator.next();
+        if (evicted.test(Path.of(storedFile.getKey()))) {
+          evictedCount += storedFile.getValue().violations.size();
+          if (restorable) {
+            this.evictedFiles.add(storedFile.getKey());
+          }
+          iterator.remove();
+        }
+      }
+      if (!restorable) {
+        this.evictedFiles.removeIf(fileName -> evicted.test(Path.of(fileName)));
+      }
+      this.violationCount -= evictedCount;
+      return evictedCount;
+    }
+  }
+
+  /**
+   * Represents the violations of a single file, and the records they were created from.
+   */
+  private static class StoredFile {
+    private List<Violation> violations;
+    private List<ViolationRecord> violationRecords;
+
+    private StoredFile(List<Violation> violations, List<ViolationRecord> violationRecords) {
+      this.violations = violations;
+      this.violationRecords = violationRecords;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the time budget and size limit of files, and that files over the time budget
+ * are never cached.
+ */
+class AuditBudgetTest {
+  private static final File PROJECT = new File("/projects/shapes").getAbsoluteFile();
+  private static final String CIRCLE = new File(PROJECT, "Circle.java").getAbsolutePath();
+  private static final long BUDGET_MILLIS = 100;
+
+  @TempDir
+  Path tempDirectory;
+
+  private AuditBudget auditBudget;
+
+  @BeforeEach
+  void setUp() {
+    this.auditBudget = new AuditBudget();
+    this.auditBudget.setFileTimeBudgetMillis(BUDGET_MILLIS);
+  }
+
+  @Test
+  void filesWithinTheBudgetAreNotReported() {
+    assertNull(this.auditBudget.fileChecked(CIRCLE, millis(BUDGET_MILLIS)));
+    assertFalse(this.auditBudget.isDeferred(new File(CIRCLE)));
+  }
+
+  @Test
+  void filesOverTheBudgetAreReportedAndDeferred() {
+    Violation violation = this.auditBudget.fileChecked(CIRCLE, millis(BUDGET_MILLIS + 1));
+
+    assertNotNull(violation);
+    assertEquals(SeverityLevel.WARNING, violation.getSeverityLevel());
+    assertTrue(violation.getViolation().contains("101 ms"));
+    assertTrue(this.auditBudget.isDeferred(new File(CIRCLE)));
+  }
+
+  @Test
+  void filesBackWithinTheBudgetAreNoLongerDeferred() {
+    this.auditBudget.fileChecked(CIRCLE, millis(BUDGET_MILLIS * 2));
+
+    this.auditBudget.fileChecked(CIRCLE, millis(BUDGET_MILLIS / 2));
+
+    assertFalse(this.auditBudget.isDeferred(new File(CIRCLE)));
+  }
+
+  @Test
+  void noBudgetLetsFilesTakeAnyTime() {
+    this.auditBudget.setFileTimeBudgetMillis(0);
+
+    assertNull(this.auditBudget.fileChecked(CIRCLE, TimeUnit.HOURS.toNanos(1)));
+    assertFalse(this.auditBudget.isDeferred(new File(CIRCLE)));
+  }
+
+  @Test
+  void closedProjectsAreNoLongerDeferred() {
+    String otherFile = new File("/projects/other/Square.java").getAbsolutePath();
+    this.auditBudget.fileChecked(CIRCLE, millis(BUDGET_MILLIS * 2));
+    this.auditBudget.fileChecked(otherFile, millis(BUDGET_MILLIS * 2));
+
+    this.auditBudget.evictProject(new ProjectContext(PROJECT, null));
+
+    assertFalse(this.auditBudget.isDeferred(new File(CIRCLE)));
+    assertTrue(this.auditBudget.isDeferred(new File(otherFile)));
+  }
+
+  @Test
+  void filesOverTheSizeLimitAreOversized() {
+    assertFalse(this.auditBudget.isOversized(Long.MAX_VALUE));
+
+    this.auditBudget.setMaxFileSize(1024);
+
+    assertFalse(this.auditBudget.isOversized(1024));
+    assertTrue(this.auditBudget.isOversized(1025));
+    assertTrue(this.auditBudget.createOversizedViolation(4096).getViolation().contains("4 KB"));
+  }
+
+  @Test
+  void reportsAreToldApartFromChecks() {
+    Violation violation = this.auditBudget.fileChecked(CIRCLE, millis(BUDGET_MILLIS * 2));
+    AuditEvent auditEvent = new AuditEvent(this, CIRCLE, violation);
+
+    assertTrue(AuditBudget.isBudgetReport(auditEvent.getSourceName()));
+    assertTrue(AuditBudget.isBudgetReport(ViolationRecord.of(auditEvent)));
+    assertFalse(AuditBudget.isBudgetReport(
+        new ViolationRecord(1, 1, "warning", "MagicNumber", null, "A magic number.")
+    ));
+  }
+
+  @Test
+  void filesOverTheBudgetAreNotCached() throws IOException {
+    ResultCache resultCache = new ResultCache(this.tempDirectory.toFile());
+    ResultCacheRecorder resultCacheRecorder = new ResultCacheRecorder(resultCache);
+    resultCacheRecorder.setFingerprint("config-a");
+    String square = new File(PROJECT, "Square.java").getAbsolutePath();
+    resultCacheRecorder.expect(CIRCLE, "hash-1");
+    resultCacheRecorder.expect(square, "hash-2");
+
+    for (String fileName : List.of(CIRCLE, square)) {
+      AuditEvent fileEvent = new AuditEvent(this, fileName);
+      resultCacheRecorder.fileStarted(fileEvent);
+      if (fileName.equals(CIRCLE)) {
+        resultCacheRecorder.addError(new AuditEvent(
+            this,
+            fileName,
+            this.auditBudget.fileChecked(fileName, millis(BUDGET_MILLIS * 2))
+        ));
+      }
+      resultCacheRecorder.fileFinished(fileEvent);
+    }
+
+    assertNull(resultCache.get(CIRCLE, "hash-1", "config-a"));
+    assertNotNull(resultCache.get(square, "hash-2", "config-a"));
+  }
+
+  private static long millis(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+}
@@ -0,0 +1,60 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the progress of audit requests tracked by AuditMetrics.
+ */
+class AuditMetricsTest {
+  private final AuditMetrics auditMetrics = new AuditMetrics();
+
+  @Test
+  void filesOfTheTrackedRequestAreCounted() {
+    long sweep = this.auditMetrics.auditStarted(400);
+
+    this.auditMetrics.filesDone(sweep, 8);
+    this.auditMetrics.filesDone(sweep, 1);
+
+    assertEquals(400, this.auditMetrics.getAuditFileCount());
+    assertEquals(9, this.auditMetrics.getAuditFilesDone());
+  }
+
+  @Test
+  void singleFilesLeaveTheProgressAlone() {
+    long sweep = this.auditMetrics.auditStarted(400);
+    this.auditMetrics.filesDone(sweep, 8);
+
+    long save = this.auditMetrics.auditStarted(1);
+    this.auditMetrics.filesDone(save, 1);
+    this.auditMetrics.auditFinished(save);
+
+    assertEquals(400, this.auditMetrics.getAuditFileCount());
+    assertEquals(8, this.auditMetrics.getAuditFilesDone());
+    this.auditMetrics.auditFinished(sweep);
+    assertEquals(0, this.auditMetrics.getAuditFileCount());
+  }
+
+  @Test
+  void newerRequestsTakeOverTheProgress() {
+    long sweep = this.auditMetrics.auditStarted(400);
+    long otherSweep = this.auditMetrics.auditStarted(20);
+
+    this.auditMetrics.filesDone(sweep, 8);
+    this.auditMetrics.filesDone(otherSweep, 2);
+    this.auditMetrics.auditFinished(sweep);
+
+    assertEquals(20, this.auditMetrics.getAuditFileCount());
+    assertEquals(2, this.auditMetrics.getAuditFilesDone());
+  }
+
+  @Test
+  void untrackedFilesAreNotCounted() {
+    this.auditMetrics.auditStarted(400);
+
+    this.auditMetrics.filesDone(0, 1);
+
+    assertEquals(0, this.auditMetrics.getAuditFilesDone());
+  }
+}
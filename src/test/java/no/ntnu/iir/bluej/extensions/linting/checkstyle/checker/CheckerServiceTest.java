@@ -0,0 +1,337 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests scheduling and cancelling audits on the audit thread of the CheckerService.
+ * The audit thread is held up in a file of an earlier audit while the audits under test are
+ * scheduled, so they are all queued when it continues.
+ */
+class CheckerServiceTest {
+  private static final long TIMEOUT_SECONDS = 30;
+  private static final String CHARSET = "UTF-8";
+  private static final String CONFIG = "<?xml version=\"1.0\"?>\n"
+      + "<!DOCTYPE module PUBLIC \"-//Checkstyle//DTD Checkstyle Configuration 1.3//EN\"\n"
+      + "    \"https://checkstyle.org/dtds/configuration_1_3.dtd\">\n"
+      + "<module name=\"Checker\">\n"
+      + "  <module name=\"TreeWalker\">\n"
+      + "    <module name=\"MagicNumber\"/>\n"
+      + "  </module>\n"
+      + "</module>\n";
+
+  @TempDir
+  Path tempDirectory;
+
+  private CheckerService checkerService;
+  private RecordingListener recordingListener;
+  private Gate gate;
+  // (file name, priority), files not in it are of the current package
+  private final Map<String, AuditPriority> priorities = new HashMap<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Path configFile = this.tempDirectory.resolve("checks.xml");
+    Files.writeString(configFile, CONFIG);
+
+    this.checkerService = new CheckerService();
+    this.checkerService.setConfiguration(configFile.toString());
+    this.checkerService.setAuditPrioritizer(file -> this.priorities.getOrDefault(
+        file.getName(),
+        AuditPriority.CURRENT_PACKAGE
+    ));
+    this.recordingListener = new RecordingListener();
+    this.checkerService.addListener(this.recordingListener);
+    this.checkerService.enable();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (this.gate != null) {
+      this.gate.open();
+    }
+    this.checkerService.shutdown();
+  }
+
+  @Test
+  void cancelledAuditsStopBeforeTheNextFile() throws Exception {
+    List<File> files = this.writeClasses(this.tempDirectory, "Shape", 3);
+    Future<Void> audit = this.holdUpIn(files.get(0), files);
+
+    audit.cancel(false);
+    this.gate.open();
+    this.awaitIdle();
+
+    assertTrue(audit.isCancelled());
+    assertEquals(List.of("Shape0.java", "Idle.java"), this.recordingListener.getStartedFiles());
+  }
+
+  @Test
+  void cancellingTheAuditsOfADirectoryLeavesOtherDirectoriesAlone() throws Exception {
+    Path closedPackage = Files.createDirectories(this.tempDirectory.resolve("closed"));
+    Path openPackage = Files.createDirectories(this.tempDirectory.resolve("open"));
+    List<File> closedFiles = this.writeClasses(closedPackage, "Closed", 2);
+    List<File> openFiles = this.writeClasses(openPackage, "Open", 2);
+    File blocker = this.writeClass(this.tempDirectory, "Blocker", 1);
+    this.holdUpIn(blocker, List.of(blocker));
+
+    final Future<Void> closedAudit = this.checkerService.checkFilesAsync(closedFiles, CHARSET);
+    Future<Void> openAudit = this.checkerService.checkFilesAsync(openFiles, CHARSET);
+    this.checkerService.cancelAudits(closedPackage.toFile());
+    this.gate.open();
+    openAudit.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    assertTrue(closedAudit.isCancelled());
+    assertEquals(
+        List.of("Blocker.java", "Open0.java", "Open1.java"),
+        this.recordingListener.getStartedFiles()
+    );
+  }
+
+  @Test
+  void moreUrgentAuditsJumpAheadOfQueuedOnes() throws Exception {
+    final List<File> backgroundFiles = this.writeClasses(this.tempDirectory, "Background", 2);
+    final File currentFile = this.writeClass(this.tempDirectory, "Current", 1);
+    final File editedFile = this.writeClass(this.tempDirectory, "Edited", 1);
+    final File blocker = this.writeClass(this.tempDirectory, "Blocker", 1);
+    this.priorities.put("Background0.java", AuditPriority.BACKGROUND);
+    this.priorities.put("Background1.java", AuditPriority.BACKGROUND);
+    this.priorities.put("Edited.java", AuditPriority.EDITED);
+    this.holdUpIn(blocker, List.of(blocker));
+
+    List<Future<Void>> audits = List.of(
+        this.checkerService.checkFilesAsync(backgroundFiles, CHARSET),
+        this.checkerService.checkFileAsync(currentFile, CHARSET),
+        this.checkerService.checkFileAsync(editedFile, CHARSET)
+    );
+    this.gate.open();
+    for (Future<Void> audit : audits) {
+      audit.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    assertEquals(
+        List.of("Blocker.java", "Edited.java", "Current.java", "Background0.java",
+            "Background1.java"),
+        this.recordingListener.getStartedFiles()
+    );
+  }
+
+  @Test
+  void backgroundAuditsLetMoreUrgentAuditsRunBetweenTheirChunks() throws Exception {
+    List<File> backgroundFiles = this.writeClasses(this.tempDirectory, "Background", 10);
+    for (File backgroundFile : backgroundFiles) {
+      this.priorities.put(backgroundFile.getName(), AuditPriority.BACKGROUND);
+    }
+    File editedFile = this.writeClass(this.tempDirectory, "Edited", 1);
+    this.priorities.put("Edited.java", AuditPriority.EDITED);
+    Future<Void> backgroundAudit = this.holdUpIn(backgroundFiles.get(0), backgroundFiles);
+
+    Future<Void> editedAudit = this.checkerService.checkFileAsync(editedFile, CHARSET);
+    this.gate.open();
+    backgroundAudit.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    editedAudit.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    // the chunk already running is finished first
+    List<String> startedFiles = this.recordingListener.getStartedFiles();
+    assertEquals(11, startedFiles.size());
+    assertEquals(8, startedFiles.indexOf("Edited.java"));
+  }
+
+  @Test
+  void filesAuditedInParallelKeepTheirOwnViolations() throws Exception {
+    List<File> files = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      files.add(this.writeClass(this.tempDirectory, "Shape" + i, i + 1));
+    }
+    this.checkerService.setPoolSize(4);
+
+    this.checkerService.checkFilesAsync(files, CHARSET).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    Map<String, Integer> expectedErrors = new HashMap<>();
+    for (int i = 0; i < 16; i++) {
+      expectedErrors.put("Shape" + i + ".java", i + 1);
+    }
+    assertEquals(expectedErrors, this.recordingListener.getErrorCounts());
+    assertEquals(16, this.recordingListener.getStartedFiles().size());
+    assertEquals(16, this.recordingListener.getFinishedFiles().size());
+  }
+
+  /**
+   * Schedules an audit, and holds up the audit thread once it starts the given file.
+   *
+   * @param heldUpFile the file to hold up the audit thread in
+   * @param filesToCheck the files of the audit, including the file held up in
+   *
+   * @return the scheduled audit
+   */
+  private Future<Void> holdUpIn(File heldUpFile, List<File> filesToCheck) throws Exception {
+    this.gate = new Gate(heldUpFile.getAbsolutePath());
+    this.checkerService.addListener(this.gate);
+    Future<Void> audit = this.checkerService.checkFilesAsync(filesToCheck, CHARSET);
+    assertTrue(this.gate.reached.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    return audit;
+  }
+
+  /**
+   * Waits until every audit scheduled so far has run, by auditing a file after them.
+   */
+  private void awaitIdle() throws Exception {
+    File idleFile = this.writeClass(this.tempDirectory, "Idle", 0);
+    this.priorities.put("Idle.java", AuditPriority.BACKGROUND);
+    this.checkerService.checkFileAsync(idleFile, CHARSET).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private List<File> writeClasses(Path directory, String prefix, int count) throws IOException {
+    List<File> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      files.add(this.writeClass(directory, prefix + i, 1));
+    }
+    return files;
+  }
+
+  /**
+   * Writes a class with a number of magic numbers, each reported once.
+   *
+   * @param directory the directory to write the class to
+   * @param className the name of the class
+   * @param magicNumbers the number of magic numbers in the class
+   *
+   * @return the written file
+   */
+  private File writeClass(Path directory, String className, int magicNumbers) throws IOException {
+    StringBuilder source = new StringBuilder("public class " + className + " {\n");
+    for (int i = 0; i < magicNumbers; i++) {
+      source.append("  int field").append(i).append(" = ").append(100 + i).append(";\n");
+    }
+    source.append("}\n");
+    Path file = directory.resolve(className + ".java");
+    Files.writeString(file, source);
+    return file.toFile();
+  }
+
+  /**
+   * Represents a listener recording the files started and finished, and the number of
+   * violations of each file, from whichever thread audits them.
+   */
+  private static final class RecordingListener implements AuditListener {
+    private final List<String> startedFiles = new ArrayList<>();
+    private final List<String> finishedFiles = new ArrayList<>();
+    private final Map<String, Integer> errorCounts = new HashMap<>();
+
+    synchronized List<String> getStartedFiles() {
+      return List.copyOf(this.startedFiles);
+    }
+
+    synchronized List<String> getFinishedFiles() {
+      return List.copyOf(this.finishedFiles);
+    }
+
+    synchronized Map<String, Integer> getErrorCounts() {
+      return Map.copyOf(this.errorCounts);
+    }
+
+    @Override
+    public synchronized void fileStarted(AuditEvent auditEvent) {
+      this.startedFiles.add(new File(auditEvent.getFileName()).getName());
+    }
+
+    @Override
+    public synchronized void fileFinished(AuditEvent auditEvent) {
+      this.finishedFiles.add(new File(auditEvent.getFileName()).getName());
+    }
+
+    @Override
+    public synchronized void addError(AuditEvent auditEvent) {
+      this.errorCounts.merge(new File(auditEvent.getFileName()).getName(), 1, Integer::sum);
+    }
+
+    @Override
+    public void auditStarted(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void auditFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void addException(AuditEvent auditEvent, Throwable throwable) {
+      // do nothing
+    }
+  }
+
+  /**
+   * Represents a listener holding up the thread auditing a file until it is opened.
+   */
+  private static final class Gate implements AuditListener {
+    private final String fileName;
+    private final CountDownLatch reached = new CountDownLatch(1);
+    private final CountDownLatch opened = new CountDownLatch(1);
+
+    private Gate(String fileName) {
+      this.fileName = fileName;
+    }
+
+    void open() {
+      this.opened.countDown();
+    }
+
+    @Override
+    public void fileStarted(AuditEvent auditEvent) {
+      if (!this.fileName.equals(auditEvent.getFileName())) {
+        return;
+      }
+
+      this.reached.countDown();
+      try {
+        this.opened.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void fileFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void addError(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void auditStarted(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void auditFinished(AuditEvent auditEvent) {
+      // do nothing
+    }
+
+    @Override
+    public void addException(AuditEvent auditEvent, Throwable throwable) {
+      // do nothing
+    }
+  }
+}
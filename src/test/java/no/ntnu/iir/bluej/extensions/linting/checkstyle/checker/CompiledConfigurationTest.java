@@ -0,0 +1,90 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the fingerprint of a configuration follows the files it references.
+ */
+class CompiledConfigurationTest {
+  private static final String SUPPRESSIONS = "<?xml version=\"1.0\"?>\n"
+      + "<!DOCTYPE suppressions PUBLIC\n"
+      + "    \"-//Checkstyle//DTD SuppressionFilter Configuration 1.2//EN\"\n"
+      + "    \"https://checkstyle.org/dtds/suppressions_1_2.dtd\">\n"
+      + "<suppressions>%s</suppressions>\n";
+
+  @TempDir
+  Path tempDirectory;
+
+  private File configFile;
+  private File suppressionsFile;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.configFile = this.tempDirectory.resolve("checkstyle.xml").toFile();
+    this.suppressionsFile = this.tempDirectory.resolve("suppressions.xml").toFile();
+    write(this.suppressionsFile, String.format(SUPPRESSIONS, ""));
+    write(this.configFile, "<?xml version=\"1.0\"?>\n"
+        + "<!DOCTYPE module PUBLIC \"-//Checkstyle//DTD Checkstyle Configuration 1.3//EN\"\n"
+        + "    \"https://checkstyle.org/dtds/configuration_1_3.dtd\">\n"
+        + "<module name=\"Checker\">\n"
+        + "  <property name=\"cacheFile\" value=\"checkstyle.cache\"/>\n"
+        + "  <module name=\"SuppressionFilter\">\n"
+        + "    <property name=\"file\" value=\""
+        + this.suppressionsFile.getAbsolutePath() + "\"/>\n"
+        + "  </module>\n"
+        + "  <module name=\"TreeWalker\"><module name=\"MagicNumber\"/></module>\n"
+        + "</module>\n");
+  }
+
+  @Test
+  void referencedFilesAreFound() throws Exception {
+    CompiledConfiguration configuration = CompiledConfiguration.load(this.configFile.getPath());
+
+    assertEquals(
+        List.of(this.suppressionsFile.getAbsolutePath()),
+        CompiledConfiguration.getReferencedFiles(configuration.getConfiguration())
+    );
+  }
+
+  @Test
+  void changingAReferencedFileChangesTheFingerprint() throws Exception {
+    CompiledConfiguration configuration = CompiledConfiguration.load(this.configFile.getPath());
+    assertEquals(
+        configuration.getFingerprint(),
+        CompiledConfiguration.load(this.configFile.getPath()).getFingerprint()
+    );
+
+    write(this.suppressionsFile, String.format(SUPPRESSIONS, "<suppress checks=\".*\"/>"));
+    this.suppressionsFile.setLastModified(this.suppressionsFile.lastModified() + 2000);
+
+    assertFalse(configuration.isUpToDate());
+    assertNotEquals(
+        configuration.getFingerprint(),
+        CompiledConfiguration.load(this.configFile.getPath()).getFingerprint()
+    );
+  }
+
+  @Test
+  void unchangedReferencedFilesKeepTheConfigurationUpToDate() throws Exception {
+    CompiledConfiguration configuration = CompiledConfiguration.load(this.configFile.getPath());
+
+    assertTrue(configuration.isUpToDate());
+  }
+
+  private static void write(File file, String contents) throws IOException {
+    Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+  }
+}
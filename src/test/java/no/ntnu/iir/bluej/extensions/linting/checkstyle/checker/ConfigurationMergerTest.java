@@ -0,0 +1,224 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests merging configurations, and that the filters of each only apply to its own modules.
+ */
+class ConfigurationMergerTest {
+  private static final String CONFIG_HEADER = "<?xml version=\"1.0\"?>\n"
+      + "<!DOCTYPE module PUBLIC \"-//Checkstyle//DTD Checkstyle Configuration 1.3//EN\"\n"
+      + "    \"https://checkstyle.org/dtds/configuration_1_3.dtd\">\n";
+  private static final String SUPPRESSIONS_HEADER = "<?xml version=\"1.0\"?>\n"
+      + "<!DOCTYPE suppressions PUBLIC\n"
+      + "    \"-//Checkstyle//DTD SuppressionFilter Configuration 1.2//EN\"\n"
+      + "    \"https://checkstyle.org/dtds/suppressions_1_2.dtd\">\n";
+  private static final String MAGIC_NUMBER = "<module name=\"MagicNumber\">"
+      + "<property name=\"id\" value=\"magic\"/></module>";
+
+  @TempDir
+  Path tempDirectory;
+
+  @Test
+  void modulesAreTaggedWithTheirConfiguration() throws Exception {
+    List<String> moduleIds = this.audit(
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER
+            + "</module></module>",
+        "<module name=\"Checker\"><module name=\"TreeWalker\">"
+            + "<module name=\"MagicNumber\"/></module></module>"
+    );
+
+    assertEquals(List.of("Blue/magic", "Red/MagicNumber"), moduleIds);
+  }
+
+  @Test
+  void singleFiltersOnlySuppressTheirOwnConfiguration() throws Exception {
+    List<String> moduleIds = this.audit(
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER + "</module>"
+            + "<module name=\"SuppressionSingleFilter\">"
+            + "<property name=\"id\" value=\"magic\"/></module></module>",
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER
+            + "</module></module>"
+    );
+
+    assertEquals(List.of("Red/magic"), moduleIds);
+  }
+
+  @Test
+  void commentFiltersOnlySuppressTheirOwnConfiguration() throws Exception {
+    List<String> moduleIds = this.audit(
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER
+            + "<module name=\"SuppressWithNearbyCommentFilter\">"
+            + "<property name=\"commentFormat\" value=\"MAGIC\"/>"
+            + "<property name=\"idFormat\" value=\"^magic$\"/></module>"
+            + "</module></module>",
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER
+            + "</module></module>"
+    );
+
+    assertEquals(List.of("Red/magic"), moduleIds);
+  }
+
+  @Test
+  void suppressionsFilesOnlySuppressTheirOwnConfiguration() throws Exception {
+    File suppressions = this.tempDirectory.resolve("suppressions.xml").toFile();
+    write(suppressions, SUPPRESSIONS_HEADER
+        + "<suppressions><suppress id=\"magic\" files=\".*\"/></suppressions>");
+
+    List<String> moduleIds = this.audit(
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER + "</module>"
+            + "<module name=\"SuppressionFilter\">"
+            + "<property name=\"file\" value=\"" + suppressions.getAbsolutePath() + "\"/>"
+            + "</module></module>",
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER
+            + "</module></module>"
+    );
+
+    assertEquals(List.of("Red/magic"), moduleIds);
+  }
+
+  @Test
+  void severityIsInheritedFromTheOwnConfiguration() throws Exception {
+    Configuration merged = this.merge(
+        "<module name=\"Checker\"><property name=\"severity\" value=\"error\"/>"
+            + "<module name=\"TreeWalker\">" + MAGIC_NUMBER + "</module></module>",
+        "<module name=\"Checker\"><module name=\"TreeWalker\">" + MAGIC_NUMBER
+            + "</module></module>"
+    );
+
+    Configuration treeWalker = merged.getChildren()[0];
+    assertEquals("error", treeWalker.getChildren()[0].getProperty("severity"));
+    assertTrue(List.of(treeWalker.getChildren()[1].getPropertyNames()).indexOf("severity") < 0);
+  }
+
+  @Test
+  void ignoredPropertiesAreWarnedAbout() throws Exception {
+    List<String> warnings = new ArrayList<>();
+    Handler handler = new Handler() {
+      @Override
+      public void publish(LogRecord logRecord) {
+        warnings.add(logRecord.getMessage());
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    Logger logger = Logger.getLogger(ConfigurationMerger.class.getName());
+    logger.addHandler(handler);
+    try {
+      this.merge(
+          "<module name=\"Checker\"><property name=\"charset\" value=\"UTF-8\"/>"
+              + "<module name=\"TreeWalker\"><property name=\"tabWidth\" value=\"4\"/>"
+              + "</module></module>",
+          "<module name=\"Checker\"><property name=\"charset\" value=\"UTF-8\"/>"
+              + "<property name=\"fileExtensions\" value=\"java\"/>"
+              + "<module name=\"TreeWalker\"><property name=\"tabWidth\" value=\"8\"/>"
+              + "</module></module>"
+      );
+    } finally {
+      logger.removeHandler(handler);
+    }
+
+    assertEquals(2, warnings.size());
+    assertTrue(warnings.get(0).contains("fileExtensions"));
+    assertTrue(warnings.get(1).contains("tabWidth"));
+  }
+
+  private Configuration merge(String blueConfig, String redConfig) throws Exception {
+    Map<String, Configuration> namedConfigurations = new LinkedHashMap<>();
+    namedConfigurations.put("Blue", this.load("blue.xml", blueConfig));
+    namedConfigurations.put("Red", this.load("red.xml", redConfig));
+    return ConfigurationMerger.merge(namedConfigurations);
+  }
+
+  /**
+   * Audits a file with a magic number with two merged configurations, blue and red.
+   * The magic number is marked with a MAGIC comment for the comment filters.
+   *
+   * @return the sorted module ids of the violations
+   */
+  private List<String> audit(String blueConfig, String redConfig) throws Exception {
+    File javaFile = this.tempDirectory.resolve("Circle.java").toFile();
+    write(javaFile, "class Circle {\n  int radius = 42; // MAGIC\n}\n");
+
+    Checker checker = new Checker();
+    checker.setModuleClassLoader(Checker.class.getClassLoader());
+    checker.configure(this.merge(blueConfig, redConfig));
+    TreeSet<String> moduleIds = new TreeSet<>();
+    checker.addListener(new AuditListener() {
+      @Override
+      public void auditStarted(AuditEvent auditEvent) {
+      }
+
+      @Override
+      public void auditFinished(AuditEvent auditEvent) {
+      }
+
+      @Override
+      public void fileStarted(AuditEvent auditEvent) {
+      }
+
+      @Override
+      public void fileFinished(AuditEvent auditEvent) {
+      }
+
+      @Override
+      public void addError(AuditEvent auditEvent) {
+        moduleIds.add(auditEvent.getModuleId());
+      }
+
+      @Override
+      public void addException(AuditEvent auditEvent, Throwable throwable) {
+        throw new AssertionError(throwable);
+      }
+    });
+    try {
+      checker.process(List.of(javaFile));
+    } finally {
+      checker.destroy();
+    }
+    return new ArrayList<>(moduleIds);
+  }
+
+  private Configuration load(String fileName, String contents) throws Exception {
+    File configFile = this.tempDirectory.resolve(fileName).toFile();
+    write(configFile, CONFIG_HEADER + contents);
+    return ConfigurationLoader.loadConfiguration(
+        configFile.getAbsolutePath(),
+        new PropertiesExpander(new Properties())
+    );
+  }
+
+  private static void write(File file, String contents) throws IOException {
+    Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,163 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests downloading and revalidating remote configurations against a local HTTP server.
+ */
+class RemoteConfigCacheTest {
+  private static final String CONFIG_PATH = "/checkstyle.xml";
+
+  @TempDir
+  Path tempDirectory;
+
+  private HttpServer httpServer;
+  private RemoteConfigCache remoteConfigCache;
+  private String url;
+  // what the server serves, and the If-None-Match header of every request
+  private volatile String body;
+  private volatile String etag;
+  private final List<String> requestEtags = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.httpServer = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        0
+    );
+    this.httpServer.createContext(CONFIG_PATH, this::serve);
+    this.httpServer.start();
+    this.url = "http://localhost:" + this.httpServer.getAddress().getPort() + CONFIG_PATH;
+    this.remoteConfigCache = new RemoteConfigCache(this.tempDirectory.toFile());
+    this.body = "<module name=\"Checker\"/>";
+    this.etag = "\"v1\"";
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.httpServer.stop(0);
+    this.remoteConfigCache.shutdown();
+  }
+
+  @Test
+  void localPathsAreNotCached() throws IOException {
+    String localPath = "/configs/checkstyle.xml";
+
+    assertEquals(localPath, this.remoteConfigCache.resolve(localPath));
+    assertTrue(this.requestEtags().isEmpty());
+  }
+
+  @Test
+  void theFirstUseDownloadsTheConfiguration() throws IOException {
+    String localPath = this.remoteConfigCache.resolve(this.url);
+
+    assertEquals(this.body, read(localPath));
+    assertEquals(List.of(""), this.requestEtags());
+  }
+
+  @Test
+  void onlyRemoteConfigurationsWithoutALocalCopyWaitForADownload() throws IOException {
+    assertTrue(this.remoteConfigCache.hasLocalCopy("/configs/checkstyle.xml"));
+    assertFalse(this.remoteConfigCache.hasLocalCopy(this.url));
+
+    this.remoteConfigCache.resolve(this.url);
+
+    assertTrue(this.remoteConfigCache.hasLocalCopy(this.url));
+  }
+
+  @Test
+  void unchangedConfigurationsAreRevalidatedWithTheirEtag() throws IOException {
+    String localPath = this.remoteConfigCache.resolve(this.url);
+    File localCopy = new File(localPath);
+    final long downloadedAt = localCopy.lastModified();
+
+    this.remoteConfigCache.refresh(this.url);
+
+    assertEquals(List.of("", "\"v1\""), this.requestEtags());
+    assertEquals(this.body, read(localPath));
+    assertEquals(downloadedAt, localCopy.lastModified());
+  }
+
+  @Test
+  void changedConfigurationsReplaceTheLocalCopy() throws IOException {
+    final String localPath = this.remoteConfigCache.resolve(this.url);
+    this.body = "<module name=\"Checker\"><module name=\"TreeWalker\"/></module>";
+    this.etag = "\"v2\"";
+
+    this.remoteConfigCache.refresh(this.url);
+    this.remoteConfigCache.refresh(this.url);
+
+    assertEquals(this.body, read(localPath));
+    assertEquals(List.of("", "\"v1\"", "\"v2\""), this.requestEtags());
+  }
+
+  @Test
+  void theLocalCopyIsUsedOffline() throws IOException {
+    String localPath = this.remoteConfigCache.resolve(this.url);
+    final String downloadedBody = this.body;
+    this.httpServer.stop(0);
+
+    assertThrows(IOException.class, () -> this.remoteConfigCache.refresh(this.url));
+    assertEquals(localPath, new RemoteConfigCache(this.tempDirectory.toFile()).resolve(this.url));
+    assertEquals(downloadedBody, read(localPath));
+  }
+
+  @Test
+  void failedDownloadsKeepNoLocalCopy() throws IOException {
+    this.httpServer.stop(0);
+
+    assertThrows(IOException.class, () -> this.remoteConfigCache.resolve(this.url));
+    try (var files = Files.list(this.tempDirectory)) {
+      assertFalse(files.anyMatch(file -> file.toString().endsWith(".xml")));
+    }
+  }
+
+  private void serve(HttpExchange exchange) throws IOException {
+    String requestEtag = exchange.getRequestHeaders().getFirst("If-None-Match");
+    synchronized (this.requestEtags) {
+      this.requestEtags.add(requestEtag != null ? requestEtag : "");
+    }
+    exchange.getResponseHeaders().set("ETag", this.etag);
+    if (this.etag.equals(requestEtag)) {
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+
+    byte[] bytes = this.body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(bytes);
+    }
+  }
+
+  private List<String> requestEtags() {
+    synchronized (this.requestEtags) {
+      return List.copyOf(this.requestEtags);
+    }
+  }
+
+  private static String read(String path) throws IOException {
+    return Files.readString(Path.of(path), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,191 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the ResultCache, both in memory and persisted to disk.
+ */
+class ResultCacheTest {
+  private static final String FINGERPRINT = "config-a";
+
+  @TempDir
+  Path tempDirectory;
+
+  private File cacheDirectory;
+  private File projectRoot;
+  private File javaFile;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.cacheDirectory = this.tempDirectory.resolve("cache").toFile();
+    this.projectRoot = this.tempDirectory.resolve("project").toFile();
+    File packageDirectory = new File(this.projectRoot, "shapes");
+    Files.createDirectories(packageDirectory.toPath());
+    Files.createFile(new File(this.projectRoot, "package.bluej").toPath());
+    Files.createFile(new File(packageDirectory, "package.bluej").toPath());
+    this.javaFile = new File(packageDirectory, "Circle.java");
+    write(this.javaFile, "class Circle {}");
+  }
+
+  @Test
+  void getReturnsStoredViolations() {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    resultCache.put(this.javaFile.getPath(), "hash-1", FINGERPRINT, List.of(violation(3)));
+
+    List<ViolationRecord> violations = resultCache.get(
+        this.javaFile.getPath(), "hash-1", FINGERPRINT
+    );
+
+    assertNotNull(violations);
+    assertEquals(1, violations.size());
+    assertEquals(3, violations.get(0).getLine());
+  }
+
+  @Test
+  void getMissesChangedContentsAndOtherConfigurations() {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    resultCache.put(this.javaFile.getPath(), "hash-1", FINGERPRINT, List.of(violation(3)));
+
+    assertNull(resultCache.get(this.javaFile.getPath(), "hash-2", FINGERPRINT));
+    assertNull(resultCache.get(this.javaFile.getPath(), "hash-1", "config-b"));
+    assertNull(resultCache.get(
+        new File(this.javaFile.getParentFile(), "Square.java").getPath(), "hash-1", FINGERPRINT
+    ));
+  }
+
+  @Test
+  void resultsOfOtherConfigurationsAreKeptSideBySide() {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    resultCache.put(this.javaFile.getPath(), "hash-1", FINGERPRINT, List.of(violation(3)));
+    resultCache.put(this.javaFile.getPath(), "hash-1", "config-b", List.of());
+
+    assertEquals(1, resultCache.get(this.javaFile.getPath(), "hash-1", FINGERPRINT).size());
+    assertEquals(0, resultCache.get(this.javaFile.getPath(), "hash-1", "config-b").size());
+  }
+
+  @Test
+  void onlyTheLatestConfigurationsOfAFileAreKept() {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    for (int i = 0; i <= ResultCache.MAX_FINGERPRINTS_PER_FILE; i++) {
+      resultCache.put(this.javaFile.getPath(), "hash-1", "config-" + i, List.of());
+    }
+    // storing the first configuration again makes it the latest
+    resultCache.put(this.javaFile.getPath(), "hash-1", "config-1", List.of());
+    resultCache.flush();
+
+    ResultCache reloadedCache = new ResultCache(this.cacheDirectory);
+    reloadedCache.put(this.javaFile.getPath(), "hash-1", "config-new", List.of());
+
+    assertNull(reloadedCache.get(this.javaFile.getPath(), "hash-1", "config-0"));
+    assertNull(reloadedCache.get(this.javaFile.getPath(), "hash-1", "config-2"));
+    assertNotNull(reloadedCache.get(this.javaFile.getPath(), "hash-1", "config-1"));
+    assertNotNull(reloadedCache.get(this.javaFile.getPath(), "hash-1", "config-new"));
+  }
+
+  @Test
+  void flushedResultsAreRestoredByANewCache() {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    resultCache.put(this.javaFile.getPath(), "hash-1", FINGERPRINT, List.of(violation(7)));
+    resultCache.flush();
+
+    List<ViolationRecord> violations = new ResultCache(this.cacheDirectory).get(
+        this.javaFile.getPath(), "hash-1", FINGERPRINT
+    );
+
+    assertNotNull(violations);
+    ViolationRecord violationRecord = violations.get(0);
+    assertEquals(7, violationRecord.getLine());
+    assertEquals(2, violationRecord.getColumn());
+    assertEquals("warning", violationRecord.getSeverity());
+    assertEquals("MagicNumber", violationRecord.getRule());
+    assertEquals("magicNumber", violationRecord.getModuleId());
+    assertEquals("'42' is a magic number.", violationRecord.getMessage());
+  }
+
+  @Test
+  void unloadProjectWritesItsResultsBeforeDroppingThem() {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    resultCache.put(this.javaFile.getPath(), "hash-1", FINGERPRINT, List.of(violation(3)));
+    resultCache.unloadProject(this.projectRoot);
+
+    assertNotNull(resultCache.get(this.javaFile.getPath(), "hash-1", FINGERPRINT));
+  }
+
+  @Test
+  void resultsOfDeletedFilesAreDroppedOnLoad() throws IOException {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    resultCache.put(this.javaFile.getPath(), "hash-1", FINGERPRINT, List.of(violation(3)));
+    resultCache.flush();
+    Files.delete(this.javaFile.toPath());
+
+    assertNull(new ResultCache(this.cacheDirectory).get(
+        this.javaFile.getPath(), "hash-1", FINGERPRINT
+    ));
+  }
+
+  @Test
+  void unreadableCacheFilesAreDiscarded() throws IOException {
+    ResultCache resultCache = new ResultCache(this.cacheDirectory);
+    resultCache.put(this.javaFile.getPath(), "hash-1", FINGERPRINT, List.of(violation(3)));
+    resultCache.flush();
+    try (var cacheFiles = Files.list(this.cacheDirectory.toPath())) {
+      for (Path cacheFile : (Iterable<Path>) cacheFiles::iterator) {
+        Files.writeString(cacheFile, "{ not json");
+      }
+    }
+
+    assertNull(new ResultCache(this.cacheDirectory).get(
+        this.javaFile.getPath(), "hash-1", FINGERPRINT
+    ));
+  }
+
+  @Test
+  void projectRootIsTheOutermostPackageDirectory() {
+    assertEquals(
+        this.projectRoot.getAbsoluteFile(),
+        ResultCache.findProjectRoot(this.javaFile)
+    );
+    File looseFile = this.tempDirectory.resolve("Loose.java").toFile();
+    assertEquals(
+        this.tempDirectory.toFile().getAbsoluteFile(),
+        ResultCache.findProjectRoot(looseFile)
+    );
+  }
+
+  @Test
+  void hashFileFollowsTheContents() throws IOException {
+    String hash = ResultCache.hashFile(this.javaFile);
+    assertEquals(hash, ResultCache.hashFile(this.javaFile));
+
+    write(this.javaFile, "class Circle { }");
+    assertNotEquals(hash, ResultCache.hashFile(this.javaFile));
+  }
+
+  @Test
+  void hashStringsSeparatesValues() {
+    assertNotEquals(ResultCache.hashStrings("ab", "c"), ResultCache.hashStrings("a", "bc"));
+  }
+
+  private static ViolationRecord violation(int line) {
+    return new ViolationRecord(
+        line, 2, "warning", "MagicNumber", "magicNumber", "'42' is a magic number."
+    );
+  }
+
+  private static void write(File file, String contents) throws IOException {
+    Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,51 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests which violations share a RuleDefinition.
+ */
+class RuleDefinitionPoolTest {
+  private final RuleDefinitionPool ruleDefinitionPool = new RuleDefinitionPool();
+
+  @Test
+  void violationsOfTheSameModuleAndSeverityShareADefinition() {
+    assertSame(
+        this.ruleDefinitionPool.get(record("warning", "MagicNumber", null, "'42' is magic")),
+        this.ruleDefinitionPool.get(record("warning", "MagicNumber", null, "'7' is magic"))
+    );
+    assertEquals(1, this.ruleDefinitionPool.size());
+  }
+
+  @Test
+  void modulesAndSeveritiesHaveDefinitionsOfTheirOwn() {
+    ViolationRecord warning = record("warning", "LineLength", null, "Line is too long");
+
+    assertNotSame(
+        this.ruleDefinitionPool.get(warning),
+        this.ruleDefinitionPool.get(record("error", "LineLength", null, "Line is too long"))
+    );
+    assertNotSame(
+        this.ruleDefinitionPool.get(warning),
+        this.ruleDefinitionPool.get(record("warning", "LineLength", "Google/LineLength", "x"))
+    );
+    assertNotSame(
+        this.ruleDefinitionPool.get(warning),
+        this.ruleDefinitionPool.get(record("warning", "MagicNumber", "LineLength", "x"))
+    );
+    assertEquals(4, this.ruleDefinitionPool.size());
+  }
+
+  private static ViolationRecord record(
+      String severity,
+      String rule,
+      String moduleId,
+      String message
+  ) {
+    return new ViolationRecord(1, 1, severity, rule, moduleId, message);
+  }
+}
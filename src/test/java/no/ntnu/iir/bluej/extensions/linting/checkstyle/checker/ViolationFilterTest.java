@@ -0,0 +1,156 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests which violations a ViolationFilter shows, on its own and for merged configurations.
+ */
+class ViolationFilterTest {
+  private static final String FILE_NAME = "/projects/shapes/Circle.java";
+
+  @Test
+  void violationsBelowTheMinimumSeverityAreDropped() {
+    ViolationFilter filter = new ViolationFilter("warning", null, null, 0);
+
+    assertFalse(filter.accepts(violation("info", "MagicNumber", null)));
+    assertTrue(filter.accepts(violation("warning", "MagicNumber", null)));
+    assertTrue(filter.accepts(violation("error", "MagicNumber", null)));
+  }
+
+  @Test
+  void modulesAreMatchedByNameOrId() {
+    ViolationFilter filter = new ViolationFilter(null, null, List.of("MagicNumber", "long"), 0);
+
+    assertFalse(filter.accepts(violation("warning", "MagicNumber", null)));
+    assertFalse(filter.accepts(violation("warning", "LineLength", "long")));
+    assertTrue(filter.accepts(violation("warning", "LineLength", null)));
+  }
+
+  @Test
+  void onlyAllowedModulesAreShown() {
+    ViolationFilter filter = new ViolationFilter(null, List.of("LineLength"), null, 0);
+
+    assertTrue(filter.accepts(violation("warning", "LineLength", null)));
+    assertFalse(filter.accepts(violation("warning", "MagicNumber", null)));
+  }
+
+  @Test
+  void eventsAreMatchedByTheirCheckClass() {
+    ViolationFilter filter = new ViolationFilter(null, null, List.of("MagicNumber"), 0);
+
+    assertFalse(filter.accepts(event(null)));
+    assertTrue(ViolationFilter.showAll().accepts(event(null)));
+  }
+
+  @Test
+  void filesAreFullAtTheMaximum() {
+    ViolationFilter filter = new ViolationFilter(null, null, null, 2);
+
+    assertFalse(filter.isFull("MagicNumber", violations(1, null)));
+    assertTrue(filter.isFull("MagicNumber", violations(2, null)));
+    assertFalse(ViolationFilter.showAll().isFull("MagicNumber", violations(1000, null)));
+  }
+
+  @Test
+  void mergedConfigsAreFilteredByTheirOwnFilter() {
+    ViolationFilter filter = ViolationFilter.forMergedConfigs(Map.of(
+        "Google", new ViolationFilter("error", null, null, 0),
+        "Sun", new ViolationFilter("info", null, List.of("MagicNumber"), 0)
+    ));
+
+    assertFalse(filter.accepts(violation("warning", "LineLength", "Google/LineLength")));
+    assertTrue(filter.accepts(violation("error", "MagicNumber", "Google/MagicNumber")));
+    assertTrue(filter.accepts(violation("warning", "LineLength", "Sun/LineLength")));
+    assertFalse(filter.accepts(violation("error", "MagicNumber", "Sun/MagicNumber")));
+    assertFalse(filter.accepts(event("Sun/MagicNumber")));
+    assertFalse(filter.accepts(event("Google/MagicNumber")));
+    assertTrue(filter.accepts(event(null)));
+  }
+
+  @Test
+  void checkClassNamesMatchAuditsAndRestoredViolationsAlike() {
+    ViolationFilter filter = new ViolationFilter(
+        null, null, List.of("MagicNumberCheck", "com.example.checks.LineLengthCheck"), 0
+    );
+
+    assertFalse(filter.accepts(event(null)));
+    assertFalse(filter.accepts(violation("warning", "MagicNumber", null)));
+    assertFalse(filter.accepts(violation("warning", "LineLength", null)));
+    assertTrue(filter.accepts(violation("warning", "JavadocType", null)));
+  }
+
+  @Test
+  void mergedConfigsMatchIdsWithoutTheirTag() {
+    ViolationFilter filter = ViolationFilter.forMergedConfigs(Map.of(
+        "Google", new ViolationFilter(null, List.of("magic"), null, 0),
+        "Sun", new ViolationFilter(null, null, List.of("magic"), 0)
+    ));
+
+    assertTrue(filter.accepts(violation("warning", "MagicNumber", "Google/magic")));
+    assertFalse(filter.accepts(violation("warning", "LineLength", "Google/long")));
+    assertFalse(filter.accepts(violation("warning", "MagicNumber", "Sun/magic")));
+    assertTrue(filter.accepts(violation("warning", "MagicNumber", "Sun/magical")));
+    assertTrue(filter.accepts(event("Google/magic")));
+    assertFalse(filter.accepts(event("Sun/magic")));
+  }
+
+  @Test
+  void mergedConfigsAreCappedOnTheirOwn() {
+    ViolationFilter filter = ViolationFilter.forMergedConfigs(Map.of(
+        "Google", new ViolationFilter(null, null, null, 2),
+        "Sun", new ViolationFilter(null, null, null, 3)
+    ));
+    List<ViolationRecord> shownViolations = new ArrayList<>();
+    shownViolations.addAll(violations(2, "Google/MagicNumber"));
+    shownViolations.addAll(violations(2, "Sun/MagicNumber"));
+
+    assertTrue(filter.isFull("Google/LineLength", shownViolations));
+    assertFalse(filter.isFull("Sun/LineLength", shownViolations));
+    shownViolations.addAll(violations(1, "Sun/MagicNumber"));
+    assertTrue(filter.isFull("Sun/LineLength", shownViolations));
+  }
+
+  @Test
+  void mergedConfigsWithoutAFilterShowEverything() {
+    ViolationFilter filter = ViolationFilter.forMergedConfigs(Map.of(
+        "Google", new ViolationFilter("error", null, null, 1)
+    ));
+    List<ViolationRecord> shownViolations = violations(5, "Sun/MagicNumber");
+
+    assertTrue(filter.accepts(violation("info", "MagicNumber", "Sun/MagicNumber")));
+    assertFalse(filter.isFull("Sun/MagicNumber", shownViolations));
+    assertFalse(filter.isFull("Google/MagicNumber", shownViolations));
+  }
+
+  private static ViolationRecord violation(String severity, String rule, String moduleId) {
+    return new ViolationRecord(1, 1, severity, rule, moduleId, "A violation.");
+  }
+
+  private static List<ViolationRecord> violations(int count, String moduleId) {
+    return Collections.nCopies(count, violation("warning", "MagicNumber", moduleId));
+  }
+
+  private static AuditEvent event(String moduleId) {
+    return new AuditEvent(ViolationFilterTest.class, FILE_NAME, new Violation(
+        1,
+        "messages",
+        "magic.number",
+        new Object[] {"42"},
+        SeverityLevel.WARNING,
+        moduleId,
+        MagicNumberCheck.class,
+        null
+    ));
+  }
+}
@@ -0,0 +1,179 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puppycrawl.tools.checkstyle.Checker;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests exporting violations as SARIF, Checkstyle XML and JSON reports.
+ */
+class ViolationReportWriterTest {
+  @TempDir
+  File tempDirectory;
+
+  private File projectRoot;
+  private File reportFile;
+  private String circleFile;
+  private String looseFile;
+  private Map<String, List<ViolationRecord>> violations;
+
+  @BeforeEach
+  void setUp() {
+    this.projectRoot = new File(this.tempDirectory, "shapes project");
+    this.reportFile = new File(this.tempDirectory, "report");
+    this.circleFile = new File(this.projectRoot, "round/Circle.java").getAbsolutePath();
+    this.looseFile = new File(this.tempDirectory, "Loose.java").getAbsolutePath();
+    this.violations = new LinkedHashMap<>();
+    this.violations.put(this.circleFile, List.of(
+        new ViolationRecord(3, 14, "warning", "MagicNumber", null, "'42' is a magic number."),
+        new ViolationRecord(0, 0, "error", "FileTabCharacter", null, "File contains \"tabs\".")
+    ));
+    this.violations.put(this.looseFile, List.of(
+        new ViolationRecord(1, 1, "info", "JavadocType", "docs", "Missing a <javadoc>.")
+    ));
+  }
+
+  @Test
+  void sarifHasAResultPerViolation() throws Exception {
+    this.write(ReportFormat.SARIF);
+
+    JsonNode run = new ObjectMapper().readTree(this.reportFile).get("runs").get(0);
+    assertEquals("Checkstyle", run.at("/tool/driver/name").asText());
+    assertEquals(checkstyleVersion(), run.at("/tool/driver/version").asText());
+    assertEquals(
+        this.projectRoot.toPath().toAbsolutePath().toUri().toString(),
+        run.at("/originalUriBaseIds/SRCROOT/uri").asText()
+    );
+    JsonNode results = run.get("results");
+    assertEquals(3, results.size());
+
+    JsonNode magicNumber = results.get(0);
+    assertEquals("MagicNumber", magicNumber.get("ruleId").asText());
+    assertEquals("warning", magicNumber.get("level").asText());
+    assertEquals("'42' is a magic number.", magicNumber.at("/message/text").asText());
+    JsonNode location = magicNumber.at("/locations/0/physicalLocation");
+    assertEquals("round/Circle.java", location.at("/artifactLocation/uri").asText());
+    assertEquals("SRCROOT", location.at("/artifactLocation/uriBaseId").asText());
+    assertEquals(3, location.at("/region/startLine").asInt());
+    assertEquals(14, location.at("/region/startColumn").asInt());
+
+    JsonNode tabs = results.get(1);
+    assertEquals("error", tabs.get("level").asText());
+    assertTrue(tabs.at("/locations/0/physicalLocation/region").isMissingNode());
+
+    JsonNode javadoc = results.get(2);
+    assertEquals("note", javadoc.get("level").asText());
+    JsonNode looseLocation = javadoc.at("/locations/0/physicalLocation/artifactLocation");
+    assertEquals(new File(this.looseFile).toURI(), new URI(looseLocation.get("uri").asText()));
+    assertFalse(looseLocation.has("uriBaseId"));
+  }
+
+  @Test
+  void checkstyleXmlMatchesTheXmlLogger() throws Exception {
+    this.write(ReportFormat.CHECKSTYLE_XML);
+
+    Element checkstyle = DocumentBuilderFactory.newInstance()
+        .newDocumentBuilder()
+        .parse(this.reportFile)
+        .getDocumentElement();
+    assertEquals("checkstyle", checkstyle.getTagName());
+    assertEquals(checkstyleVersion(), checkstyle.getAttribute("version"));
+    NodeList files = checkstyle.getElementsByTagName("file");
+    assertEquals(2, files.getLength());
+
+    Element circle = (Element) files.item(0);
+    assertEquals(this.circleFile, circle.getAttribute("name"));
+    NodeList errors = circle.getElementsByTagName("error");
+    assertEquals(2, errors.getLength());
+    Element magicNumber = (Element) errors.item(0);
+    assertEquals("3", magicNumber.getAttribute("line"));
+    assertEquals("14", magicNumber.getAttribute("column"));
+    assertEquals("warning", magicNumber.getAttribute("severity"));
+    assertEquals("'42' is a magic number.", magicNumber.getAttribute("message"));
+    assertEquals("MagicNumber", magicNumber.getAttribute("source"));
+    Element tabs = (Element) errors.item(1);
+    assertEquals("0", tabs.getAttribute("line"));
+    assertFalse(tabs.hasAttribute("column"));
+    assertEquals("File contains \"tabs\".", tabs.getAttribute("message"));
+
+    Element loose = (Element) files.item(1);
+    Element javadoc = (Element) loose.getElementsByTagName("error").item(0);
+    assertEquals("Missing a <javadoc>.", javadoc.getAttribute("message"));
+  }
+
+  @Test
+  void jsonMatchesTheBatchReports() throws Exception {
+    this.write(ReportFormat.JSON);
+
+    JsonNode report = new ObjectMapper().readTree(this.reportFile);
+    assertEquals(
+        this.projectRoot.toPath().toAbsolutePath().toString(),
+        report.get("project").asText()
+    );
+    JsonNode files = report.get("files");
+    assertEquals(2, files.size());
+    assertEquals(
+        new File("round", "Circle.java").getPath(),
+        files.get(0).get("file").asText()
+    );
+    assertEquals(this.looseFile, files.get(1).get("file").asText());
+
+    JsonNode magicNumber = files.get(0).get("violations").get(0);
+    assertEquals(3, magicNumber.get("line").asInt());
+    assertEquals(14, magicNumber.get("column").asInt());
+    assertEquals("warning", magicNumber.get("severity").asText());
+    assertEquals("MagicNumber", magicNumber.get("rule").asText());
+    assertEquals("'42' is a magic number.", magicNumber.get("message").asText());
+    assertEquals("docs", files.get(1).get("violations").get(0).get("moduleId").asText());
+  }
+
+  @Test
+  void emptyReportsAreStillValid() throws Exception {
+    for (ReportFormat reportFormat : ReportFormat.values()) {
+      new ViolationReportWriter(this.projectRoot).write(Map.of(), this.reportFile, reportFormat);
+
+      if (reportFormat == ReportFormat.CHECKSTYLE_XML) {
+        DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(this.reportFile);
+      } else {
+        assertTrue(new ObjectMapper().readTree(this.reportFile).isObject());
+      }
+    }
+  }
+
+  /**
+   * Returns the version of Checkstyle from its own Maven metadata, not from a manifest,
+   * which is that of the extension once shaded.
+   */
+  private static String checkstyleVersion() throws IOException {
+    Properties properties = new Properties();
+    try (InputStream inputStream = Checker.class.getClassLoader().getResourceAsStream(
+        "META-INF/maven/com.puppycrawl.tools/checkstyle/pom.properties"
+    )) {
+      properties.load(inputStream);
+    }
+    return properties.getProperty("version");
+  }
+
+  private void write(ReportFormat reportFormat) throws Exception {
+    new ViolationReportWriter(this.projectRoot)
+        .write(this.violations, this.reportFile, reportFormat);
+  }
+}
@@ -0,0 +1,302 @@
+package no.ntnu.iir.bluej.extensions.linting.checkstyle.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import no.ntnu.iir.bluej.extensions.linting.core.violations.Violation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the eviction of violations from the ViolationStore, and restoring evicted files.
+ */
+class ViolationStoreTest {
+  // the estimated size of a violation, so a budget can be given in violations
+  private static final long BYTES_PER_VIOLATION = 256;
+
+  private static final File PROJECT = new File("/projects/shapes").getAbsoluteFile();
+  private static final File PACKAGE = new File(PROJECT, "circles");
+  private static final File OTHER_PACKAGE = new File(PROJECT, "squares");
+
+  private RecordingViolationManager violationManager;
+  private RestoringCheckerService checkerService;
+  private ViolationStore violationStore;
+
+  @BeforeEach
+  void setUp() {
+    this.violationManager = new RecordingViolationManager();
+    this.checkerService = new RestoringCheckerService();
+    this.violationStore = new ViolationStore(this.violationManager, this.checkerService);
+    this.violationManager.setViolationStore(this.violationStore);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.checkerService.shutdown();
+  }
+
+  @Test
+  void leastRecentlyUpdatedFilesAreEvictedOverBudget() {
+    this.violationStore.setMemoryBudget(10 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(PACKAGE, "B"), 4);
+    this.store(fileIn(PACKAGE, "C"), 4);
+
+    assertEquals(
+        Set.of(fileIn(PACKAGE, "B"), fileIn(PACKAGE, "C")),
+        this.violationStore.getShownViolations().keySet()
+    );
+    assertEquals(this.violationStore.getShownViolations().keySet(), this.violationManager.files());
+  }
+
+  @Test
+  void theUpdatedFileIsNeverEvicted() {
+    this.violationStore.setMemoryBudget(5 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 2);
+    this.store(fileIn(PACKAGE, "B"), 8);
+
+    assertEquals(Set.of(fileIn(PACKAGE, "B")), this.violationStore.getShownViolations().keySet());
+  }
+
+  @Test
+  void loweringTheBudgetEvictsFiles() {
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(PACKAGE, "B"), 4);
+
+    this.violationStore.setMemoryBudget(4 * BYTES_PER_VIOLATION);
+
+    assertEquals(Set.of(fileIn(PACKAGE, "B")), this.violationStore.getShownViolations().keySet());
+  }
+
+  @Test
+  void evictedFilesAreRestoredThroughTheCheckerService() {
+    this.violationStore.setMemoryBudget(4 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(OTHER_PACKAGE, "B"), 4);
+
+    this.violationStore.restoreEvicted(PROJECT);
+
+    assertEquals(Set.of(fileIn(PACKAGE, "A")), this.checkerService.restoredFiles());
+  }
+
+  @Test
+  void restoringNothingCompletesAtOnce() {
+    this.store(fileIn(PACKAGE, "A"), 4);
+
+    Future<Void> restored = this.violationStore.restoreEvicted(PROJECT);
+
+    assertTrue(restored.isDone());
+    assertTrue(this.checkerService.restoredFiles().isEmpty());
+  }
+
+  @Test
+  void updatedFilesAreNoLongerEvicted() {
+    this.violationStore.setMemoryBudget(4 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(PACKAGE, "B"), 4);
+    this.violationStore.removeViolations(fileIn(PACKAGE, "B"));
+    this.store(fileIn(PACKAGE, "A"), 2);
+
+    this.violationStore.restoreEvicted(PROJECT);
+
+    assertTrue(this.checkerService.restoredFiles().isEmpty());
+  }
+
+  @Test
+  void closedPackagesAreEvictedAndRestorable() {
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(OTHER_PACKAGE, "B"), 4);
+
+    this.violationStore.evictPackage(PACKAGE);
+
+    assertEquals(
+        Set.of(fileIn(OTHER_PACKAGE, "B")),
+        this.violationStore.getShownViolations().keySet()
+    );
+    assertFalse(this.violationManager.files().contains(fileIn(PACKAGE, "A")));
+    this.violationStore.restoreEvicted(PROJECT);
+    assertEquals(Set.of(fileIn(PACKAGE, "A")), this.checkerService.restoredFiles());
+  }
+
+  @Test
+  void closingAPackageKeepsFilesEvictedOverBudget() {
+    this.violationStore.setMemoryBudget(4 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(PACKAGE, "B"), 4);
+
+    this.violationStore.evictPackage(PACKAGE);
+
+    this.violationStore.restoreEvicted(PROJECT);
+    assertEquals(
+        Set.of(fileIn(PACKAGE, "A"), fileIn(PACKAGE, "B")),
+        this.checkerService.restoredFiles()
+    );
+  }
+
+  @Test
+  void closedProjectsAreDroppedAltogether() {
+    this.violationStore.setMemoryBudget(4 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(OTHER_PACKAGE, "B"), 4);
+
+    this.violationStore.evictProject(PROJECT);
+
+    assertTrue(this.violationStore.getShownViolations().isEmpty());
+    assertTrue(this.violationManager.files().isEmpty());
+    this.violationStore.restoreEvicted(PROJECT);
+    assertTrue(this.checkerService.restoredFiles().isEmpty());
+  }
+
+  @Test
+  void snapshotsAreDroppedBeforeShownViolations() {
+    this.violationStore.setMemoryBudget(8 * BYTES_PER_VIOLATION);
+    this.violationStore.showSnapshot("google");
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.violationStore.showSnapshot("sun");
+    this.store(fileIn(PACKAGE, "A"), 6);
+
+    this.violationStore.showSnapshot("google");
+
+    // the sun snapshot is kept, the google snapshot was dropped to fit the budget
+    assertTrue(this.violationStore.getShownViolations().isEmpty());
+    this.violationStore.showSnapshot("sun");
+    assertEquals(
+        6,
+        this.violationStore.getShownViolations().get(fileIn(PACKAGE, "A")).size()
+    );
+  }
+
+  @Test
+  void snapshotsKeepTheirViolations() {
+    this.violationStore.showSnapshot("google");
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.violationStore.showSnapshot("sun");
+
+    assertTrue(this.violationStore.getShownViolations().isEmpty());
+    assertTrue(this.violationManager.files().isEmpty());
+
+    this.violationStore.showSnapshot("google");
+    assertEquals(Set.of(fileIn(PACKAGE, "A")), this.violationManager.files());
+  }
+
+  @Test
+  void filesRemovedFromTheViolationManagerAreDroppedFromTheStore() {
+    this.violationStore.setMemoryBudget(8 * BYTES_PER_VIOLATION);
+    this.violationStore.showSnapshot("google");
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.violationStore.showSnapshot("sun");
+    this.store(fileIn(PACKAGE, "A"), 2);
+    this.store(fileIn(PACKAGE, "B"), 2);
+
+    // as done by the handlers of BlueJ-Linting-Core when a class is removed
+    this.violationManager.removeViolations(fileIn(PACKAGE, "A"));
+
+    assertEquals(Set.of(fileIn(PACKAGE, "B")), this.violationStore.getShownViolations().keySet());
+    assertEquals(Set.of(fileIn(PACKAGE, "B")), this.violationManager.files());
+    this.violationStore.showSnapshot("google");
+    assertTrue(this.violationStore.getShownViolations().isEmpty());
+    assertTrue(this.violationManager.files().isEmpty());
+  }
+
+  @Test
+  void violationsRemovedFromTheViolationManagerNoLongerCountTowardsTheBudget() {
+    this.violationStore.setMemoryBudget(8 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 6);
+    this.violationManager.removeViolations(fileIn(PACKAGE, "A"));
+    this.store(fileIn(PACKAGE, "B"), 4);
+    this.store(fileIn(PACKAGE, "C"), 4);
+
+    assertEquals(
+        Set.of(fileIn(PACKAGE, "B"), fileIn(PACKAGE, "C")),
+        this.violationStore.getShownViolations().keySet()
+    );
+    this.violationStore.restoreEvicted(PROJECT);
+    assertTrue(this.checkerService.restoredFiles().isEmpty());
+  }
+
+  @Test
+  void clearingTheViolationManagerDropsEveryFile() {
+    this.violationStore.setMemoryBudget(4 * BYTES_PER_VIOLATION);
+    this.store(fileIn(PACKAGE, "A"), 4);
+    this.store(fileIn(PACKAGE, "B"), 4);
+
+    this.violationManager.clearViolations();
+
+    assertTrue(this.violationStore.getShownViolations().isEmpty());
+    this.violationStore.restoreEvicted(PROJECT);
+    assertTrue(this.checkerService.restoredFiles().isEmpty());
+  }
+
+  private void store(String fileName, int violationCount) {
+    List<ViolationRecord> violationRecords = new ArrayList<>();
+    for (int line = 1; line <= violationCount; line++) {
+      violationRecords.add(
+          new ViolationRecord(line, 1, "warning", "MagicNumber", null, "A magic number.")
+      );
+    }
+    // the store only counts and hands over the violations, so they need not be created
+    List<Violation> violations = Collections.nCopies(violationCount, null);
+    this.violationStore.replaceViolations(fileName, violations, violationRecords);
+  }
+
+  private static String fileIn(File directory, String className) {
+    return new File(directory, className + ".java").getAbsolutePath();
+  }
+
+  /**
+   * Represents a StoreViolationManager recording which files it shows.
+   */
+  private static class RecordingViolationManager extends StoreViolationManager {
+    private final Map<String, List<Violation>> shownFiles = new HashMap<>();
+
+    @Override
+    public void addViolations(String fileName, List<Violation> violations) {
+      this.shownFiles.put(fileName, violations);
+    }
+
+    @Override
+    public void removeViolations(String fileName) {
+      super.removeViolations(fileName);
+      this.shownFiles.remove(fileName);
+    }
+
+    @Override
+    public void clearViolations() {
+      super.clearViolations();
+      this.shownFiles.clear();
+    }
+
+    Set<String> files() {
+      return new TreeSet<>(this.shownFiles.keySet());
+    }
+  }
+
+  /**
+   * Represents a CheckerService recording the files it is asked to check instead of checking them.
+   */
+  private static class RestoringCheckerService extends CheckerService {
+    private final Set<String> restoredFiles = new TreeSet<>();
+
+    @Override
+    public Future<Void> checkFilesAsync(List<File> filesToCheck, String charset) {
+      filesToCheck.forEach(file -> this.restoredFiles.add(file.getAbsolutePath()));
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Set<String> restoredFiles() {
+      return this.restoredFiles;
+    }
+  }
+}